@@ -48,6 +48,7 @@
 import org.lanternpowered.nbt.CompoundTag;
 import org.lanternpowered.nbt.ListTag;
 import org.lanternpowered.nbt.Tag;
+import org.lanternpowered.nbt.io.Compression;
 import org.lanternpowered.nbt.io.NbtTagInputStream;
 import org.lanternpowered.nbt.io.NbtTagOutputStream;
 
@@ -57,12 +58,21 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
 @SuppressWarnings("unchecked")
 public class NbtEditor extends Application {
 
+    /**
+     * The compressions that can be applied to files, in the order
+     * that they are tested when a file is being opened.
+     */
+    static final List<Compression> COMPRESSIONS = Arrays.asList(
+            Compression.gzip(), Compression.zlib(), Compression.deflate(), Compression.none());
+
     public static void main(String[] args) {
         // Launch the app
         launch(args);
@@ -186,7 +196,7 @@ private void save() {
         try {
             OutputStream outputStream = new FileOutputStream(this.openFile);
             // Transform the output stream for a specific compression
-            outputStream = this.rootTagElement.compression.transform(outputStream);
+            outputStream = this.rootTagElement.compression.compress(outputStream);
             try (NbtTagOutputStream tos = new NbtTagOutputStream(outputStream)) {
                 tos.write(this.rootTagElement.tag);
             }
@@ -216,11 +226,11 @@ private void onClickPageOpen(ActionEvent event) {
             try {
                 InputStream is = null;
                 Compression compression1 = null;
-                for (Compression compression : Compression.values()) {
+                for (Compression compression : COMPRESSIONS) {
                     is = new FileInputStream(file);
                     if (compression.test(is)) {
                         is.close();
-                        is = compression.transform(new FileInputStream(file));
+                        is = compression.decompress(new FileInputStream(file));
                         compression1 = compression;
                         break;
                     }
@@ -63,6 +63,7 @@
 import org.lanternpowered.nbt.editor.converter.CharConverter;
 import org.lanternpowered.nbt.editor.converter.NumberConverter;
 import org.lanternpowered.nbt.editor.converter.StringConverter;
+import org.lanternpowered.nbt.io.Compression;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -312,15 +313,14 @@ private static Object defaultCollectionElementValue(Tag<?> tag) {
                 final TreeTagElement tagElement = (TreeTagElement) treeElement;
                 final MenuItem modifyCompression = new MenuItem("Modify compression");
                 modifyCompression.setOnAction(actionEvent -> {
-                    final Compression[] compressions = Compression.values();
+                    final List<Compression> compressions = NbtEditor.COMPRESSIONS;
                     final ChoiceBox<String> choiceBox = new ChoiceBox<>(
-                            FXCollections.observableArrayList(Arrays.stream(compressions)
-                                    .map(Compression::name)
-                                    .map(String::toLowerCase)
+                            FXCollections.observableArrayList(compressions.stream()
+                                    .map(Compression::getName)
                                     .collect(Collectors.toList())));
-                    choiceBox.getSelectionModel().select(tagElement.compression.ordinal());
+                    choiceBox.getSelectionModel().select(compressions.indexOf(tagElement.compression));
                     choiceBox.getSelectionModel().selectedIndexProperty().addListener(
-                            (observable, oldValue, newValue) -> tagElement.compression = compressions[newValue.intValue()]);
+                            (observable, oldValue, newValue) -> tagElement.compression = compressions.get(newValue.intValue()));
                     final HBox hBox = new HBox();
                     hBox.setAlignment(Pos.CENTER_LEFT);
                     hBox.getChildren().add(new Label(getElementText(tagElement) + " "));
@@ -41,7 +41,8 @@ public int length() {
 
     @Override
     public void setAt(int index, V value) {
-        this.tag.get(index).set(value);
+        // Replace the element, primitive lists don't store the element tags
+        ((ListTag) this.tag).set(index, Tag.fromObject(value));
         super.setAt(index, value);
     }
 
@@ -26,6 +26,7 @@
 
 import org.lanternpowered.nbt.CompoundTag;
 import org.lanternpowered.nbt.Tag;
+import org.lanternpowered.nbt.io.Compression;
 
 /**
  * A element which wraps around a {@link Tag} to provide
@@ -0,0 +1,89 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import javax.annotation.Nullable;
+
+/**
+ * Counts the tags that share an array, only the tags that aren't
+ * the last owner have to copy the array before modifying it.
+ *
+ * <p>Copies may be modified on other threads than the tag they were
+ * copied from, so the count is updated atomically.</p>
+ */
+final class ArrayOwners {
+
+    private static final AtomicIntegerFieldUpdater<ArrayOwners> countUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(ArrayOwners.class, "count");
+
+    /**
+     * The owners of frozen tags, frozen tags never modify their array so
+     * they don't need to count. Copies of frozen tags always copy the array
+     * before modifying it. Using the owners to mark tags as frozen saves a
+     * field in every tag.
+     */
+    static final ArrayOwners FROZEN = new ArrayOwners();
+
+    private volatile int count = 1;
+
+    private ArrayOwners() {
+    }
+
+    /**
+     * Adds an owner to the array that is owned by the given
+     * owners, or creates them if the array isn't shared yet.
+     * The array of a frozen tag stays owned by the frozen tag.
+     *
+     * @param owners The current owners
+     * @return The owners
+     */
+    static ArrayOwners share(@Nullable ArrayOwners owners) {
+        if (owners == null || owners == FROZEN) {
+            owners = new ArrayOwners();
+        }
+        countUpdater.incrementAndGet(owners);
+        return owners;
+    }
+
+    /**
+     * Gets whether the array still has other owners, in which
+     * case it has to be copied before it's modified.
+     *
+     * @return Whether the array is shared
+     */
+    boolean isShared() {
+        return this.count > 1;
+    }
+
+    /**
+     * Removes an owner once it stopped using the array. Only
+     * release the array once the copy of it was made.
+     */
+    void release() {
+        countUpdater.decrementAndGet(this);
+    }
+}
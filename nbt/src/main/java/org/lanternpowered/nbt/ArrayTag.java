@@ -24,12 +24,148 @@
  */
 package org.lanternpowered.nbt;
 
+import java.lang.reflect.Array;
+
+import javax.annotation.Nullable;
+
+/**
+ * The base class for the tags that hold an array. The array is shared with
+ * the copies of the tag until either of them is modified, {@link #get()}
+ * copies a shared array before returning it. Use {@link #readOnlyArray()}
+ * to read the array without copying it, for example while a copy is being
+ * written.
+ *
+ * @param <V> The array type
+ * @param <B> The boxed element type
+ */
 public abstract class ArrayTag<V, B> extends ValueTag<V> {
 
+    // The tags the array is shared with, null if it isn't
+    // shared and ArrayOwners.FROZEN if this tag is frozen
+    @Nullable private ArrayOwners owners;
+    // The cached hash code, only used once frozen
+    private int hash;
+
     ArrayTag(V value) {
         super(value);
     }
 
+    /**
+     * Gets the array of this {@link Tag}. The array is a copy if this
+     * tag is frozen. The array is shared with copies of this tag until
+     * either of them is modified, so an array that was returned before
+     * this tag was copied shouldn't be modified anymore. A shared array
+     * is copied before it's returned, use {@link #readOnlyArray()} to
+     * only read the array.
+     *
+     * @return The array
+     */
+    @Override
+    public V get() {
+        if (isFrozen()) {
+            return copyOf(this.value);
+        }
+        unshare();
+        return this.value;
+    }
+
+    /**
+     * Gets the array of this {@link Tag} without copying it, even if this
+     * tag is frozen or shares its array with a copy. The array must not be
+     * modified, this is meant to read the array, for example to serialize it.
+     *
+     * @return The array
+     */
+    public final V readOnlyArray() {
+        return this.value;
+    }
+
+    @Override
+    public void set(V value) {
+        checkMutable();
+        super.set(value);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return this.owners == ArrayOwners.FROZEN;
+    }
+
+    /**
+     * Gets a frozen copy of this {@link ArrayTag},
+     * or this tag if it's already frozen.
+     *
+     * @return The frozen tag
+     */
+    @Override
+    public abstract ArrayTag<V, B> freeze();
+
+    /**
+     * Gets a copy of this {@link ArrayTag}, arrays of immutable values
+     * are shared with the copy until either of the tags is modified.
+     *
+     * @return The copy
+     */
+    @Override
+    public abstract ArrayTag<V, B> copy();
+
+    /**
+     * Shares the array of this tag with the copy, the
+     * array is copied before either of them modifies it.
+     *
+     * @param copy The copy
+     * @param <T> The type of the copy
+     * @return The copy
+     */
+    final <T extends ArrayTag<V, B>> T share(T copy) {
+        final ArrayOwners owners = ArrayOwners.share(this.owners);
+        if (!isFrozen()) {
+            this.owners = owners;
+        }
+        ((ArrayTag<V, B>) copy).owners = owners;
+        return copy;
+    }
+
+    /**
+     * Marks this tag as frozen, only used by newly created tags.
+     */
+    final void markFrozen() {
+        this.owners = ArrayOwners.FROZEN;
+    }
+
+    /**
+     * Checks whether this tag can be modified, a
+     * shared array is copied before it's modified.
+     */
+    final void checkMutable() {
+        if (isFrozen()) {
+            throw FrozenTags.modification();
+        }
+        unshare();
+    }
+
+    private void unshare() {
+        final ArrayOwners owners = this.owners;
+        if (owners == null) {
+            return;
+        }
+        // The last owner can keep the array, frozen
+        // tags never release it, so it's copied then
+        if (owners.isShared()) {
+            this.value = copyOf(this.value);
+            owners.release();
+        }
+        this.owners = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V copyOf(V array) {
+        final int length = Array.getLength(array);
+        final V copy = (V) Array.newInstance(array.getClass().getComponentType(), length);
+        System.arraycopy(array, 0, copy, 0, length);
+        return copy;
+    }
+
     /**
      * Gets the length of this array.
      *
@@ -109,5 +245,20 @@ public boolean equals(Object obj) {
                 arrayEquals(((ArrayTag<V, B>) obj).value);
     }
 
+    @Override
+    public int hashCode() {
+        if (!isFrozen()) {
+            return arrayHashCode();
+        }
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = arrayHashCode();
+            this.hash = hash;
+        }
+        return hash;
+    }
+
     abstract boolean arrayEquals(V that);
+
+    abstract int arrayHashCode();
 }
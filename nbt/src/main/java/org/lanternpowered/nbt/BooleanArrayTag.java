@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Boolean value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -91,6 +92,7 @@ public void insertAt(int index, Boolean value) {
      * @param value The value
      */
     public void insertAt(int index, boolean value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -103,6 +105,7 @@ public void insertAt(int index, boolean value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public Boolean getAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Boolean[] value, boolean defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Boolean[] value) {
         set(value, false);
     }
 
+    @Override
+    public BooleanArrayTag copy() {
+        return share(new BooleanArrayTag(this.value));
+    }
+
+    @Override
+    public BooleanArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final BooleanArrayTag frozen = new BooleanArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Boolean[] boxedArray() {
         final Boolean[] array = new Boolean[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(boolean[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
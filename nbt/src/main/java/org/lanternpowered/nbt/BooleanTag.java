@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class BooleanTag implements Tag<Boolean> {
+public class BooleanTag implements Tag<Boolean> {
 
     private boolean value;
 
@@ -62,6 +62,21 @@ public void set(boolean value) {
         this.value = value;
     }
 
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public BooleanTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    @Override
+    public BooleanTag copy() {
+        return new BooleanTag(this.value);
+    }
+
     /**
      * Gets the value as a {@code boolean}.
      *
@@ -78,11 +93,41 @@ public int hashCode() {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "[" + this.value + "]";
+        return BooleanTag.class.getSimpleName() + "[" + this.value + "]";
     }
 
     @Override
     public boolean equals(Object obj) {
         return obj instanceof BooleanTag && ((BooleanTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link BooleanTag} that can't be modified.
+     */
+    private static final class Frozen extends BooleanTag {
+
+        private Frozen(boolean value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Boolean value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(boolean value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public BooleanTag freeze() {
+            return this;
+        }
+    }
 }
@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Byte value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -96,6 +97,7 @@ public void insertAt(int index, Byte value) {
      * @param value The value
      */
     public void insertAt(int index, byte value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -108,6 +110,7 @@ public void insertAt(int index, byte value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public void removeAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Byte[] value, byte defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Byte[] value) {
         set(value, (byte) 0);
     }
 
+    @Override
+    public ByteArrayTag copy() {
+        return share(new ByteArrayTag(this.value));
+    }
+
+    @Override
+    public ByteArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final ByteArrayTag frozen = new ByteArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Byte[] boxedArray() {
         final Byte[] array = new Byte[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(byte[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
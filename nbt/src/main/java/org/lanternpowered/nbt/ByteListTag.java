@@ -0,0 +1,177 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ListTag} of {@link ByteTag}s that stores
+ * the elements in a {@code byte} array.
+ */
+public final class ByteListTag extends PrimitiveListTag<ByteTag> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] values;
+
+    /**
+     * Constructs a new empty {@link ByteListTag}.
+     */
+    public ByteListTag() {
+        this.values = EMPTY;
+    }
+
+    /**
+     * Constructs a new empty {@link ByteListTag}
+     * with the given initial capacity.
+     *
+     * @param initialCapacity The initial capacity
+     */
+    public ByteListTag(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.values = initialCapacity == 0 ? EMPTY : new byte[initialCapacity];
+    }
+
+    /**
+     * Constructs a new {@link ByteListTag} with
+     * a copy of the given values.
+     *
+     * @param values The values
+     */
+    public ByteListTag(byte[] values) {
+        this.values = values.clone();
+        this.size = values.length;
+    }
+
+    /**
+     * Gets the value at the given index.
+     *
+     * @param index The index
+     * @return The value
+     */
+    public byte getByte(int index) {
+        checkIndex(index);
+        return this.values[index];
+    }
+
+    /**
+     * Sets the value at the given index.
+     *
+     * @param index The index
+     * @param value The value
+     * @return The previous value
+     */
+    public byte setByte(int index, byte value) {
+        checkMutable();
+        checkIndex(index);
+        final byte old = this.values[index];
+        this.values[index] = value;
+        return old;
+    }
+
+    /**
+     * Adds the value to the end of this list.
+     *
+     * @param value The value
+     */
+    public void addByte(byte value) {
+        checkMutable();
+        this.modCount++;
+        grow(this.size + 1);
+        this.values[this.size++] = value;
+    }
+
+    /**
+     * Copies the values of this list into a new array.
+     *
+     * @return The values
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    @Override
+    public ByteListTag freeze() {
+        return (ByteListTag) super.freeze();
+    }
+
+    @Override
+    public ByteListTag copy() {
+        return (ByteListTag) super.copy();
+    }
+
+    @Override
+    public Class<ByteTag> getElementType() {
+        return ByteTag.class;
+    }
+
+    @Override
+    int capacity() {
+        return this.values.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+        this.values = Arrays.copyOf(this.values, capacity);
+    }
+
+    @Override
+    void move(int from, int to, int length) {
+        System.arraycopy(this.values, from, this.values, to, length);
+    }
+
+    @Override
+    ByteTag getElement(int index) {
+        return ByteTag.frozen(this.values[index]);
+    }
+
+    @Override
+    void setElement(int index, ByteTag element) {
+        this.values[index] = element.byteValue();
+    }
+
+    @Override
+    boolean elementEquals(int index, ByteTag element) {
+        return this.values[index] == element.byteValue();
+    }
+
+    @Override
+    int elementHashCode(int index) {
+        return Byte.hashCode(this.values[index]);
+    }
+
+    @Override
+    boolean valuesEqual(PrimitiveListTag<ByteTag> other) {
+        final byte[] otherValues = ((ByteListTag) other).values;
+        for (int i = 0; i < this.size; i++) {
+            if (this.values[i] != otherValues[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
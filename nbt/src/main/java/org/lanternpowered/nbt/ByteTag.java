@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class ByteTag extends NumberTag<Byte> {
+public class ByteTag extends NumberTag<Byte> {
 
     private byte value;
 
@@ -57,6 +57,26 @@ public void set(byte value) {
         this.value = value;
     }
 
+    @Override
+    public ByteTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    /**
+     * Constructs a frozen {@link ByteTag} with the given value.
+     *
+     * @param value The value
+     * @return The frozen tag
+     */
+    static ByteTag frozen(byte value) {
+        return new Frozen(value);
+    }
+
+    @Override
+    public ByteTag copy() {
+        return new ByteTag(this.value);
+    }
+
     @Override
     public Byte get() {
         return this.value;
@@ -101,4 +121,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof ByteTag && ((ByteTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link ByteTag} that can't be modified.
+     */
+    private static final class Frozen extends ByteTag {
+
+        private Frozen(byte value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Byte value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(byte value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public ByteTag freeze() {
+            return this;
+        }
+    }
 }
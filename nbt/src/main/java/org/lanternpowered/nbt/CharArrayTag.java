@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Character value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -96,6 +97,7 @@ public void insertAt(int index, Character value) {
      * @param value The value
      */
     public void insertAt(int index, char value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -108,6 +110,7 @@ public void insertAt(int index, char value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public void removeAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Character[] value, char defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Character[] value) {
         set(value, (char) 0);
     }
 
+    @Override
+    public CharArrayTag copy() {
+        return share(new CharArrayTag(this.value));
+    }
+
+    @Override
+    public CharArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final CharArrayTag frozen = new CharArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Character[] boxedArray() {
         final Character[] array = new Character[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(char[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class CharTag implements Tag<Character> {
+public class CharTag implements Tag<Character> {
 
     private char value;
 
@@ -57,6 +57,21 @@ public void set(char value) {
         this.value = value;
     }
 
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public CharTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    @Override
+    public CharTag copy() {
+        return new CharTag(this.value);
+    }
+
     @Override
     public Character get() {
         return this.value;
@@ -73,7 +88,7 @@ public char charValue() {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "[" + this.value + "]";
+        return CharTag.class.getSimpleName() + "[" + this.value + "]";
     }
 
     @Override
@@ -85,4 +100,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof CharTag && ((CharTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link CharTag} that can't be modified.
+     */
+    private static final class Frozen extends CharTag {
+
+        private Frozen(char value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Character value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(char value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public CharTag freeze() {
+            return this;
+        }
+    }
 }
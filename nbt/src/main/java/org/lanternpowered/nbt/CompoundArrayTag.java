@@ -36,4 +36,27 @@ public CompoundArrayTag(CompoundTag... value) {
         super(value);
     }
 
+    @Override
+    public CompoundArrayTag copy() {
+        final CompoundTag[] value = new CompoundTag[this.value.length];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = this.value[i].copy();
+        }
+        return new CompoundArrayTag(value);
+    }
+
+    @Override
+    public CompoundArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final CompoundTag[] value = new CompoundTag[this.value.length];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = this.value[i].freeze();
+        }
+        final CompoundArrayTag frozen = new CompoundArrayTag(value);
+        frozen.markFrozen();
+        return frozen;
+    }
+
 }
@@ -0,0 +1,223 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * The layout of the keys of a compact {@link CompoundTag}. Compounds with
+ * the same keys, added in the same order, share the same shape, so they
+ * only have to store their values.
+ *
+ * <p>Shapes form a tree, adding a key transitions to a child shape which
+ * is cached by its parent. The children are weakly referenced, so shapes
+ * that are no longer used by any compound can be collected. Shapes are
+ * immutable and can be shared between threads.</p>
+ */
+final class CompoundShape {
+
+    /**
+     * The shape without keys, the root of all the shapes.
+     */
+    static final CompoundShape EMPTY = new CompoundShape(null, new String[0]);
+
+    /**
+     * The maximum amount of cached transitions of a single shape,
+     * compounds that are used as maps with arbitrary keys
+     * shouldn't flood the cache.
+     */
+    private static final int MAXIMUM_TRANSITIONS = 64;
+
+    /**
+     * The amount of keys from which lookups use a hash table.
+     */
+    private static final int INDEX_THRESHOLD = 8;
+
+    @Nullable private final CompoundShape parent;
+    private final String[] keys;
+    // A open addressing hash table with the index + 1 of each key, only
+    // present for larger shapes
+    @Nullable private final int[] index;
+
+    // The last transition, compounds of the same kind, e.g. siblings
+    // within a list, add the same keys, so this avoids the lookups
+    @Nullable private volatile Transition lastTransition;
+    @Nullable private volatile ConcurrentHashMap<String, WeakReference<CompoundShape>> transitions;
+
+    private CompoundShape(@Nullable CompoundShape parent, String[] keys) {
+        this.parent = parent;
+        this.keys = keys;
+        this.index = keys.length > INDEX_THRESHOLD ? buildIndex(keys) : null;
+    }
+
+    private static int[] buildIndex(String[] keys) {
+        final int[] index = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+        final int mask = index.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = keys[i].hashCode() & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i + 1;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the amount of keys.
+     *
+     * @return The size
+     */
+    int size() {
+        return this.keys.length;
+    }
+
+    /**
+     * Gets the key at the given index.
+     *
+     * @param index The index
+     * @return The key
+     */
+    String key(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * Gets the index of the given key.
+     *
+     * @param key The key
+     * @return The index, or {@code -1} if not found
+     */
+    int indexOf(String key) {
+        final String[] keys = this.keys;
+        // The hash codes of strings are cached, so comparing them
+        // first avoids most of the equals calls
+        final int hash = key.hashCode();
+        final int[] index = this.index;
+        if (index != null) {
+            final int mask = index.length - 1;
+            for (int slot = hash & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+                final String k = keys[index[slot] - 1];
+                if (k == key || (k.hashCode() == hash && k.equals(key))) {
+                    return index[slot] - 1;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            final String k = keys[i];
+            if (k == key || (k.hashCode() == hash && k.equals(key))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the shape with the given key added at the end. The
+     * key may not be present in this shape.
+     *
+     * @param key The key
+     * @return The shape
+     */
+    CompoundShape with(String key) {
+        final Transition lastTransition = this.lastTransition;
+        if (lastTransition != null && lastTransition.key == key) {
+            return lastTransition.shape;
+        }
+        final CompoundShape shape = transition(key);
+        this.lastTransition = new Transition(key, shape);
+        return shape;
+    }
+
+    private CompoundShape transition(String key) {
+        ConcurrentHashMap<String, WeakReference<CompoundShape>> transitions = this.transitions;
+        if (transitions != null) {
+            final WeakReference<CompoundShape> reference = transitions.get(key);
+            final CompoundShape shape = reference == null ? null : reference.get();
+            if (shape != null) {
+                return shape;
+            }
+        }
+        synchronized (this) {
+            transitions = this.transitions;
+            if (transitions == null) {
+                this.transitions = transitions = new ConcurrentHashMap<>();
+            }
+            final WeakReference<CompoundShape> reference = transitions.get(key);
+            CompoundShape shape = reference == null ? null : reference.get();
+            if (shape != null) {
+                return shape;
+            }
+            final String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+            keys[this.keys.length] = key;
+            shape = new CompoundShape(this, keys);
+            if (transitions.size() >= MAXIMUM_TRANSITIONS) {
+                // Drop the collected shapes first, if that doesn't
+                // free up space the new shape will not be shared
+                transitions.values().removeIf(ref -> ref.get() == null);
+                if (transitions.size() >= MAXIMUM_TRANSITIONS) {
+                    return shape;
+                }
+            }
+            transitions.put(key, new WeakReference<>(shape));
+            return shape;
+        }
+    }
+
+    /**
+     * Gets the shape with the key at the given index removed.
+     *
+     * @param index The index of the key
+     * @return The shape
+     */
+    CompoundShape without(int index) {
+        // Every shape is a transition from its parent, so go back
+        // to the shape before the key and add the following keys
+        CompoundShape shape = this;
+        for (int i = this.keys.length; i > index; i--) {
+            shape = shape.parent;
+        }
+        for (int i = index + 1; i < this.keys.length; i++) {
+            shape = shape.with(this.keys[i]);
+        }
+        return shape;
+    }
+
+    private static final class Transition {
+
+        private final String key;
+        private final CompoundShape shape;
+
+        private Transition(String key, CompoundShape shape) {
+            this.key = key;
+            this.shape = shape;
+        }
+    }
+}
@@ -26,13 +26,42 @@
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
+/**
+ * A {@link Tag} that maps names to tags.
+ *
+ * <p>Compounds store the values of their entries in a array and
+ * the keys in a shape, which is shared between all the compounds
+ * with the same keys. Once a compound grows beyond 32 entries,
+ * the entries are moved into the hash table of the {@link HashMap}.
+ * Compact compounds iterate in insertion order.</p>
+ */
 @SuppressWarnings("unchecked")
-public final class CompoundTag extends HashMap<String, Tag<?>> implements Tag<Map<String, Tag<?>>> {
+public class CompoundTag extends HashMap<String, Tag<?>> implements Tag<Map<String, Tag<?>>> {
+
+    /**
+     * The maximum amount of entries that are stored in the compact arrays.
+     */
+    private static final int MAXIMUM_COMPACT_SIZE = 32;
+
+    private static final Tag<?>[] EMPTY_VALUES = new Tag<?>[0];
 
     /**
      * Constructs a new {@link CompoundTag} from
@@ -45,14 +74,36 @@ public static CompoundTag of(Map<String, Tag<?>> map) {
         return new CompoundTag(map);
     }
 
+    // The shape and values while this compound is compact, both
+    // are null once the entries are moved into the hash table
+    @Nullable private CompoundShape shape = CompoundShape.EMPTY;
+    @Nullable private Tag<?>[] values = EMPTY_VALUES;
+    private int compactModCount;
+
     /**
      * Constructs a new {@link CompoundTag}.
      */
     public CompoundTag() {
     }
 
+    /**
+     * Constructs a new {@link CompoundTag} with
+     * the given initial capacity.
+     *
+     * @param initialCapacity The initial capacity
+     */
+    public CompoundTag(int initialCapacity) {
+        super(Math.max(initialCapacity, 16));
+        if (initialCapacity > MAXIMUM_COMPACT_SIZE) {
+            this.shape = null;
+            this.values = null;
+        } else if (initialCapacity > 0) {
+            this.values = new Tag<?>[initialCapacity];
+        }
+    }
+
     private CompoundTag(Map<String, Tag<?>> map) {
-        super(map);
+        putAll(map);
     }
 
     @Override
@@ -66,12 +117,356 @@ public void set(Map<String, Tag<?>> value) {
         putAll(value);
     }
 
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public CompoundTag freeze() {
+        return new FrozenCompoundTag(this);
+    }
+
+    @Override
+    public CompoundTag copy() {
+        final CompoundTag copy = new CompoundTag(size());
+        forEach((key, value) -> copy.putEntry(key, value.copy()));
+        return copy;
+    }
+
     @Nullable
     @Override
     public Tag<?> put(String key, Tag<?> value) {
         requireNonNull(key, "key");
         requireNonNull(value, "value");
-        return super.put(key, value);
+        return putEntry(key, value);
+    }
+
+    /**
+     * Gets the index of the key in the compact values.
+     *
+     * @param key The key
+     * @return The index, or {@code -1} if not found
+     */
+    private int indexOf(@Nullable Object key) {
+        // Only strings can be stored as keys
+        return key instanceof String ? this.shape.indexOf((String) key) : -1;
+    }
+
+    @Nullable
+    Tag<?> putEntry(String key, @Nullable Tag<?> value) {
+        if (this.shape == null) {
+            return super.put(key, value);
+        }
+        requireNonNull(key, "key");
+        final int index = indexOf(key);
+        if (index != -1) {
+            final Tag<?> old = this.values[index];
+            this.values[index] = value;
+            return old;
+        }
+        final int size = this.shape.size();
+        if (size == MAXIMUM_COMPACT_SIZE) {
+            promote();
+            return super.put(key, value);
+        }
+        if (size == this.values.length) {
+            final int capacity = Math.min(Math.max(size * 2, 2), MAXIMUM_COMPACT_SIZE);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        this.shape = this.shape.with(key);
+        this.values[size] = value;
+        this.compactModCount++;
+        return null;
+    }
+
+    private Tag<?> removeAt(int index) {
+        final Tag<?> old = this.values[index];
+        final int size = this.shape.size();
+        final int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(this.values, index + 1, this.values, index, moved);
+        }
+        this.values[size - 1] = null;
+        this.shape = this.shape.without(index);
+        this.compactModCount++;
+        return old;
+    }
+
+    /**
+     * Moves all the compact entries into the hash table.
+     */
+    private void promote() {
+        final CompoundShape shape = this.shape;
+        final Tag<?>[] values = this.values;
+        this.shape = null;
+        this.values = null;
+        this.compactModCount++;
+        for (int i = 0; i < shape.size(); i++) {
+            super.put(shape.key(i), values[i]);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.shape == null ? super.size() : this.shape.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.shape == null ? super.isEmpty() : this.shape.size() == 0;
+    }
+
+    @Override
+    public Tag<?> get(Object key) {
+        if (this.shape == null) {
+            return super.get(key);
+        }
+        final int index = indexOf(key);
+        return index == -1 ? null : this.values[index];
+    }
+
+    @Override
+    public Tag<?> getOrDefault(Object key, Tag<?> defaultValue) {
+        if (this.shape == null) {
+            return super.getOrDefault(key, defaultValue);
+        }
+        final int index = indexOf(key);
+        return index == -1 ? defaultValue : this.values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.shape == null ? super.containsKey(key) : indexOf(key) != -1;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (this.shape == null) {
+            return super.containsValue(value);
+        }
+        for (int i = 0; i < this.shape.size(); i++) {
+            if (Objects.equals(value, this.values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Tag<?>> m) {
+        if (this.shape != null && this.shape.size() + m.size() > MAXIMUM_COMPACT_SIZE) {
+            promote();
+        }
+        if (this.shape == null) {
+            super.putAll(m);
+            return;
+        }
+        for (Map.Entry<? extends String, ? extends Tag<?>> entry : m.entrySet()) {
+            putEntry(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Tag<?> putIfAbsent(String key, Tag<?> value) {
+        if (this.shape == null) {
+            return super.putIfAbsent(key, value);
+        }
+        final int index = indexOf(key);
+        if (index != -1 && this.values[index] != null) {
+            return this.values[index];
+        }
+        putEntry(key, value);
+        return null;
+    }
+
+    @Override
+    public Tag<?> remove(Object key) {
+        if (this.shape == null) {
+            return super.remove(key);
+        }
+        final int index = indexOf(key);
+        return index == -1 ? null : removeAt(index);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (this.shape == null) {
+            return super.remove(key, value);
+        }
+        final int index = indexOf(key);
+        if (index == -1 || !Objects.equals(this.values[index], value)) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public boolean replace(String key, Tag<?> oldValue, Tag<?> newValue) {
+        if (this.shape == null) {
+            return super.replace(key, oldValue, newValue);
+        }
+        final int index = indexOf(key);
+        if (index == -1 || !Objects.equals(this.values[index], oldValue)) {
+            return false;
+        }
+        this.values[index] = newValue;
+        return true;
+    }
+
+    @Override
+    public Tag<?> replace(String key, Tag<?> value) {
+        if (this.shape == null) {
+            return super.replace(key, value);
+        }
+        final int index = indexOf(key);
+        if (index == -1) {
+            return null;
+        }
+        final Tag<?> old = this.values[index];
+        this.values[index] = value;
+        return old;
+    }
+
+    @Override
+    public Tag<?> computeIfAbsent(String key, Function<? super String, ? extends Tag<?>> mappingFunction) {
+        if (this.shape == null) {
+            return super.computeIfAbsent(key, mappingFunction);
+        }
+        requireNonNull(mappingFunction);
+        final Tag<?> old = get(key);
+        if (old != null) {
+            return old;
+        }
+        final Tag<?> value = mappingFunction.apply(key);
+        if (value != null) {
+            putEntry(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Tag<?> computeIfPresent(String key,
+            BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        if (this.shape == null) {
+            return super.computeIfPresent(key, remappingFunction);
+        }
+        requireNonNull(remappingFunction);
+        final Tag<?> old = get(key);
+        if (old == null) {
+            return null;
+        }
+        final Tag<?> value = remappingFunction.apply(key, old);
+        if (value == null) {
+            remove(key);
+        } else {
+            putEntry(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Tag<?> compute(String key, BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        if (this.shape == null) {
+            return super.compute(key, remappingFunction);
+        }
+        requireNonNull(remappingFunction);
+        final Tag<?> value = remappingFunction.apply(key, get(key));
+        if (value == null) {
+            remove(key);
+        } else {
+            putEntry(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Tag<?> merge(String key, Tag<?> value,
+            BiFunction<? super Tag<?>, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        if (this.shape == null) {
+            return super.merge(key, value, remappingFunction);
+        }
+        requireNonNull(value);
+        requireNonNull(remappingFunction);
+        final Tag<?> old = get(key);
+        final Tag<?> newValue = old == null ? value : remappingFunction.apply(old, value);
+        if (newValue == null) {
+            remove(key);
+        } else {
+            putEntry(key, newValue);
+        }
+        return newValue;
+    }
+
+    @Override
+    public void clear() {
+        if (this.shape == null) {
+            super.clear();
+            return;
+        }
+        Arrays.fill(this.values, 0, this.shape.size(), null);
+        this.shape = CompoundShape.EMPTY;
+        this.compactModCount++;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Tag<?>> action) {
+        if (this.shape == null) {
+            super.forEach(action);
+            return;
+        }
+        requireNonNull(action);
+        final int modCount = this.compactModCount;
+        for (int i = 0; modCount == this.compactModCount && i < this.shape.size(); i++) {
+            action.accept(this.shape.key(i), this.values[i]);
+        }
+        if (modCount != this.compactModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> function) {
+        if (this.shape == null) {
+            super.replaceAll(function);
+            return;
+        }
+        requireNonNull(function);
+        final int modCount = this.compactModCount;
+        for (int i = 0; modCount == this.compactModCount && i < this.shape.size(); i++) {
+            this.values[i] = function.apply(this.shape.key(i), this.values[i]);
+        }
+        if (modCount != this.compactModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return this.shape == null ? super.keySet() : new KeySet();
+    }
+
+    @Override
+    public Collection<Tag<?>> values() {
+        return this.shape == null ? super.values() : new Values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Tag<?>>> entrySet() {
+        return this.shape == null ? super.entrySet() : new EntrySet();
+    }
+
+    @Override
+    public Object clone() {
+        if (this.shape == null) {
+            return super.clone();
+        }
+        final CompoundTag clone = new CompoundTag();
+        // The shape is immutable, so it can be shared
+        clone.shape = this.shape;
+        clone.values = Arrays.copyOf(this.values, this.shape.size());
+        return clone;
     }
 
     public void putValue(String key, Object value) {
@@ -561,6 +956,185 @@ public Double getNullableDouble(String key) {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + super.toString();
+        // Don't expose the name of the lazy compound implementation
+        return CompoundTag.class.getSimpleName() + super.toString();
+    }
+
+    /**
+     * A iterator over the compact entries. The views fall back to
+     * the views of the hash table once the entries were moved.
+     */
+    private abstract class CompactIterator<E> implements Iterator<E> {
+
+        private int index;
+        private int last = -1;
+        private int expectedModCount = CompoundTag.this.compactModCount;
+
+        abstract E element(int index);
+
+        @Override
+        public boolean hasNext() {
+            final CompoundShape shape = CompoundTag.this.shape;
+            // Let next throw once the entries were moved into the hash table
+            return shape == null || this.index < shape.size();
+        }
+
+        @Override
+        public E next() {
+            if (this.expectedModCount != CompoundTag.this.compactModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (this.index >= CompoundTag.this.shape.size()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.index++;
+            return element(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == -1) {
+                throw new IllegalStateException();
+            }
+            if (this.expectedModCount != CompoundTag.this.compactModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(this.last);
+            this.index = this.last;
+            this.last = -1;
+            this.expectedModCount = CompoundTag.this.compactModCount;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            if (CompoundTag.this.shape == null) {
+                return CompoundTag.super.keySet().iterator();
+            }
+            return new CompactIterator<String>() {
+                @Override
+                String element(int index) {
+                    return CompoundTag.this.shape.key(index);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CompoundTag.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            CompoundTag.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            CompoundTag.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<Tag<?>> {
+
+        @Override
+        public Iterator<Tag<?>> iterator() {
+            if (CompoundTag.this.shape == null) {
+                return CompoundTag.super.values().iterator();
+            }
+            return new CompactIterator<Tag<?>>() {
+                @Override
+                Tag<?> element(int index) {
+                    return CompoundTag.this.values[index];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CompoundTag.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            CompoundTag.this.clear();
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<String, Tag<?>>> {
+
+        @Override
+        public Iterator<Map.Entry<String, Tag<?>>> iterator() {
+            if (CompoundTag.this.shape == null) {
+                return CompoundTag.super.entrySet().iterator();
+            }
+            return new CompactIterator<Map.Entry<String, Tag<?>>>() {
+                @Override
+                Map.Entry<String, Tag<?>> element(int index) {
+                    return new CompactEntry(CompoundTag.this.shape.key(index), CompoundTag.this.values[index]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return CompoundTag.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return containsKey(entry.getKey()) && Objects.equals(get(entry.getKey()), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return CompoundTag.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            CompoundTag.this.clear();
+        }
+    }
+
+    /**
+     * A compact entry, setting the value writes through to the compound.
+     */
+    private final class CompactEntry extends AbstractMap.SimpleEntry<String, Tag<?>> {
+
+        private CompactEntry(String key, Tag<?> value) {
+            super(key, value);
+        }
+
+        @Override
+        public Tag<?> setValue(Tag<?> value) {
+            requireNonNull(value, "value");
+            replace(getKey(), value);
+            return super.setValue(value);
+        }
     }
 }
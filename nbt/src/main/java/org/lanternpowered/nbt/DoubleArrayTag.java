@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Double value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -96,6 +97,7 @@ public void insertAt(int index, Double value) {
      * @param value The value
      */
     public void insertAt(int index, double value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -108,6 +110,7 @@ public void insertAt(int index, double value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public void removeAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Double[] value, double defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Double[] value) {
         set(value, 0);
     }
 
+    @Override
+    public DoubleArrayTag copy() {
+        return share(new DoubleArrayTag(this.value));
+    }
+
+    @Override
+    public DoubleArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final DoubleArrayTag frozen = new DoubleArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Double[] boxedArray() {
         final Double[] array = new Double[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(double[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class DoubleTag extends NumberTag<Double> {
+public class DoubleTag extends NumberTag<Double> {
 
     private double value;
 
@@ -57,6 +57,26 @@ public void set(double value) {
         this.value = value;
     }
 
+    @Override
+    public DoubleTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    /**
+     * Constructs a frozen {@link DoubleTag} with the given value.
+     *
+     * @param value The value
+     * @return The frozen tag
+     */
+    static DoubleTag frozen(double value) {
+        return new Frozen(value);
+    }
+
+    @Override
+    public DoubleTag copy() {
+        return new DoubleTag(this.value);
+    }
+
     @Override
     public Double get() {
         return this.value;
@@ -91,4 +111,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof DoubleTag && ((DoubleTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link DoubleTag} that can't be modified.
+     */
+    private static final class Frozen extends DoubleTag {
+
+        private Frozen(double value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Double value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(double value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public DoubleTag freeze() {
+            return this;
+        }
+    }
 }
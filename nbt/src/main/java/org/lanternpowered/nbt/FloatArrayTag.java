@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Float value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -96,6 +97,7 @@ public void insertAt(int index, Float value) {
      * @param value The value
      */
     public void insertAt(int index, float value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -108,6 +110,7 @@ public void insertAt(int index, float value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public void removeAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Float[] value, float defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Float[] value) {
         set(value, 0);
     }
 
+    @Override
+    public FloatArrayTag copy() {
+        return share(new FloatArrayTag(this.value));
+    }
+
+    @Override
+    public FloatArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final FloatArrayTag frozen = new FloatArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Float[] boxedArray() {
         final Float[] array = new Float[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(float[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
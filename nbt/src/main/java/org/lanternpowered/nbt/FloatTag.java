@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class FloatTag extends NumberTag<Float> {
+public class FloatTag extends NumberTag<Float> {
 
     private float value;
 
@@ -57,6 +57,26 @@ public void set(float value) {
         this.value = value;
     }
 
+    @Override
+    public FloatTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    /**
+     * Constructs a frozen {@link FloatTag} with the given value.
+     *
+     * @param value The value
+     * @return The frozen tag
+     */
+    static FloatTag frozen(float value) {
+        return new Frozen(value);
+    }
+
+    @Override
+    public FloatTag copy() {
+        return new FloatTag(this.value);
+    }
+
     @Override
     public Float get() {
         return this.value;
@@ -91,4 +111,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof FloatTag && ((FloatTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link FloatTag} that can't be modified.
+     */
+    private static final class Frozen extends FloatTag {
+
+        private Frozen(float value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Float value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(float value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public FloatTag freeze() {
+            return this;
+        }
+    }
 }
@@ -0,0 +1,165 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A frozen snapshot of a {@link CompoundTag}.
+ */
+final class FrozenCompoundTag extends CompoundTag {
+
+    // The cached hash code, 0 if not yet computed
+    private int hash;
+
+    FrozenCompoundTag(CompoundTag compoundTag) {
+        super(compoundTag.size());
+        compoundTag.forEach((key, value) -> putEntry(key, value.freeze()));
+    }
+
+    @Override
+    public void set(Map<String, Tag<?>> value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public CompoundTag freeze() {
+        return this;
+    }
+
+    @Override
+    public Tag<?> put(String key, Tag<?> value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Tag<?>> m) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> putIfAbsent(String key, Tag<?> value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> remove(Object key) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean replace(String key, Tag<?> oldValue, Tag<?> newValue) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> replace(String key, Tag<?> value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> computeIfAbsent(String key, Function<? super String, ? extends Tag<?>> mappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> computeIfPresent(String key,
+            BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> compute(String key, BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Tag<?> merge(String key, Tag<?> value,
+            BiFunction<? super Tag<?>, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void clear() {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> function) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public Collection<Tag<?>> values() {
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public Set<Map.Entry<String, Tag<?>>> entrySet() {
+        return FrozenTags.unmodifiableEntrySet(super.entrySet());
+    }
+
+    @Override
+    public int hashCode() {
+        // Racy, but every thread computes the same hash code
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = super.hashCode();
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Gets a mutable copy of this compound, the
+     * contained tags are still frozen.
+     *
+     * @return The copy
+     */
+    @Override
+    public Object clone() {
+        return CompoundTag.of(this);
+    }
+}
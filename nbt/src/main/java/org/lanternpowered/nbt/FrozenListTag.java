@@ -0,0 +1,188 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A frozen snapshot of a {@link ListTag}.
+ *
+ * @param <T> The element tag type
+ */
+@SuppressWarnings("unchecked")
+final class FrozenListTag<T extends Tag<?>> extends ListTag<T> {
+
+    // The cached hash code, 0 if not yet computed
+    private int hash;
+
+    FrozenListTag(ListTag<T> listTag) {
+        super.ensureCapacity(listTag.size());
+        for (T element : listTag) {
+            super.add((T) element.freeze());
+        }
+    }
+
+    @Override
+    public void set(List<T> value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public ListTag<T> freeze() {
+        return this;
+    }
+
+    @Override
+    public T set(int index, T e) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean add(T e) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void add(int index, T e) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public T remove(int index) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void sort(Comparator<? super T> c) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void clear() {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void ensureCapacity(int minCapacity) {
+    }
+
+    @Override
+    public void trimToSize() {
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        return subList(0, size()).listIterator(index);
+    }
+
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+    }
+
+    @Override
+    public int hashCode() {
+        // Racy, but every thread computes the same hash code
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = super.hashCode();
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Gets a mutable copy of this list, the
+     * contained tags are still frozen.
+     *
+     * @return The copy
+     */
+    @Override
+    public Object clone() {
+        return ListTag.of((List<T>) this);
+    }
+}
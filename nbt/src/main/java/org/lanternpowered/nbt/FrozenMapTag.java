@@ -0,0 +1,166 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A frozen snapshot of a {@link MapTag}.
+ *
+ * @param <K> The key tag type
+ * @param <V> The value tag type
+ */
+@SuppressWarnings("unchecked")
+final class FrozenMapTag<K extends Tag<?>, V extends Tag<?>> extends MapTag<K, V> {
+
+    // The cached hash code, 0 if not yet computed
+    private int hash;
+
+    FrozenMapTag(MapTag<K, V> mapTag) {
+        mapTag.forEach((key, value) -> super.put((K) key.freeze(), (V) value.freeze()));
+    }
+
+    @Override
+    public void set(Map<K, V> value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public MapTag<K, V> freeze() {
+        return this;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void clear() {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        throw FrozenTags.modification();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return FrozenTags.unmodifiableEntrySet(super.entrySet());
+    }
+
+    @Override
+    public int hashCode() {
+        // Racy, but every thread computes the same hash code
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = super.hashCode();
+            this.hash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Gets a mutable copy of this map, the
+     * contained tags are still frozen.
+     *
+     * @return The copy
+     */
+    @Override
+    public Object clone() {
+        return MapTag.of(this);
+    }
+}
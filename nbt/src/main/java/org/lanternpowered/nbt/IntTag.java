@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class IntTag extends NumberTag<Integer> {
+public class IntTag extends NumberTag<Integer> {
 
     private int value;
 
@@ -57,6 +57,26 @@ public void set(int value) {
         this.value = value;
     }
 
+    @Override
+    public IntTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    /**
+     * Constructs a frozen {@link IntTag} with the given value.
+     *
+     * @param value The value
+     * @return The frozen tag
+     */
+    static IntTag frozen(int value) {
+        return new Frozen(value);
+    }
+
+    @Override
+    public IntTag copy() {
+        return new IntTag(this.value);
+    }
+
     @Override
     public Integer get() {
         return this.value;
@@ -91,4 +111,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof IntTag && ((IntTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link IntTag} that can't be modified.
+     */
+    private static final class Frozen extends IntTag {
+
+        private Frozen(int value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Integer value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(int value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public IntTag freeze() {
+            return this;
+        }
+    }
 }
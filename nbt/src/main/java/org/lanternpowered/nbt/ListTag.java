@@ -26,7 +26,9 @@
 
 import static java.util.Objects.requireNonNull;
 
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.function.Function;
@@ -35,7 +37,7 @@
 import javax.annotation.Nullable;
 
 @SuppressWarnings("unchecked")
-public final class ListTag<T extends Tag<?>> extends ArrayList<T> implements Tag<List<T>> {
+public class ListTag<T extends Tag<?>> extends ArrayList<T> implements Tag<List<T>> {
 
     /**
      * Constructs a {@link ListTag} from the
@@ -61,7 +63,7 @@ public static ListTag<ByteTag> ofBytes(Iterable<Byte> byteIterable) {
      */
     public static ListTag<ByteTag> ofBytes(Iterable<Byte> byteIterable,
             @Nullable Byte defaultValue) {
-        return of(byteIterable, ByteTag::new, defaultValue);
+        return fill(new ByteListTag(), byteIterable, ByteTag::new, defaultValue);
     }
 
     /**
@@ -88,7 +90,7 @@ public static ListTag<ByteTag> ofBytes(Byte[] bytes) {
      */
     public static ListTag<ByteTag> ofBytes(Byte[] bytes,
             @Nullable Byte defaultValue) {
-        return of(bytes, ByteTag::new, defaultValue);
+        return fill(new ByteListTag(), Arrays.asList(bytes), ByteTag::new, defaultValue);
     }
 
     /**
@@ -99,11 +101,7 @@ public static ListTag<ByteTag> ofBytes(Byte[] bytes,
      * @return The list tag
      */
     public static ListTag<ByteTag> ofBytes(byte... bytes) {
-        final ListTag<ByteTag> listTag = new ListTag<>();
-        for (byte value : bytes) {
-            listTag.add(new ByteTag(value));
-        }
-        return listTag;
+        return new ByteListTag(bytes);
     }
 
     /**
@@ -130,7 +128,7 @@ public static ListTag<IntTag> ofInts(Iterable<Integer> integerIterable) {
      */
     public static ListTag<IntTag> ofInts(Iterable<Integer> integerIterable,
             @Nullable Integer defaultValue) {
-        return of(integerIterable, IntTag::new, defaultValue);
+        return fill(new IntListTag(), integerIterable, IntTag::new, defaultValue);
     }
 
     /**
@@ -157,7 +155,7 @@ public static ListTag<IntTag> ofInts(Integer[] integers) {
      */
     public static ListTag<IntTag> ofInts(Integer[] integers,
             @Nullable Integer defaultValue) {
-        return of(integers, IntTag::new, defaultValue);
+        return fill(new IntListTag(), Arrays.asList(integers), IntTag::new, defaultValue);
     }
 
     /**
@@ -168,11 +166,7 @@ public static ListTag<IntTag> ofInts(Integer[] integers,
      * @return The list tag
      */
     public static ListTag<IntTag> ofInts(int... integers) {
-        final ListTag<IntTag> listTag = new ListTag<>();
-        for (int value : integers) {
-            listTag.add(new IntTag(value));
-        }
-        return listTag;
+        return new IntListTag(integers);
     }
 
     /**
@@ -199,7 +193,7 @@ public static ListTag<ShortTag> ofShorts(Iterable<Short> shortIterable) {
      */
     public static ListTag<ShortTag> ofShorts(Iterable<Short> shortIterable,
             @Nullable Short defaultValue) {
-        return of(shortIterable, ShortTag::new, defaultValue);
+        return fill(new ShortListTag(), shortIterable, ShortTag::new, defaultValue);
     }
 
     /**
@@ -226,7 +220,7 @@ public static ListTag<ShortTag> ofShorts(Short[] shorts) {
      */
     public static ListTag<ShortTag> ofShorts(Short[] shorts,
             @Nullable Short defaultValue) {
-        return of(shorts, ShortTag::new, defaultValue);
+        return fill(new ShortListTag(), Arrays.asList(shorts), ShortTag::new, defaultValue);
     }
 
     /**
@@ -237,11 +231,7 @@ public static ListTag<ShortTag> ofShorts(Short[] shorts,
      * @return The list tag
      */
     public static ListTag<ShortTag> ofShorts(short... shorts) {
-        final ListTag<ShortTag> listTag = new ListTag<>();
-        for (short value : shorts) {
-            listTag.add(new ShortTag(value));
-        }
-        return listTag;
+        return new ShortListTag(shorts);
     }
 
     /**
@@ -268,7 +258,7 @@ public static ListTag<FloatTag> ofFloats(Iterable<Float> floatIterable) {
      */
     public static ListTag<FloatTag> ofFloats(Iterable<Float> floatIterable,
             @Nullable Float defaultValue) {
-        return of(floatIterable, FloatTag::new, defaultValue);
+        return fill(new FloatListTag(), floatIterable, FloatTag::new, defaultValue);
     }
 
     /**
@@ -295,7 +285,7 @@ public static ListTag<FloatTag> ofFloats(Float[] floats) {
      */
     public static ListTag<FloatTag> ofFloats(Float[] floats,
             @Nullable Float defaultValue) {
-        return of(floats, FloatTag::new, defaultValue);
+        return fill(new FloatListTag(), Arrays.asList(floats), FloatTag::new, defaultValue);
     }
 
     /**
@@ -306,11 +296,7 @@ public static ListTag<FloatTag> ofFloats(Float[] floats,
      * @return The list tag
      */
     public static ListTag<FloatTag> ofFloats(float... floats) {
-        final ListTag<FloatTag> listTag = new ListTag<>();
-        for (float value : floats) {
-            listTag.add(new FloatTag(value));
-        }
-        return listTag;
+        return new FloatListTag(floats);
     }
 
     /**
@@ -348,7 +334,7 @@ public static ListTag<DoubleTag> ofDoubles(Iterable<Double> doubleIterable) {
      */
     public static ListTag<DoubleTag> ofDoubles(Iterable<Double> doubleIterable,
             @Nullable Double defaultValue) {
-        return of(doubleIterable, DoubleTag::new, defaultValue);
+        return fill(new DoubleListTag(), doubleIterable, DoubleTag::new, defaultValue);
     }
 
     /**
@@ -375,7 +361,7 @@ public static ListTag<DoubleTag> ofDoubles(Double[] doubles) {
      */
     public static ListTag<DoubleTag> ofDoubles(Double[] doubles,
             @Nullable Double defaultValue) {
-        return of(doubles, DoubleTag::new, defaultValue);
+        return fill(new DoubleListTag(), Arrays.asList(doubles), DoubleTag::new, defaultValue);
     }
 
     /**
@@ -386,11 +372,7 @@ public static ListTag<DoubleTag> ofDoubles(Double[] doubles,
      * @return The list tag
      */
     public static ListTag<DoubleTag> ofDoubles(double... doubles) {
-        final ListTag<DoubleTag> listTag = new ListTag<>();
-        for (double value : doubles) {
-            listTag.add(new DoubleTag(value));
-        }
-        return listTag;
+        return new DoubleListTag(doubles);
     }
 
     /**
@@ -428,7 +410,7 @@ public static ListTag<LongTag> ofLongs(Iterable<Long> longIterable) {
      */
     public static ListTag<LongTag> ofLongs(Iterable<Long> longIterable,
             @Nullable Long defaultValue) {
-        return of(longIterable, LongTag::new, defaultValue);
+        return fill(new LongListTag(), longIterable, LongTag::new, defaultValue);
     }
 
     /**
@@ -455,7 +437,7 @@ public static ListTag<LongTag> ofLongs(Long[] longs) {
      */
     public static ListTag<LongTag> ofLongs(Long[] longs,
             @Nullable Long defaultValue) {
-        return of(longs, LongTag::new, defaultValue);
+        return fill(new LongListTag(), Arrays.asList(longs), LongTag::new, defaultValue);
     }
 
     /**
@@ -466,11 +448,7 @@ public static ListTag<LongTag> ofLongs(Long[] longs,
      * @return The list tag
      */
     public static ListTag<LongTag> ofLongs(long... longs) {
-        final ListTag<LongTag> listTag = new ListTag<>();
-        for (long value : longs) {
-            listTag.add(new LongTag(value));
-        }
-        return listTag;
+        return new LongListTag(longs);
     }
 
     /**
@@ -682,7 +660,11 @@ public static <T extends Tag<E>, E> ListTag<T> of(Iterable<E> iterable, Function
 
     public static <T extends Tag<E>, E> ListTag<T> of(Iterable<E> iterable, Function<E, T> elementTransformer,
             @Nullable E defaultValue) {
-        final ListTag<T> listTag = new ListTag<>();
+        return fill(new ListTag<>(), iterable, elementTransformer, defaultValue);
+    }
+
+    private static <T extends Tag<E>, E> ListTag<T> fill(ListTag<T> listTag, Iterable<E> iterable,
+            Function<E, T> elementTransformer, @Nullable E defaultValue) {
         for (E value : iterable) {
             if (value == null) {
                 value = defaultValue;
@@ -757,6 +739,26 @@ public void set(List<T> value) {
         addAll(value);
     }
 
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public ListTag<T> freeze() {
+        return new FrozenListTag<>(this);
+    }
+
+    @Override
+    public ListTag<T> copy() {
+        final ListTag<T> copy = new ListTag<>();
+        copy.ensureCapacity(size());
+        for (T element : this) {
+            copy.add((T) element.copy());
+        }
+        return copy;
+    }
+
     @Override
     public T set(int index, T e) {
         requireNonNull(e, "null isn't supported");
@@ -774,7 +776,7 @@ public boolean add(T e) {
         }
         if (super.add(e)) {
             if (isEmpty() || this.tagType == null) {
-                this.tagType = (Class<T>) e.getClass();
+                this.tagType = typeOf(e);
             }
             return true;
         }
@@ -789,22 +791,46 @@ public void add(int index, T e) {
         }
         super.add(index, e);
         if (this.tagType == null || isEmpty()) {
-            this.tagType = (Class<T>) e.getClass();
+            this.tagType = typeOf(e);
         }
     }
 
+    /**
+     * Gets the type of the element that should be used to validate
+     * new elements, all the list and compound implementations
+     * can be mixed.
+     *
+     * @param e The element
+     * @return The element type
+     */
+    private static <T> Class<T> typeOf(T e) {
+        if (e instanceof ListTag) {
+            return (Class<T>) ListTag.class;
+        } else if (e instanceof CompoundTag) {
+            return (Class<T>) CompoundTag.class;
+        } else if (e instanceof MapTag) {
+            return (Class<T>) MapTag.class;
+        }
+        Class<?> type = e.getClass();
+        // Frozen tags are hidden subclasses of the tag types
+        while (!Modifier.isPublic(type.getModifiers())) {
+            type = type.getSuperclass();
+        }
+        return (Class<T>) type;
+    }
+
     private Class<T> validate(Collection<? extends T> c) {
         Class<T> tagType = isEmpty() ? null : this.tagType;
         for (T e : c) {
             requireNonNull(e, "null isn't supported");
-            if (tagType != null) {
-                if (this.tagType != null) {
-                    throw new IllegalArgumentException("This ListTag only supports '" + this.tagType.getClass() + "'s");
+            if (tagType != null && !tagType.isInstance(e)) {
+                if (this.tagType != null && !isEmpty()) {
+                    throw new IllegalArgumentException("This ListTag only supports '" + this.tagType.getName() + "'s");
                 } else {
                     throw new IllegalArgumentException("This ListTag doesn't support different Tag types.");
                 }
-            } else {
-                tagType = (Class<T>) e.getClass();
+            } else if (tagType == null) {
+                tagType = typeOf(e);
             }
         }
         return tagType;
@@ -814,9 +840,7 @@ private Class<T> validate(Collection<? extends T> c) {
     public boolean addAll(Collection<? extends T> c) {
         final Class<T> tagType = validate(c);
         if (super.addAll(c)) {
-            if (this.tagType == null) {
-                this.tagType = tagType;
-            }
+            this.tagType = tagType;
             return true;
         }
         return false;
@@ -826,9 +850,7 @@ public boolean addAll(Collection<? extends T> c) {
     public boolean addAll(int index, Collection<? extends T> c) {
         final Class<T> tagType = validate(c);
         if (super.addAll(index, c)) {
-            if (this.tagType == null) {
-                this.tagType = tagType;
-            }
+            this.tagType = tagType;
             return true;
         }
         return false;
@@ -836,6 +858,9 @@ public boolean addAll(int index, Collection<? extends T> c) {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + super.toString();
+        // Don't expose the names of the frozen and primitive implementations
+        final Class<?> tagType = this instanceof FrozenListTag || this instanceof PrimitiveListTag ?
+                ListTag.class : getClass();
+        return tagType.getSimpleName() + super.toString();
     }
 }
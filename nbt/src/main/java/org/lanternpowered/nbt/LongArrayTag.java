@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Long value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -96,6 +97,7 @@ public void insertAt(int index, Long value) {
      * @param value The value
      */
     public void insertAt(int index, long value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -108,6 +110,7 @@ public void insertAt(int index, long value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public void removeAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Long[] value, long defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Long[] value) {
         set(value, 0);
     }
 
+    @Override
+    public LongArrayTag copy() {
+        return share(new LongArrayTag(this.value));
+    }
+
+    @Override
+    public LongArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final LongArrayTag frozen = new LongArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Long[] boxedArray() {
         final Long[] array = new Long[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(long[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class LongTag extends NumberTag<Long> {
+public class LongTag extends NumberTag<Long> {
 
     private long value;
 
@@ -57,6 +57,26 @@ public void set(long value) {
         this.value = value;
     }
 
+    @Override
+    public LongTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    /**
+     * Constructs a frozen {@link LongTag} with the given value.
+     *
+     * @param value The value
+     * @return The frozen tag
+     */
+    static LongTag frozen(long value) {
+        return new Frozen(value);
+    }
+
+    @Override
+    public LongTag copy() {
+        return new LongTag(this.value);
+    }
+
     @Override
     public Long get() {
         return this.value;
@@ -91,4 +111,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof LongTag && ((LongTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link LongTag} that can't be modified.
+     */
+    private static final class Frozen extends LongTag {
+
+        private Frozen(long value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Long value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(long value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public LongTag freeze() {
+            return this;
+        }
+    }
 }
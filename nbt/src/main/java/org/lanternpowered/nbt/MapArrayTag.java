@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class MapArrayTag extends ObjectArrayTag<MapTag<?,?>> {
+public final class MapArrayTag extends ObjectArrayTag<MapTag<?, ?>> {
 
     /**
      * Constructs a new {@link MapArrayTag} with the
@@ -32,8 +32,31 @@ public final class MapArrayTag extends ObjectArrayTag<MapTag<?,?>> {
      *
      * @param value The map tag array
      */
-    public MapArrayTag(MapTag<?,?>... value) {
+    public MapArrayTag(MapTag<?, ?>... value) {
         super(value);
     }
 
+    @Override
+    public MapArrayTag copy() {
+        final MapTag<?, ?>[] value = new MapTag<?, ?>[this.value.length];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = this.value[i].copy();
+        }
+        return new MapArrayTag(value);
+    }
+
+    @Override
+    public MapArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final MapTag<?, ?>[] value = new MapTag<?, ?>[this.value.length];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = this.value[i].freeze();
+        }
+        final MapArrayTag frozen = new MapArrayTag(value);
+        frozen.markFrozen();
+        return frozen;
+    }
+
 }
@@ -41,7 +41,7 @@
  * @param <K> The key tag type
  * @param <V> The value tag type
  */
-public final class MapTag<K extends Tag<?>, V extends Tag<?>> extends HashMap<K, V> implements Tag<Map<K, V>> {
+public class MapTag<K extends Tag<?>, V extends Tag<?>> extends HashMap<K, V> implements Tag<Map<K, V>> {
 
     public static Map<IntTag, DoubleTag> ofIntToDoubleMap(Map<Integer, Double> intToDoubleMap,
             @Nullable Double defaultValue) {
@@ -126,6 +126,24 @@ public void set(Map<K, V> value) {
         putAll(value);
     }
 
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public MapTag<K, V> freeze() {
+        return new FrozenMapTag<>(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public MapTag<K, V> copy() {
+        final MapTag<K, V> copy = new MapTag<>();
+        forEach((key, value) -> copy.put((K) key.copy(), (V) value.copy()));
+        return copy;
+    }
+
     @Override
     public V put(K key, V value) {
         requireNonNull(key, "A null key isn't supported");
@@ -135,6 +153,7 @@ public V put(K key, V value) {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + super.toString();
+        // Don't expose the name of the frozen implementation
+        return MapTag.class.getSimpleName() + super.toString();
     }
 }
@@ -34,8 +34,21 @@
     NumberTag() {
     }
 
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public abstract NumberTag<V> freeze();
+
+    @Override
+    public abstract NumberTag<V> copy();
+
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "[" + get().toString() + "]";
+        // Don't expose the name of the frozen implementation
+        final Class<?> tagType = isFrozen() ? getClass().getSuperclass() : getClass();
+        return tagType.getSimpleName() + "[" + get().toString() + "]";
     }
 }
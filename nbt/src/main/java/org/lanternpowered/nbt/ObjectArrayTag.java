@@ -43,6 +43,7 @@ public int length() {
 
     @Override
     public void setAt(int index, V value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -53,6 +54,7 @@ public V getAt(int index) {
 
     @Override
     public void insertAt(int index, V value) {
+        checkMutable();
         requireNonNull(value, "value");
         final V[] newArray = (V[]) Array.newInstance(this.value.getClass().getComponentType(), this.value.length + 1);
         System.arraycopy(this.value, 0, newArray, 0, index);
@@ -63,6 +65,7 @@ public void insertAt(int index, V value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         requireNonNull(value, "value");
         final V[] newArray = (V[]) Array.newInstance(this.value.getClass().getComponentType(), this.value.length - 1);
         System.arraycopy(this.value, 0, newArray, 0, index);
@@ -77,7 +80,7 @@ public void set(V[] value) {
 
     @Override
     public V[] boxedArray() {
-        return get().clone();
+        return this.value.clone();
     }
 
     @Override
@@ -85,6 +88,11 @@ boolean arrayEquals(V[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
@@ -0,0 +1,617 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ListTag} of which the elements are stored in a primitive
+ * array instead of as separate {@link Tag} objects.
+ *
+ * <p>The elements are boxed into new frozen tags when they are accessed,
+ * modifying a tag that was returned by this list throws a
+ * {@link UnsupportedOperationException}, {@link #set(int, Tag)} should
+ * be used instead.</p>
+ *
+ * @param <T> The element tag type
+ */
+@SuppressWarnings("unchecked")
+public abstract class PrimitiveListTag<T extends Tag<?>> extends ListTag<T> {
+
+    private static final int MINIMUM_CAPACITY = 4;
+
+    int size;
+    // The lists the backing array is shared with, null if it isn't
+    // shared and ArrayOwners.FROZEN if this list is frozen
+    @Nullable private ArrayOwners owners;
+
+    PrimitiveListTag() {
+    }
+
+    /**
+     * Gets the tag class of the elements.
+     *
+     * @return The element type
+     */
+    public abstract Class<T> getElementType();
+
+    /**
+     * Gets the length of the backing array.
+     *
+     * @return The capacity
+     */
+    abstract int capacity();
+
+    /**
+     * Replaces the backing array by a copy with the given length.
+     *
+     * @param capacity The new capacity
+     */
+    abstract void resize(int capacity);
+
+    /**
+     * Copies elements within the backing array.
+     *
+     * @param from The index of the first element to move
+     * @param to The target index
+     * @param length The amount of elements
+     */
+    abstract void move(int from, int to, int length);
+
+    /**
+     * Boxes the element at the given index into a new tag.
+     *
+     * @param index The index
+     * @return The element tag
+     */
+    abstract T getElement(int index);
+
+    /**
+     * Stores the value of the tag at the given index.
+     *
+     * @param index The index
+     * @param element The element tag
+     */
+    abstract void setElement(int index, T element);
+
+    /**
+     * Gets whether the element at the given index
+     * equals the value of the given tag.
+     *
+     * @param index The index
+     * @param element The element tag
+     * @return Whether the values are equal
+     */
+    abstract boolean elementEquals(int index, T element);
+
+    /**
+     * Gets the hash code of the element at the given index, the
+     * same as the hash code of the tag that would be boxed.
+     *
+     * @param index The index
+     * @return The hash code
+     */
+    abstract int elementHashCode(int index);
+
+    /**
+     * Gets whether the elements of the other list, of the
+     * same type as this list, equal the elements of this list.
+     *
+     * @param other The other list
+     * @return Whether the elements are equal
+     */
+    abstract boolean valuesEqual(PrimitiveListTag<T> other);
+
+    final void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    /**
+     * Checks whether this list can be modified, a shared
+     * backing array is copied before it's modified.
+     */
+    final void checkMutable() {
+        if (isFrozen()) {
+            throw FrozenTags.modification();
+        }
+        final ArrayOwners owners = this.owners;
+        if (owners == null) {
+            return;
+        }
+        // The last owner can keep the backing array
+        if (owners.isShared()) {
+            resize(capacity());
+            owners.release();
+        }
+        this.owners = null;
+    }
+
+    private T checkElement(Object element) {
+        requireNonNull(element, "null isn't supported");
+        if (!getElementType().isInstance(element)) {
+            throw new IllegalArgumentException("This ListTag only supports '" + getElementType().getName() + "'s");
+        }
+        return (T) element;
+    }
+
+    /**
+     * Grows the backing array to fit at least the given amount of elements.
+     *
+     * @param minimumCapacity The minimum capacity
+     */
+    final void grow(int minimumCapacity) {
+        final int capacity = capacity();
+        if (minimumCapacity > capacity) {
+            resize(Math.max(minimumCapacity, Math.max(capacity + (capacity >> 1), MINIMUM_CAPACITY)));
+        }
+    }
+
+    @Override
+    public void ensureCapacity(int minCapacity) {
+        if (!isFrozen() && minCapacity > capacity()) {
+            this.modCount++;
+            grow(minCapacity);
+        }
+    }
+
+    @Override
+    public void trimToSize() {
+        if (!isFrozen() && this.size < capacity()) {
+            this.modCount++;
+            resize(this.size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return getElement(index);
+    }
+
+    @Override
+    public T set(int index, T e) {
+        checkMutable();
+        checkIndex(index);
+        checkElement(e);
+        final T old = getElement(index);
+        setElement(index, e);
+        return old;
+    }
+
+    @Override
+    public boolean add(T e) {
+        checkMutable();
+        checkElement(e);
+        this.modCount++;
+        grow(this.size + 1);
+        setElement(this.size++, e);
+        return true;
+    }
+
+    @Override
+    public void add(int index, T e) {
+        checkMutable();
+        checkPositionIndex(index);
+        checkElement(e);
+        this.modCount++;
+        grow(this.size + 1);
+        move(index, index + 1, this.size - index);
+        setElement(index, e);
+        this.size++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        return addAll(this.size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        checkMutable();
+        checkPositionIndex(index);
+        final Object[] elements = c.toArray();
+        for (Object element : elements) {
+            checkElement(element);
+        }
+        this.modCount++;
+        if (elements.length == 0) {
+            return false;
+        }
+        grow(this.size + elements.length);
+        move(index, index + elements.length, this.size - index);
+        for (int i = 0; i < elements.length; i++) {
+            setElement(index + i, (T) elements[i]);
+        }
+        this.size += elements.length;
+        return true;
+    }
+
+    @Override
+    public T remove(int index) {
+        checkMutable();
+        checkIndex(index);
+        this.modCount++;
+        final T old = getElement(index);
+        move(index + 1, index, this.size - index - 1);
+        this.size--;
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        final int index = indexOf(o);
+        if (index == -1) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        checkMutable();
+        if (fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From Index: " + fromIndex + " > To Index: " + toIndex);
+        }
+        this.modCount++;
+        move(toIndex, fromIndex, this.size - toIndex);
+        this.size -= toIndex - fromIndex;
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        this.modCount++;
+        this.size = 0;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        requireNonNull(c);
+        return removeIf(e -> !c.contains(e));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        checkMutable();
+        requireNonNull(filter);
+        final int size = this.size;
+        final int modCount = this.modCount;
+        int retained = 0;
+        for (int i = 0; i < size; i++) {
+            if (!filter.test(getElement(i))) {
+                if (i != retained) {
+                    move(i, retained, 1);
+                }
+                retained++;
+            }
+        }
+        if (modCount != this.modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (retained == size) {
+            return false;
+        }
+        this.modCount++;
+        this.size = retained;
+        return true;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        checkMutable();
+        requireNonNull(operator);
+        final int modCount = this.modCount;
+        for (int i = 0; i < this.size; i++) {
+            setElement(i, checkElement(operator.apply(getElement(i))));
+        }
+        if (modCount != this.modCount) {
+            throw new ConcurrentModificationException();
+        }
+        this.modCount++;
+    }
+
+    @Override
+    public void sort(Comparator<? super T> c) {
+        checkMutable();
+        final int modCount = this.modCount;
+        final Object[] elements = toArray();
+        Arrays.sort(elements, (Comparator) c);
+        if (modCount != this.modCount) {
+            throw new ConcurrentModificationException();
+        }
+        for (int i = 0; i < elements.length; i++) {
+            setElement(i, (T) elements[i]);
+        }
+        this.modCount++;
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        requireNonNull(action);
+        final int modCount = this.modCount;
+        for (int i = 0; i < this.size && modCount == this.modCount; i++) {
+            action.accept(getElement(i));
+        }
+        if (modCount != this.modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) != -1;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (getElementType().isInstance(o)) {
+            for (int i = 0; i < this.size; i++) {
+                if (elementEquals(i, (T) o)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        if (getElementType().isInstance(o)) {
+            for (int i = this.size - 1; i >= 0; i--) {
+                if (elementEquals(i, (T) o)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Object[] toArray() {
+        final Object[] array = new Object[this.size];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = getElement(i);
+        }
+        return array;
+    }
+
+    @Override
+    public <A> A[] toArray(A[] a) {
+        final int size = this.size;
+        if (a.length < size) {
+            a = Arrays.copyOf(a, size);
+        }
+        for (int i = 0; i < size; i++) {
+            a[i] = (A) getElement(i);
+        }
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new View().iterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator() {
+        return new View().listIterator();
+    }
+
+    @Override
+    public ListIterator<T> listIterator(int index) {
+        checkPositionIndex(index);
+        return new View().listIterator(index);
+    }
+
+    @Override
+    public List<T> subList(int fromIndex, int toIndex) {
+        return new View().subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.ORDERED);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof List)) {
+            return false;
+        }
+        final List<?> list = (List<?>) o;
+        if (list.size() != this.size) {
+            return false;
+        }
+        if (list.getClass() == getClass()) {
+            return valuesEqual((PrimitiveListTag<T>) list);
+        }
+        final Class<T> elementType = getElementType();
+        int index = 0;
+        for (Object element : list) {
+            if (index == this.size || !elementType.isInstance(element) || !elementEquals(index++, (T) element)) {
+                return false;
+            }
+        }
+        return index == this.size;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int i = 0; i < this.size; i++) {
+            hashCode = 31 * hashCode + elementHashCode(i);
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return this.owners == ArrayOwners.FROZEN;
+    }
+
+    /**
+     * Gets a frozen copy of this list, or this list if it's already
+     * frozen. Frozen primitive lists don't cache their hash code.
+     *
+     * @return The frozen list
+     */
+    @Override
+    public PrimitiveListTag<T> freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final PrimitiveListTag<T> frozen = (PrimitiveListTag<T>) clone();
+        frozen.owners = ArrayOwners.FROZEN;
+        return frozen;
+    }
+
+    /**
+     * Gets a copy of this list, the backing array is shared
+     * with the copy until either of the lists is modified.
+     *
+     * @return The copy
+     */
+    @Override
+    public PrimitiveListTag<T> copy() {
+        return (PrimitiveListTag<T>) clone();
+    }
+
+    @Override
+    public Object clone() {
+        final PrimitiveListTag<T> clone = (PrimitiveListTag<T>) super.clone();
+        // The backing array is copied once either of the lists is modified,
+        // unless the other lists already stopped sharing it
+        final ArrayOwners owners = ArrayOwners.share(this.owners);
+        if (!isFrozen()) {
+            this.owners = owners;
+        }
+        clone.owners = owners;
+        return clone;
+    }
+
+    /**
+     * A view of this list, the iterators and sub lists are provided by this view.
+     * The view is invalid once the list is modified through something else.
+     */
+    private final class View extends AbstractList<T> implements RandomAccess {
+
+        private View() {
+            this.modCount = PrimitiveListTag.this.modCount;
+        }
+
+        private void checkForComodification() {
+            if (this.modCount != PrimitiveListTag.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public T get(int index) {
+            checkForComodification();
+            return PrimitiveListTag.this.get(index);
+        }
+
+        @Override
+        public T set(int index, T element) {
+            checkForComodification();
+            return PrimitiveListTag.this.set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            checkForComodification();
+            PrimitiveListTag.this.add(index, element);
+            this.modCount = PrimitiveListTag.this.modCount;
+        }
+
+        @Override
+        public T remove(int index) {
+            checkForComodification();
+            final T old = PrimitiveListTag.this.remove(index);
+            this.modCount = PrimitiveListTag.this.modCount;
+            return old;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            checkForComodification();
+            PrimitiveListTag.this.removeRange(fromIndex, toIndex);
+            this.modCount = PrimitiveListTag.this.modCount;
+        }
+
+        @Override
+        public int size() {
+            return PrimitiveListTag.this.size;
+        }
+    }
+}
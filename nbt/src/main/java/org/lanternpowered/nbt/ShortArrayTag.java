@@ -76,6 +76,7 @@ public int length() {
 
     @Override
     public void setAt(int index, Short value) {
+        checkMutable();
         this.value[index] = value;
     }
 
@@ -96,6 +97,7 @@ public void insertAt(int index, Short value) {
      * @param value The value
      */
     public void insertAt(int index, short value) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -108,6 +110,7 @@ public void insertAt(int index, short value) {
 
     @Override
     public void removeAt(int index) {
+        checkMutable();
         if (index < 0 || index > this.value.length) {
             throw new IndexOutOfBoundsException();
         }
@@ -125,6 +128,7 @@ public void removeAt(int index) {
      * @param defaultValue The value to fill up null values
      */
     public void set(Short[] value, short defaultValue) {
+        checkMutable();
         this.value = convert(value, defaultValue);
     }
 
@@ -133,6 +137,21 @@ public void set(Short[] value) {
         set(value, (short) 0);
     }
 
+    @Override
+    public ShortArrayTag copy() {
+        return share(new ShortArrayTag(this.value));
+    }
+
+    @Override
+    public ShortArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final ShortArrayTag frozen = new ShortArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
     @Override
     public Short[] boxedArray() {
         final Short[] array = new Short[this.value.length];
@@ -147,6 +166,11 @@ boolean arrayEquals(short[] that) {
         return Arrays.equals(this.value, that);
     }
 
+    @Override
+    int arrayHashCode() {
+        return Arrays.hashCode(this.value);
+    }
+
     @Override
     String valueToString() {
         return Arrays.toString(this.value);
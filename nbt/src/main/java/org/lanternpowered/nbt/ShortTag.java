@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class ShortTag extends NumberTag<Short> {
+public class ShortTag extends NumberTag<Short> {
 
     private short value;
 
@@ -57,6 +57,26 @@ public void set(short value) {
         this.value = value;
     }
 
+    @Override
+    public ShortTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    /**
+     * Constructs a frozen {@link ShortTag} with the given value.
+     *
+     * @param value The value
+     * @return The frozen tag
+     */
+    static ShortTag frozen(short value) {
+        return new Frozen(value);
+    }
+
+    @Override
+    public ShortTag copy() {
+        return new ShortTag(this.value);
+    }
+
     @Override
     public Short get() {
         return this.value;
@@ -96,4 +116,34 @@ public int hashCode() {
     public boolean equals(Object obj) {
         return obj instanceof ShortTag && ((ShortTag) obj).value == this.value;
     }
+
+    /**
+     * A {@link ShortTag} that can't be modified.
+     */
+    private static final class Frozen extends ShortTag {
+
+        private Frozen(short value) {
+            super(value);
+        }
+
+        @Override
+        public void set(Short value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public void set(short value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public ShortTag freeze() {
+            return this;
+        }
+    }
 }
@@ -36,4 +36,19 @@ public StringArrayTag(String... value) {
         super(value);
     }
 
+    @Override
+    public StringArrayTag copy() {
+        return share(new StringArrayTag(this.value));
+    }
+
+    @Override
+    public StringArrayTag freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final StringArrayTag frozen = new StringArrayTag(this.value.clone());
+        frozen.markFrozen();
+        return frozen;
+    }
+
 }
@@ -24,7 +24,7 @@
  */
 package org.lanternpowered.nbt;
 
-public final class StringTag extends ValueTag<String> {
+public class StringTag extends ValueTag<String> {
 
     /**
      * Constructs a new {@link StringTag} with the
@@ -35,4 +35,55 @@ public final class StringTag extends ValueTag<String> {
     public StringTag(String value) {
         super(value);
     }
+
+    @Override
+    public boolean isFrozen() {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof StringTag && ((StringTag) obj).value.equals(this.value);
+    }
+
+    @Override
+    public String toString() {
+        // Don't expose the name of the frozen implementation
+        return StringTag.class.getSimpleName() + valueToString();
+    }
+
+    @Override
+    public StringTag freeze() {
+        return new Frozen(this.value);
+    }
+
+    @Override
+    public StringTag copy() {
+        return new StringTag(this.value);
+    }
+
+    /**
+     * A {@link StringTag} that can't be modified.
+     */
+    private static final class Frozen extends StringTag {
+
+        private Frozen(String value) {
+            super(value);
+        }
+
+        @Override
+        public void set(String value) {
+            throw FrozenTags.modification();
+        }
+
+        @Override
+        public boolean isFrozen() {
+            return true;
+        }
+
+        @Override
+        public StringTag freeze() {
+            return this;
+        }
+    }
 }
@@ -47,6 +47,42 @@
      */
     void set(V value);
 
+    /**
+     * Gets whether this {@link Tag} is frozen.
+     *
+     * @return Whether this tag is frozen
+     * @see #freeze()
+     */
+    boolean isFrozen();
+
+    /**
+     * Gets a frozen snapshot of this {@link Tag}, all the tags it
+     * contains are frozen as well. Every attempt to modify a frozen
+     * tag throws a {@link UnsupportedOperationException} and arrays
+     * returned by frozen array tags are copies. Freezing a tag that
+     * is already frozen returns the tag itself.
+     *
+     * <p>Frozen compounds, maps, arrays and lists of tags cache their
+     * hash code. A frozen tag can be shared between threads without
+     * copying it, as long as it was safely published to the other
+     * threads.</p>
+     *
+     * @return The frozen tag
+     */
+    Tag<V> freeze();
+
+    /**
+     * Gets a mutable deep copy of this {@link Tag}. The arrays of array
+     * tags and primitive lists are shared with the copy until either of
+     * them is modified, so copying costs time proportional to the amount
+     * of tags instead of the size of their data.
+     *
+     * <p>Copying a frozen tag results in a mutable tag.</p>
+     *
+     * @return The copy
+     */
+    Tag<V> copy();
+
     /**
      * Gets the default value for the
      * specified {@link Tag} type.
@@ -0,0 +1,213 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link NbtInput} that decodes directly from a {@link ByteBuffer}
+ * using absolute gets, the position of the original buffer will be
+ * updated through {@link #syncPosition()}.
+ */
+final class BufferNbtInput extends NbtInput {
+
+    private final ByteBuffer original;
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int index;
+
+    private byte[] byteScratch = new byte[64];
+
+    BufferNbtInput(ByteBuffer buffer) {
+        this.original = buffer;
+        // Use a duplicate, this way we don't modify the byte order of the original buffer
+        this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.index = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Applies the current read index as
+     * position to the original buffer.
+     */
+    void syncPosition() {
+        this.original.position(this.index);
+    }
+
+    /**
+     * Gets the current read index.
+     *
+     * @return The index
+     */
+    int index() {
+        return this.index;
+    }
+
+    /**
+     * Moves the read index to the given index.
+     *
+     * @param index The index
+     */
+    void index(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Creates a new {@link BufferNbtInput} for the same buffer, starting
+     * at the current read index. Both inputs can be moved independently.
+     *
+     * @return The new input
+     */
+    BufferNbtInput duplicate() {
+        final ByteBuffer buffer = this.original.duplicate();
+        buffer.limit(this.limit);
+        buffer.position(this.index);
+        return new BufferNbtInput(buffer);
+    }
+
+    private int advance(int length) throws EOFException {
+        final int index = this.index;
+        if (length < 0 || this.limit - index < length) {
+            throw new EOFException();
+        }
+        this.index = index + length;
+        return index;
+    }
+
+    @Override
+    void skipBytes(long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new EOFException();
+        }
+        advance((int) length);
+    }
+
+    @Override
+    byte readByte() throws IOException {
+        return this.buffer.get(advance(1));
+    }
+
+    @Override
+    short readShort() throws IOException {
+        return this.buffer.getShort(advance(2));
+    }
+
+    @Override
+    int readInt() throws IOException {
+        return this.buffer.getInt(advance(4));
+    }
+
+    @Override
+    long readLong() throws IOException {
+        return this.buffer.getLong(advance(8));
+    }
+
+    @Override
+    float readFloat() throws IOException {
+        return this.buffer.getFloat(advance(4));
+    }
+
+    @Override
+    double readDouble() throws IOException {
+        return this.buffer.getDouble(advance(8));
+    }
+
+    @Override
+    int readRawUTF() throws IOException {
+        final int length = readShort() & 0xffff;
+        if (this.buffer.hasArray()) {
+            this.rawBytes = this.buffer.array();
+            this.rawOffset = this.buffer.arrayOffset() + advance(length);
+            return length;
+        }
+        if (this.byteScratch.length < length) {
+            this.byteScratch = new byte[Math.max(length, this.byteScratch.length * 2)];
+        }
+        final byte[] bytes = this.byteScratch;
+        // Direct and mapped buffers are copied in bulk
+        view(length).get(bytes, 0, length);
+        this.rawBytes = bytes;
+        this.rawOffset = 0;
+        return length;
+    }
+
+    @Override
+    void readFully(byte[] bytes) throws IOException {
+        if (this.buffer.hasArray()) {
+            final int index = advance(bytes.length);
+            System.arraycopy(this.buffer.array(), this.buffer.arrayOffset() + index, bytes, 0, bytes.length);
+        } else {
+            view(bytes.length).get(bytes);
+        }
+    }
+
+    /**
+     * Gets a big-endian view of the next
+     * {@code length} bytes and skips them.
+     *
+     * @param length The length in bytes
+     * @return The view
+     * @throws EOFException If there aren't enough bytes remaining
+     */
+    private ByteBuffer view(int length) throws EOFException {
+        final int index = advance(length);
+        final ByteBuffer view = this.buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        view.position(index);
+        view.limit(index + length);
+        return view;
+    }
+
+    @Override
+    void readShorts(short[] array) throws IOException {
+        view(array.length * 2).asShortBuffer().get(array);
+    }
+
+    @Override
+    void readInts(int[] array) throws IOException {
+        view(array.length * 4).asIntBuffer().get(array);
+    }
+
+    @Override
+    void readLongs(long[] array) throws IOException {
+        view(array.length * 8).asLongBuffer().get(array);
+    }
+
+    @Override
+    void readFloats(float[] array) throws IOException {
+        view(array.length * 4).asFloatBuffer().get(array);
+    }
+
+    @Override
+    void readDoubles(double[] array) throws IOException {
+        view(array.length * 8).asDoubleBuffer().get(array);
+    }
+
+    @Override
+    public void close() {
+    }
+}
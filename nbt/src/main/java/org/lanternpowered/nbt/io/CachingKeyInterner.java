@@ -0,0 +1,107 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.IOException;
+
+/**
+ * A {@link KeyInterner} that caches the keys in a fixed size hash
+ * table, colliding keys replace each other. Entries are immutable,
+ * so the table can be read and written from multiple threads
+ * without locking, at worst a key is decoded again.
+ */
+final class CachingKeyInterner implements KeyInterner {
+
+    static final KeyInterner NONE = (bytes, offset, length) ->
+            ModifiedUtf8.decode(bytes, offset, length, new char[length]);
+
+    static final KeyInterner SHARED = new CachingKeyInterner(4096);
+
+    /**
+     * Longer keys aren't cached, they are unlikely to be repeated.
+     */
+    private static final int MAXIMUM_KEY_LENGTH = 64;
+
+    private final Entry[] entries;
+    private final int mask;
+
+    CachingKeyInterner(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        final int capacity = size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public String intern(byte[] bytes, int offset, int length) throws IOException {
+        if (length > MAXIMUM_KEY_LENGTH) {
+            return NONE.intern(bytes, offset, length);
+        }
+        int hash = length;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        // Spread the hash, the low bits are used for the index
+        hash ^= hash >>> 16;
+        final int index = hash & this.mask;
+        final Entry entry = this.entries[index];
+        if (entry != null && entry.hash == hash && entry.matches(bytes, offset, length)) {
+            return entry.key;
+        }
+        final byte[] keyBytes = new byte[length];
+        System.arraycopy(bytes, offset, keyBytes, 0, length);
+        final String key = ModifiedUtf8.decode(keyBytes, 0, length, new char[length]);
+        this.entries[index] = new Entry(keyBytes, hash, key);
+        return key;
+    }
+
+    private static final class Entry {
+
+        private final byte[] bytes;
+        private final int hash;
+        private final String key;
+
+        private Entry(byte[] bytes, int hash, String key) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.key = key;
+        }
+
+        private boolean matches(byte[] bytes, int offset, int length) {
+            final byte[] keyBytes = this.bytes;
+            if (keyBytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (keyBytes[i] != bytes[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
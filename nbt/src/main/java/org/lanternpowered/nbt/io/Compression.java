@@ -0,0 +1,156 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Represents the compression format of data.
+ *
+ * <p>The built-in deflate based compressions reuse their
+ * {@link Deflater}s and {@link java.util.zip.Inflater}s per
+ * thread, they are returned when the stream is closed.</p>
+ */
+public interface Compression {
+
+    /**
+     * Gets the {@link Compression} that doesn't compress the data.
+     *
+     * @return The compression
+     */
+    static Compression none() {
+        return NoCompression.INSTANCE;
+    }
+
+    /**
+     * Gets the gzip {@link Compression} with the default
+     * compression level and strategy.
+     *
+     * @return The compression
+     */
+    static Compression gzip() {
+        return DeflateCompression.GZIP;
+    }
+
+    /**
+     * Gets a gzip {@link Compression} with the given compression
+     * level and strategy, see {@link Deflater} for the values.
+     *
+     * @param level The compression level, between -1 and 9
+     * @param strategy The compression strategy
+     * @return The compression
+     */
+    static Compression gzip(int level, int strategy) {
+        return new DeflateCompression(DeflateCompression.Format.GZIP, level, strategy);
+    }
+
+    /**
+     * Gets the zlib {@link Compression} with the default
+     * compression level and strategy.
+     *
+     * @return The compression
+     */
+    static Compression zlib() {
+        return DeflateCompression.ZLIB;
+    }
+
+    /**
+     * Gets a zlib {@link Compression} with the given compression
+     * level and strategy, see {@link Deflater} for the values.
+     *
+     * @param level The compression level, between -1 and 9
+     * @param strategy The compression strategy
+     * @return The compression
+     */
+    static Compression zlib(int level, int strategy) {
+        return new DeflateCompression(DeflateCompression.Format.ZLIB, level, strategy);
+    }
+
+    /**
+     * Gets the raw deflate {@link Compression}, without any
+     * header or checksum, with the default compression level
+     * and strategy.
+     *
+     * @return The compression
+     */
+    static Compression deflate() {
+        return DeflateCompression.DEFLATE;
+    }
+
+    /**
+     * Gets a raw deflate {@link Compression}, without any header or
+     * checksum, with the given compression level and strategy, see
+     * {@link Deflater} for the values.
+     *
+     * @param level The compression level, between -1 and 9
+     * @param strategy The compression strategy
+     * @return The compression
+     */
+    static Compression deflate(int level, int strategy) {
+        return new DeflateCompression(DeflateCompression.Format.DEFLATE, level, strategy);
+    }
+
+    /**
+     * Gets the name of this {@link Compression}.
+     *
+     * @return The name
+     */
+    String getName();
+
+    /**
+     * Wraps the {@link OutputStream} so that the data that is written
+     * to it will be compressed. Closing the returned stream finishes
+     * the compressed data and closes the original stream.
+     *
+     * @param outputStream The output stream
+     * @return The compressing output stream
+     * @throws IOException If an io exception occurs
+     */
+    OutputStream compress(OutputStream outputStream) throws IOException;
+
+    /**
+     * Wraps the {@link InputStream} so that the data that is read
+     * from it will be decompressed. Closing the returned stream
+     * closes the original stream.
+     *
+     * @param inputStream The input stream
+     * @return The decompressing input stream
+     * @throws IOException If an io exception occurs
+     */
+    InputStream decompress(InputStream inputStream) throws IOException;
+
+    /**
+     * Tests whether the data of the {@link InputStream} is compressed
+     * with this {@link Compression}. The {@link InputStream} may be
+     * useless afterwards.
+     *
+     * @param inputStream The input stream
+     * @return Whether the compression is applied
+     */
+    boolean test(InputStream inputStream);
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The {@link Compression}s that are based on deflate, the
+ * {@link Deflater}s and {@link java.util.zip.Inflater}s
+ * are provided by the {@link ZlibPool}.
+ */
+final class DeflateCompression implements Compression {
+
+    enum Format {
+        GZIP,
+        ZLIB,
+        DEFLATE,
+    }
+
+    static final DeflateCompression GZIP = new DeflateCompression(
+            Format.GZIP, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    static final DeflateCompression ZLIB = new DeflateCompression(
+            Format.ZLIB, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+    static final DeflateCompression DEFLATE = new DeflateCompression(
+            Format.DEFLATE, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_STRATEGY);
+
+    private final Format format;
+    private final int level;
+    private final int strategy;
+    private final int deflaterKey;
+
+    DeflateCompression(Format format, int level, int strategy) {
+        this.format = format;
+        this.level = level;
+        this.strategy = strategy;
+        // The zlib format is the only one that uses the header and checksum of zlib
+        this.deflaterKey = ZlibPool.deflaterKey(level, strategy, format != Format.ZLIB);
+    }
+
+    @Override
+    public String getName() {
+        // The name shouldn't depend on the default locale
+        return this.format.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public OutputStream compress(OutputStream outputStream) throws IOException {
+        requireNonNull(outputStream, "outputStream");
+        return new PooledDeflaterOutputStream(outputStream, this.deflaterKey, this.format == Format.GZIP);
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) throws IOException {
+        requireNonNull(inputStream, "inputStream");
+        return new PooledInflaterInputStream(inputStream, this.format != Format.ZLIB, this.format == Format.GZIP);
+    }
+
+    @Override
+    public boolean test(InputStream inputStream) {
+        final int b0;
+        final int b1;
+        try {
+            b0 = inputStream.read();
+            b1 = inputStream.read();
+        } catch (IOException e) {
+            return false;
+        }
+        if (b0 == -1 || b1 == -1) {
+            return false;
+        }
+        switch (this.format) {
+            case GZIP:
+                return (b0 | (b1 << 8)) == GZIPInputStream.GZIP_MAGIC;
+            case ZLIB:
+                // The deflate method, a valid window size and the header check bits
+                return (b0 & 0xf) == 8 && (b0 >> 4) <= 7 && ((b0 << 8) | b1) % 31 == 0;
+            default:
+                // Raw deflate data has no header
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getName() + "{level=" + this.level + ", strategy=" + this.strategy + "}";
+    }
+}
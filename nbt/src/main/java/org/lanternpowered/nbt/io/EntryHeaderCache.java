@@ -0,0 +1,124 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.UTFDataFormatException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A cache of encoded entry headers, the type, the key including the
+ * suffix of the extended types and, for lists, the element type. The
+ * cache has a fixed size, colliding headers replace each other. Entries
+ * are immutable, so the cache can be shared between threads without
+ * locking, at worst a header is encoded again.
+ */
+final class EntryHeaderCache {
+
+    /**
+     * The cache that is shared by all the writers.
+     */
+    static final EntryHeaderCache SHARED = new EntryHeaderCache(1024);
+
+    /**
+     * Longer keys aren't cached, they are unlikely to be repeated.
+     */
+    private static final int MAXIMUM_KEY_LENGTH = 64;
+
+    private final Entry[] entries;
+    private final int mask;
+
+    EntryHeaderCache(int size) {
+        final int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the encoded header for the given key and type, or {@code null}
+     * if the header shouldn't be cached. The returned array may not be
+     * modified.
+     *
+     * @param key The key
+     * @param nbtType The type of the entry
+     * @param elementType The element type if the entry is a list, otherwise {@code null}
+     * @return The encoded header
+     * @throws UTFDataFormatException If the key is too long
+     */
+    @Nullable
+    byte[] get(String key, NbtType nbtType, @Nullable NbtType elementType) throws UTFDataFormatException {
+        if (key.length() > MAXIMUM_KEY_LENGTH) {
+            return null;
+        }
+        int hash = key.hashCode() * 31 + nbtType.ordinal();
+        if (elementType != null) {
+            hash = hash * 31 + elementType.ordinal();
+        }
+        hash ^= hash >>> 16;
+        final int index = hash & this.mask;
+        final Entry entry = this.entries[index];
+        if (entry != null && entry.nbtType == nbtType && entry.elementType == elementType && entry.key.equals(key)) {
+            return entry.header;
+        }
+        final byte[] header = encode(key, nbtType, elementType);
+        this.entries[index] = new Entry(key, nbtType, elementType, header);
+        return header;
+    }
+
+    private static byte[] encode(String key, NbtType nbtType, @Nullable NbtType elementType) throws UTFDataFormatException {
+        final NbtType suffixType = elementType != null ? elementType : nbtType;
+        if (suffixType.suffix != null) {
+            key += (elementType != null ? "$List$" : "$") + suffixType.suffix;
+        }
+        final int length = ModifiedUtf8.encodedLength(key);
+        if (length > ModifiedUtf8.MAXIMUM_LENGTH) {
+            throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+        }
+        final byte[] header = new byte[3 + length + (elementType != null ? 1 : 0)];
+        header[0] = (byte) nbtType.type;
+        header[1] = (byte) (length >>> 8);
+        header[2] = (byte) length;
+        final int end = ModifiedUtf8.encode(key, header, 3);
+        if (elementType != null) {
+            header[end] = (byte) elementType.type;
+        }
+        return header;
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final NbtType nbtType;
+        @Nullable private final NbtType elementType;
+        private final byte[] header;
+
+        private Entry(String key, NbtType nbtType, @Nullable NbtType elementType, byte[] header) {
+            this.key = key;
+            this.nbtType = nbtType;
+            this.elementType = elementType;
+            this.header = header;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.IOException;
+
+/**
+ * Resolves the keys of entries from their modified UTF-8 encoded
+ * bytes. Keys are repeated many times within NBT data, so a interner
+ * can return the same {@link String} instance for the same bytes
+ * instead of decoding them over and over again.
+ *
+ * <p>Interners may be shared between readers on different threads,
+ * so implementations should be thread safe.</p>
+ */
+@FunctionalInterface
+public interface KeyInterner {
+
+    /**
+     * Gets a {@link KeyInterner} that decodes every key into a new
+     * {@link String}, without interning them.
+     *
+     * @return The key interner
+     */
+    static KeyInterner none() {
+        return CachingKeyInterner.NONE;
+    }
+
+    /**
+     * Gets the {@link KeyInterner} which is shared by all the readers
+     * that don't specify one. It caches up to 4096 keys.
+     *
+     * @return The key interner
+     */
+    static KeyInterner shared() {
+        return CachingKeyInterner.SHARED;
+    }
+
+    /**
+     * Creates a new {@link KeyInterner} that caches up to the given amount
+     * of keys. Keys that collide with a cached key replace the cached one.
+     *
+     * @param size The maximum amount of cached keys, will be rounded up to a power of two
+     * @return The key interner
+     */
+    static KeyInterner create(int size) {
+        return new CachingKeyInterner(size);
+    }
+
+    /**
+     * Gets the key for the given modified UTF-8 encoded bytes.
+     *
+     * @param bytes The byte array, may not be modified
+     * @param offset The offset of the first byte of the key
+     * @param length The amount of bytes of the key
+     * @return The key
+     * @throws IOException If the bytes are malformed
+     */
+    String intern(byte[] bytes, int offset, int length) throws IOException;
+}
@@ -0,0 +1,370 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link CompoundTag} of which the entries are only decoded when they are
+ * accessed for the first time. Only the names, types and offsets of the entries
+ * are read when the compound is constructed, nested compounds are lazy as well.
+ *
+ * <p>Looking up, adding and removing single entries only decodes the
+ * affected entries, all the other operations, like iterating or comparing,
+ * decode the complete compound first.</p>
+ */
+final class LazyCompoundTag extends CompoundTag {
+
+    /**
+     * Reads a {@link LazyCompoundTag} from the given {@link BufferNbtInput}, the
+     * input must be positioned at the start of the payload of the compound. The
+     * input will be positioned at the end of the compound afterwards.
+     *
+     * @param input The input
+     * @param decoder The decoder of the input
+     * @param depth The depth of the compound
+     * @return The lazy compound tag
+     * @throws IOException If an io exception occurs
+     */
+    static LazyCompoundTag read(BufferNbtInput input, NbtDecoder decoder, int depth) throws IOException {
+        final LazyCompoundTag compoundTag = new LazyCompoundTag(input, decoder, depth);
+        final int depth1 = depth + 1;
+        NbtDecoder.Entry entry;
+        while ((entry = decoder.readEntry()) != null) {
+            if (compoundTag.pending.put(entry.name, new PendingEntry(entry.type, entry.listType, input.index())) == null) {
+                compoundTag.undecoded++;
+            }
+            decoder.skipPayload(entry.type, entry.listType, depth1);
+        }
+        return compoundTag;
+    }
+
+    private final BufferNbtInput input;
+    private final NbtDecoder decoder;
+    private final int depth;
+
+    // All the entries that were read, in the order they were read. Entries that
+    // were decoded on their own are marked as DECODED, so that they can be moved
+    // back to their read position once all the entries are decoded
+    private final Map<String, PendingEntry> pending = new LinkedHashMap<>();
+    // The amount of entries that aren't decoded yet
+    private int undecoded;
+
+    private LazyCompoundTag(BufferNbtInput input, NbtDecoder decoder, int depth) {
+        this.input = input;
+        this.decoder = decoder;
+        this.depth = depth;
+    }
+
+    /**
+     * Decodes the pending entry for the given key, if present.
+     *
+     * @param key The key
+     */
+    private void decode(@Nullable Object key) {
+        if (this.undecoded == 0) {
+            return;
+        }
+        final PendingEntry entry = this.pending.get(key);
+        if (entry != null && entry != PendingEntry.DECODED) {
+            // Only mark the entry once it's decoded successfully, replacing
+            // the value doesn't change the position of the key
+            super.put((String) key, decode(entry));
+            this.pending.put((String) key, PendingEntry.DECODED);
+            this.undecoded--;
+        }
+    }
+
+    /**
+     * Decodes all the pending entries and puts all the read
+     * entries in the order they were read, followed by the
+     * entries that were added afterwards.
+     */
+    private void decodeAll() {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        // Decode everything before the compound is modified,
+        // so that it stays intact if one of the entries fails
+        final Tag<?>[] tags = new Tag<?>[this.pending.size()];
+        int index = 0;
+        for (PendingEntry entry : this.pending.values()) {
+            if (entry != PendingEntry.DECODED) {
+                tags[index] = decode(entry);
+            }
+            index++;
+        }
+        Map<String, Tag<?>> current = null;
+        if (!super.isEmpty()) {
+            current = new LinkedHashMap<>();
+            super.forEach(current::put);
+            super.clear();
+        }
+        index = 0;
+        for (String key : this.pending.keySet()) {
+            Tag<?> tag = tags[index++];
+            if (tag == null && current != null) {
+                tag = current.remove(key);
+            }
+            if (tag != null) {
+                super.put(key, tag);
+            }
+        }
+        if (current != null) {
+            current.forEach(super::put);
+        }
+        this.pending.clear();
+        this.undecoded = 0;
+    }
+
+    /**
+     * Forgets the read position of the given key once its decoded
+     * entry is removed, so that it's added at the end again.
+     *
+     * @param key The key
+     */
+    private void removed(@Nullable Object key) {
+        if (this.pending.get(key) == PendingEntry.DECODED && !super.containsKey(key)) {
+            this.pending.remove(key);
+        }
+    }
+
+    private boolean isUndecoded(@Nullable Object key) {
+        if (this.undecoded == 0) {
+            return false;
+        }
+        final PendingEntry entry = this.pending.get(key);
+        return entry != null && entry != PendingEntry.DECODED;
+    }
+
+    private Tag<?> decode(PendingEntry entry) {
+        final int depth1 = this.depth + 1;
+        this.input.index(entry.offset);
+        try {
+            if (entry.type == NbtType.COMPOUND) {
+                return read(this.input, this.decoder, depth1);
+            }
+            final TagTreeBuilder builder = new TagTreeBuilder();
+            this.decoder.readPayload(builder, entry.type, entry.listType, depth1);
+            return builder.result();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode a lazy entry", e);
+        }
+    }
+
+    @Override
+    public int size() {
+        return super.size() + this.undecoded;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return super.isEmpty() && this.undecoded == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return super.containsKey(key) || isUndecoded(key);
+    }
+
+    @Override
+    public Tag<?> get(Object key) {
+        decode(key);
+        return super.get(key);
+    }
+
+    @Override
+    public Tag<?> getOrDefault(Object key, Tag<?> defaultValue) {
+        decode(key);
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Nullable
+    @Override
+    public Tag<?> put(String key, Tag<?> value) {
+        decode(key);
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Tag<?>> m) {
+        if (this.undecoded != 0) {
+            // The replaced entries don't have to be decoded
+            // anymore, but they keep their read position
+            for (String key : m.keySet()) {
+                if (isUndecoded(key)) {
+                    this.pending.put(key, PendingEntry.DECODED);
+                    this.undecoded--;
+                }
+            }
+        }
+        super.putAll(m);
+    }
+
+    @Override
+    public Tag<?> putIfAbsent(String key, Tag<?> value) {
+        decode(key);
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public Tag<?> remove(Object key) {
+        decode(key);
+        final Tag<?> tag = super.remove(key);
+        removed(key);
+        return tag;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        decode(key);
+        final boolean removed = super.remove(key, value);
+        removed(key);
+        return removed;
+    }
+
+    @Override
+    public boolean replace(String key, Tag<?> oldValue, Tag<?> newValue) {
+        decode(key);
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Tag<?> replace(String key, Tag<?> value) {
+        decode(key);
+        return super.replace(key, value);
+    }
+
+    @Override
+    public Tag<?> computeIfAbsent(String key, Function<? super String, ? extends Tag<?>> mappingFunction) {
+        decode(key);
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Tag<?> computeIfPresent(String key, BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        decode(key);
+        final Tag<?> tag = super.computeIfPresent(key, remappingFunction);
+        removed(key);
+        return tag;
+    }
+
+    @Override
+    public Tag<?> compute(String key, BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        decode(key);
+        final Tag<?> tag = super.compute(key, remappingFunction);
+        removed(key);
+        return tag;
+    }
+
+    @Override
+    public Tag<?> merge(String key, Tag<?> value, BiFunction<? super Tag<?>, ? super Tag<?>, ? extends Tag<?>> remappingFunction) {
+        decode(key);
+        final Tag<?> tag = super.merge(key, value, remappingFunction);
+        removed(key);
+        return tag;
+    }
+
+    @Override
+    public void clear() {
+        this.pending.clear();
+        this.undecoded = 0;
+        super.clear();
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        decodeAll();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        decodeAll();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<Tag<?>> values() {
+        decodeAll();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Tag<?>>> entrySet() {
+        decodeAll();
+        return super.entrySet();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Tag<?>> action) {
+        decodeAll();
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Tag<?>, ? extends Tag<?>> function) {
+        decodeAll();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public Object clone() {
+        decodeAll();
+        return CompoundTag.of(this);
+    }
+
+    /**
+     * The location of a entry that isn't decoded yet.
+     */
+    private static final class PendingEntry {
+
+        // Marks the read entries that are already decoded
+        private static final PendingEntry DECODED = new PendingEntry(NbtType.END, null, -1);
+
+        private final NbtType type;
+        @Nullable private final NbtType listType;
+        private final int offset;
+
+        private PendingEntry(NbtType type, @Nullable NbtType listType, int offset) {
+            this.type = type;
+            this.listType = listType;
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utilities to encode and decode strings in the modified UTF-8
+ * format, see {@link java.io.DataInput#readUTF()}.
+ */
+final class ModifiedUtf8 {
+
+    /**
+     * The maximum amount of bytes a single char
+     * occupies when encoded in modified UTF-8.
+     */
+    static final int MAXIMUM_BYTES_PER_CHAR = 3;
+
+    /**
+     * The maximum amount of bytes of a encoded string.
+     */
+    static final int MAXIMUM_LENGTH = 65535;
+
+    /**
+     * Decodes the modified UTF-8 bytes into a {@link String}.
+     *
+     * @param bytes The byte array
+     * @param offset The offset of the first byte
+     * @param length The amount of bytes
+     * @param chars A char array with at least {@code length} capacity
+     * @return The decoded string
+     * @throws UTFDataFormatException If the bytes are malformed
+     */
+    static String decode(byte[] bytes, int offset, int length, char[] chars) throws UTFDataFormatException {
+        if (isAscii(bytes, offset, length)) {
+            // Every byte is a character, this avoids the char array
+            // copy and the strings can be stored compact on java 9+
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return new String(chars, 0, decode(bytes, offset, length, chars, 0));
+    }
+
+    private static boolean isAscii(byte[] bytes, int offset, int length) {
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the modified UTF-8 bytes into the char array.
+     *
+     * @param bytes The byte array
+     * @param offset The offset of the first byte
+     * @param length The amount of bytes
+     * @param chars A char array with at least {@code length} capacity, starting from the char offset
+     * @param charOffset The offset of the first char
+     * @return The amount of decoded chars
+     * @throws UTFDataFormatException If the bytes are malformed
+     */
+    static int decode(byte[] bytes, int offset, int length, char[] chars, int charOffset) throws UTFDataFormatException {
+        final int end = offset + length;
+        int count = charOffset;
+        int i = offset;
+        // Fast path for the leading ascii characters
+        while (i < end) {
+            final byte b = bytes[i];
+            if (b < 0) {
+                break;
+            }
+            chars[count++] = (char) b;
+            i++;
+        }
+        while (i < end) {
+            final int b = bytes[i] & 0xff;
+            switch (b >> 4) {
+                case 0: case 1: case 2: case 3: case 4: case 5: case 6: case 7:
+                    // 0xxxxxxx
+                    i++;
+                    chars[count++] = (char) b;
+                    break;
+                case 12: case 13:
+                    // 110x xxxx   10xx xxxx
+                    if (i + 2 > end) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    final int b2 = bytes[i + 1];
+                    if ((b2 & 0xc0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (i + 1 - offset));
+                    }
+                    chars[count++] = (char) (((b & 0x1f) << 6) | (b2 & 0x3f));
+                    i += 2;
+                    break;
+                case 14:
+                    // 1110 xxxx  10xx xxxx  10xx xxxx
+                    if (i + 3 > end) {
+                        throw new UTFDataFormatException("malformed input: partial character at end");
+                    }
+                    final int c2 = bytes[i + 1];
+                    final int c3 = bytes[i + 2];
+                    if ((c2 & 0xc0) != 0x80 || (c3 & 0xc0) != 0x80) {
+                        throw new UTFDataFormatException("malformed input around byte " + (i + 2 - offset));
+                    }
+                    chars[count++] = (char) (((b & 0x0f) << 12) | ((c2 & 0x3f) << 6) | (c3 & 0x3f));
+                    i += 3;
+                    break;
+                default:
+                    // 10xx xxxx,  1111 xxxx
+                    throw new UTFDataFormatException("malformed input around byte " + (i - offset));
+            }
+        }
+        return count - charOffset;
+    }
+
+    /**
+     * Gets the amount of bytes the {@link String}
+     * occupies when encoded in modified UTF-8.
+     *
+     * @param value The string
+     * @return The encoded length
+     */
+    static int encodedLength(String value) {
+        final int length = value.length();
+        int encodedLength = length;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x80 || c == 0) {
+                encodedLength += c >= 0x800 ? 2 : 1;
+            }
+        }
+        return encodedLength;
+    }
+
+    /**
+     * Gets the amount of bytes the chars
+     * occupy when encoded in modified UTF-8.
+     *
+     * @param chars The chars
+     * @return The encoded length
+     */
+    static int encodedLength(char[] chars) {
+        int encodedLength = 0;
+        for (char c : chars) {
+            encodedLength += encodedLength(c);
+        }
+        return encodedLength;
+    }
+
+    /**
+     * Gets the amount of bytes the char
+     * occupies when encoded in modified UTF-8.
+     *
+     * @param c The char
+     * @return The encoded length
+     */
+    static int encodedLength(char c) {
+        return c != 0 && c < 0x80 ? 1 : c >= 0x800 ? 3 : 2;
+    }
+
+    /**
+     * Encodes the {@link String} into the byte array
+     * in the modified UTF-8 format.
+     *
+     * @param value The string
+     * @param bytes The byte array, with enough capacity
+     * @param offset The offset of the first byte
+     * @return The offset after the last written byte
+     */
+    static int encode(String value, byte[] bytes, int offset) {
+        final int length = value.length();
+        int i = 0;
+        // Fast path for the leading ascii characters
+        while (i < length) {
+            final char c = value.charAt(i);
+            if (c == 0 || c >= 0x80) {
+                break;
+            }
+            bytes[offset++] = (byte) c;
+            i++;
+        }
+        for (; i < length; i++) {
+            offset = encode(value.charAt(i), bytes, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Encodes the chars into the byte array
+     * in the modified UTF-8 format.
+     *
+     * @param chars The chars
+     * @param bytes The byte array, with enough capacity
+     * @param offset The offset of the first byte
+     * @return The offset after the last written byte
+     */
+    static int encode(char[] chars, byte[] bytes, int offset) {
+        for (char c : chars) {
+            offset = encode(c, bytes, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Encodes the char into the byte array
+     * in the modified UTF-8 format.
+     *
+     * @param c The char
+     * @param bytes The byte array, with enough capacity
+     * @param offset The offset of the first byte
+     * @return The offset after the last written byte
+     */
+    static int encode(char c, byte[] bytes, int offset) {
+        if (c != 0 && c < 0x80) {
+            bytes[offset++] = (byte) c;
+        } else if (c >= 0x800) {
+            bytes[offset++] = (byte) (0xe0 | ((c >> 12) & 0x0f));
+            bytes[offset++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            bytes[offset++] = (byte) (0x80 | (c & 0x3f));
+        } else {
+            bytes[offset++] = (byte) (0xc0 | ((c >> 6) & 0x1f));
+            bytes[offset++] = (byte) (0x80 | (c & 0x3f));
+        }
+        return offset;
+    }
+
+    private ModifiedUtf8() {
+    }
+}
@@ -0,0 +1,632 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * The decoder that streams the contents of a {@link NbtInput} to
+ * a {@link TagVisitor}, shared by all the readers of the NBT format.
+ */
+final class NbtDecoder {
+
+    private static final short[] EMPTY_SHORT_ARRAY = new short[0];
+    private static final float[] EMPTY_FLOAT_ARRAY = new float[0];
+    private static final double[] EMPTY_DOUBLE_ARRAY = new double[0];
+    private static final String[] EMPTY_STRING_ARRAY = new String[0];
+
+    private static final byte[] LIST_SUFFIX = "$List".getBytes(StandardCharsets.US_ASCII);
+
+    private final NbtInput input;
+    private final int maximumDepth;
+    private final KeyInterner keyInterner;
+    // The entry is reused for every header that is read
+    private final Entry entry = new Entry();
+
+    NbtDecoder(NbtInput input, int maximumDepth) {
+        this(input, maximumDepth, KeyInterner.shared());
+    }
+
+    NbtDecoder(NbtInput input, int maximumDepth, KeyInterner keyInterner) {
+        this.input = input;
+        this.maximumDepth = maximumDepth;
+        this.keyInterner = keyInterner;
+    }
+
+    /**
+     * Reads the next root entry and passes
+     * it to the given {@link TagVisitor}.
+     *
+     * @param visitor The visitor
+     * @throws IOException If an io exception occurs
+     */
+    void read(TagVisitor visitor) throws IOException {
+        final Entry entry = readEntry();
+        if (entry == null) {
+            throw new IOException("There is no more data to read.");
+        }
+        readObject(visitor, entry, 0);
+    }
+
+    /**
+     * Reads the next root entry and passes the parts that are
+     * selected by the {@link NbtProjection} to the given
+     * {@link TagVisitor}, the root entry must be a compound.
+     *
+     * @param visitor The visitor
+     * @param projection The projection
+     * @throws IOException If an io exception occurs
+     */
+    void read(TagVisitor visitor, NbtProjection projection) throws IOException {
+        final Entry entry = readEntry();
+        if (entry == null) {
+            throw new IOException("There is no more data to read.");
+        }
+        if (entry.type != NbtType.COMPOUND) {
+            throw new IOException("Only compound tags can be projected, but found: " + entry.type);
+        }
+        visitor.visitEntry(entry.name, entry.type);
+        readProjectedCompound(visitor, projection.root, 0);
+    }
+
+    private void readProjectedCompound(TagVisitor visitor, NbtProjection.Node node, int depth) throws IOException {
+        if (depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+        visitor.visitCompoundStart();
+        final int depth1 = depth + 1;
+        Entry entry;
+        while ((entry = readEntry()) != null) {
+            final NbtProjection.Node child = node.getChild(entry.name);
+            if (child == null) {
+                skipPayload(entry.type, entry.listType, depth1);
+            } else if (child.all) {
+                readObject(visitor, entry, depth1);
+            } else if (entry.type == NbtType.COMPOUND) {
+                visitor.visitEntry(entry.name, entry.type);
+                readProjectedCompound(visitor, child, depth1);
+            } else if (entry.type == NbtType.LIST && child.elements != null) {
+                readProjectedList(visitor, entry, child.elements, depth1);
+            } else {
+                // The path doesn't match the data
+                skipPayload(entry.type, entry.listType, depth1);
+            }
+        }
+        visitor.visitCompoundEnd();
+    }
+
+    /**
+     * Reads a list of which the elements are projected, the
+     * entry will only be visited if the elements can be projected.
+     */
+    private void readProjectedList(TagVisitor visitor, @Nullable Entry entry,
+            NbtProjection.Node elements, int depth) throws IOException {
+        if (depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+        final byte listType = this.input.readByte();
+        final int size = this.input.readInt();
+        NbtType listNbtType = entry == null ? null : entry.listType;
+        if (listNbtType == null) {
+            listNbtType = listType < 0 || listType >= NbtType.byIndex.length ? null : NbtType.byIndex[listType];
+            if (listNbtType == null) {
+                throw new IOException("Unknown NBT Type with id: " + listType);
+            }
+        }
+        if (!elements.all && listNbtType != NbtType.COMPOUND
+                && (listNbtType != NbtType.LIST || elements.elements == null)) {
+            // The path doesn't match the elements, skip the list and
+            // replace it with an empty one if it's a element itself
+            skipElements(listType, size, depth + 1);
+            if (entry == null) {
+                visitor.visitListStart(NbtType.END, 0);
+                visitor.visitListEnd();
+            }
+            return;
+        }
+        if (entry != null) {
+            visitor.visitEntry(entry.name, NbtType.LIST);
+        }
+        if (size <= 0 || listNbtType == NbtType.END) {
+            visitor.visitListStart(listNbtType, 0);
+        } else {
+            visitor.visitListStart(listNbtType, size);
+            final int depth1 = depth + 1;
+            for (int i = 0; i < size; i++) {
+                if (elements.all) {
+                    readPayload(visitor, listNbtType, null, depth1);
+                } else if (listNbtType == NbtType.COMPOUND) {
+                    readProjectedCompound(visitor, elements, depth1);
+                } else {
+                    readProjectedList(visitor, null, elements.elements, depth1);
+                }
+            }
+        }
+        visitor.visitListEnd();
+    }
+
+    void readObject(TagVisitor visitor, Entry entry, int depth) throws IOException {
+        visitor.visitEntry(entry.name, entry.type);
+        readPayload(visitor, entry.type, entry.listType, depth);
+    }
+
+    /**
+     * Reads the header of the next entry, the name suffixes of
+     * the extended types will be decoded. Returns {@code null}
+     * if the end of the compound was reached.
+     *
+     * @return The entry
+     * @throws IOException If an io exception occurs
+     */
+    @Nullable
+    Entry readEntry() throws IOException {
+        final byte type = this.input.readByte();
+        if (type == NbtType.END.type) {
+            return null;
+        }
+        NbtType nbtType = type < 0 || type >= NbtType.byIndex.length ? null : NbtType.byIndex[type];
+        if (nbtType == null) {
+            throw new IOException("Unknown NBT Type with id: " + type);
+        }
+        // The suffixes are detected on the raw bytes, '$' cannot
+        // be part of a multi byte character in modified UTF-8
+        int length = this.input.readRawUTF();
+        final byte[] bytes = this.input.rawBytes;
+        final int offset = this.input.rawOffset;
+        NbtType listNbtType = null;
+        final int index = lastIndexOf(bytes, offset, length, (byte) '$');
+        if (index != -1) {
+            final NbtType nbtType1 = findSuffix(bytes, index + 1, offset + length - index - 1);
+            length = index - offset;
+            if (nbtType1 != null) {
+                if (nbtType == NbtType.LIST && endsWith(bytes, offset, length, LIST_SUFFIX)) {
+                    length -= LIST_SUFFIX.length;
+                    listNbtType = nbtType1;
+                } else {
+                    nbtType = nbtType1;
+                }
+            }
+        }
+        final Entry entry = this.entry;
+        entry.name = this.keyInterner.intern(bytes, offset, length);
+        entry.type = nbtType;
+        entry.listType = listNbtType;
+        return entry;
+    }
+
+    private static int lastIndexOf(byte[] bytes, int offset, int length, byte value) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean endsWith(byte[] bytes, int offset, int length, byte[] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+        final int start = offset + length - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (bytes[start + i] != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static NbtType findSuffix(byte[] bytes, int offset, int length) {
+        for (NbtType nbtType : NbtType.withSuffix) {
+            final byte[] suffix = nbtType.suffixBytes;
+            if (suffix.length == length && endsWith(bytes, offset, length, suffix)) {
+                return nbtType;
+            }
+        }
+        return null;
+    }
+
+    private void readCompound(TagVisitor visitor, int depth) throws IOException {
+        visitor.visitCompoundStart();
+        final int depth1 = depth + 1;
+        Entry entry;
+        while ((entry = readEntry()) != null) {
+            readObject(visitor, entry, depth1);
+        }
+        visitor.visitCompoundEnd();
+    }
+
+    private void readMap(TagVisitor visitor, int depth) throws IOException {
+        final byte type = this.input.readByte();
+        final int length = this.input.readInt();
+
+        if (type == NbtType.END.type) {
+            if (length != 0) {
+                throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
+            }
+            visitor.visitMapStart(0);
+            visitor.visitMapEnd();
+            return;
+        } else if (type != NbtType.COMPOUND.type) {
+            throw new IOException("Attempted to deserialize a Map (List) but the list type wasn't a compound.");
+        }
+        visitor.visitMapStart(length);
+        depth += 1;
+        for (int i = 0; i < length; i++) {
+            boolean key = false;
+            boolean value = false;
+            // Read a compound tag, we only need a K and V entry
+            visitor.visitCompoundStart();
+            Entry entry;
+            while ((entry = readEntry()) != null) {
+                // The entry will be reused while reading the value
+                final String name = entry.name;
+                readObject(visitor, entry, depth);
+                if (name.equals(NbtType.mapKeyName)) {
+                    key = true;
+                } else if (name.equals(NbtType.mapValueName)) {
+                    value = true;
+                }
+            }
+            if (!key) {
+                throw new IOException("Map entry was missing a key entry.");
+            } else if (!value) {
+                throw new IOException("Map entry was missing a value entry.");
+            }
+            visitor.visitCompoundEnd();
+        }
+        visitor.visitMapEnd();
+    }
+
+    /**
+     * Reads the element type and length of a extended array type
+     * that is stored as a list. Returns {@code -1} if the list
+     * is empty and has the end tag as element type.
+     */
+    private int readListHeader(NbtType expectedType, String arrayName, String elementName) throws IOException {
+        final byte type = this.input.readByte();
+        final int length = this.input.readInt();
+        if (type == NbtType.END.type) {
+            if (length != 0) {
+                throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
+            }
+            return -1;
+        } else if (type != expectedType.type) {
+            throw new IOException("Attempted to deserialize a " + arrayName + " Array (List) but the list type wasn't a "
+                    + elementName + ".");
+        }
+        return length;
+    }
+
+    /**
+     * Skips the payload of the given {@link NbtType} without decoding it.
+     *
+     * <p>All the extended types are stored in the layout of one of the
+     * official types, so only the official layouts need to be known to
+     * skip over a value. Names of nested entries don't have to be decoded
+     * either, only the length prefixes are read.</p>
+     *
+     * @param nbtType The type
+     * @param listNbtType The element type if the type is a list and was
+     *                    specified through a suffix, otherwise {@code null}
+     * @param depth The depth of the payload
+     * @throws IOException If an io exception occurs
+     */
+    void skipPayload(NbtType nbtType, @Nullable NbtType listNbtType, int depth) throws IOException {
+        // The element type of the suffix doesn't change the stored layout
+        if (nbtType == NbtType.END) {
+            throw new IllegalStateException("Unexpected END tag");
+        } else if (nbtType == NbtType.UNKNOWN) {
+            throw new IOException("Attempted to deserialize a unknown nbt tag type: " + nbtType);
+        }
+        skipPayload(nbtType.type, depth);
+    }
+
+    private void skipPayload(int type, int depth) throws IOException {
+        if (depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+        final NbtInput input = this.input;
+        switch (type) {
+            case 1: // Byte, boolean
+                input.skipBytes(1);
+                break;
+            case 2: // Short
+                input.skipBytes(2);
+                break;
+            case 3: // Int
+            case 5: // Float
+                input.skipBytes(4);
+                break;
+            case 4: // Long
+            case 6: // Double
+                input.skipBytes(8);
+                break;
+            case 7: // Byte array, boolean array
+                input.skipBytes(readLength(1));
+                break;
+            case 8: // String, char, char array
+                input.skipUTF();
+                break;
+            case 9: // List and all the extended array types, maps
+                final byte elementType = input.readByte();
+                skipElements(elementType, input.readInt(), depth + 1);
+                break;
+            case 10: // Compound
+                final int depth1 = depth + 1;
+                byte entryType;
+                while ((entryType = input.readByte()) != NbtType.END.type) {
+                    input.skipUTF();
+                    skipPayload(entryType, depth1);
+                }
+                break;
+            case 11: // Int array
+                input.skipBytes(readLength(4));
+                break;
+            case 12: // Long array
+                input.skipBytes(readLength(8));
+                break;
+            default:
+                throw new IOException("Unknown NBT Type with id: " + type);
+        }
+    }
+
+    private void skipElements(int elementType, int size, int depth) throws IOException {
+        if (elementType == NbtType.END.type || size <= 0) {
+            return;
+        }
+        final int elementSize = fixedPayloadSize(elementType);
+        if (elementSize != -1) {
+            this.input.skipBytes((long) size * elementSize);
+        } else {
+            for (int i = 0; i < size; i++) {
+                skipPayload(elementType, depth);
+            }
+        }
+    }
+
+    /**
+     * Reads the length prefix of a array and
+     * converts it into the amount of bytes.
+     */
+    private long readLength(int elementSize) throws IOException {
+        final int length = this.input.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid array length: " + length);
+        }
+        return (long) length * elementSize;
+    }
+
+    /**
+     * Gets the size of the payload of the given
+     * type, or {@code -1} if it isn't fixed.
+     */
+    static int fixedPayloadSize(int type) {
+        switch (type) {
+            case 1: // Byte
+                return 1;
+            case 2: // Short
+                return 2;
+            case 3: // Int
+            case 5: // Float
+                return 4;
+            case 4: // Long
+            case 6: // Double
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    void readPayload(TagVisitor visitor, NbtType nbtType, @Nullable NbtType listNbtType, int depth) throws IOException {
+        if (depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+        int length;
+        switch (nbtType) {
+            case BYTE:
+                visitor.visitByte(this.input.readByte());
+                break;
+            case BYTE_ARRAY:
+                final byte[] byteArray = new byte[this.input.readInt()];
+                this.input.readFully(byteArray);
+                visitor.visitByteArray(byteArray);
+                break;
+            case SHORT:
+                visitor.visitShort(this.input.readShort());
+                break;
+            case SHORT_ARRAY:
+                length = readListHeader(NbtType.SHORT, "Short", "short");
+                if (length == -1) {
+                    visitor.visitShortArray(EMPTY_SHORT_ARRAY);
+                } else {
+                    final short[] shortArray = new short[length];
+                    this.input.readShorts(shortArray);
+                    visitor.visitShortArray(shortArray);
+                }
+                break;
+            case CHAR:
+                if (this.input.readUTFChars() != 1) {
+                    throw new IOException("The Char string must be one character.");
+                }
+                visitor.visitChar(this.input.chars[0]);
+                break;
+            case CHAR_ARRAY:
+                final int charCount = this.input.readUTFChars();
+                visitor.visitCharArray(Arrays.copyOf(this.input.chars, charCount));
+                break;
+            case INT:
+                visitor.visitInt(this.input.readInt());
+                break;
+            case INT_ARRAY:
+                final int[] intArray = new int[this.input.readInt()];
+                this.input.readInts(intArray);
+                visitor.visitIntArray(intArray);
+                break;
+            case LONG:
+                visitor.visitLong(this.input.readLong());
+                break;
+            case LONG_ARRAY:
+                final long[] longArray = new long[this.input.readInt()];
+                this.input.readLongs(longArray);
+                visitor.visitLongArray(longArray);
+                break;
+            case FLOAT:
+                visitor.visitFloat(this.input.readFloat());
+                break;
+            case FLOAT_ARRAY:
+                length = readListHeader(NbtType.FLOAT, "Float", "float");
+                if (length == -1) {
+                    visitor.visitFloatArray(EMPTY_FLOAT_ARRAY);
+                } else {
+                    final float[] floatArray = new float[length];
+                    this.input.readFloats(floatArray);
+                    visitor.visitFloatArray(floatArray);
+                }
+                break;
+            case DOUBLE:
+                visitor.visitDouble(this.input.readDouble());
+                break;
+            case DOUBLE_ARRAY:
+                length = readListHeader(NbtType.DOUBLE, "Double", "double");
+                if (length == -1) {
+                    visitor.visitDoubleArray(EMPTY_DOUBLE_ARRAY);
+                } else {
+                    final double[] doubleArray = new double[length];
+                    this.input.readDoubles(doubleArray);
+                    visitor.visitDoubleArray(doubleArray);
+                }
+                break;
+            case STRING:
+                visitor.visitString(this.input.readUTF());
+                break;
+            case STRING_ARRAY:
+                length = readListHeader(NbtType.STRING, "String", "string");
+                if (length == -1) {
+                    visitor.visitStringArray(EMPTY_STRING_ARRAY);
+                } else {
+                    final String[] stringArray = new String[length];
+                    for (int i = 0; i < stringArray.length; i++) {
+                        stringArray[i] = this.input.readUTF();
+                    }
+                    visitor.visitStringArray(stringArray);
+                }
+                break;
+            case BOOLEAN:
+                visitor.visitBoolean(this.input.readBoolean());
+                break;
+            case BOOLEAN_ARRAY:
+                int bitBytes = this.input.readInt() - 2;
+                final boolean[] booleanArray = new boolean[this.input.readShort()];
+                int j = 0;
+                for (int i = 0; i < bitBytes; i++) {
+                    final byte value = this.input.readByte();
+                    while (j < booleanArray.length) {
+                        final int k = j % 8;
+                        booleanArray[j++] = (value & (1 << k)) != 0;
+                    }
+                }
+                visitor.visitBooleanArray(booleanArray);
+                break;
+            case LIST:
+                final byte listType = this.input.readByte();
+                if (listNbtType == null) {
+                    listNbtType = listType < 0 || listType >= NbtType.byIndex.length ? null : NbtType.byIndex[listType];
+                    if (listNbtType == null) {
+                        throw new IOException("Unknown NBT Type with id: " + listType);
+                    }
+                }
+                final int size = this.input.readInt();
+                if (size == 0 || listNbtType == NbtType.END) {
+                    visitor.visitListStart(listNbtType, 0);
+                } else {
+                    visitor.visitListStart(listNbtType, size);
+                    final int depth1 = depth + 1;
+                    for (int i = 0; i < size; i++) {
+                        readPayload(visitor, listNbtType, null, depth1);
+                    }
+                }
+                visitor.visitListEnd();
+                break;
+            case COMPOUND:
+                readCompound(visitor, depth);
+                break;
+            case COMPOUND_ARRAY:
+                length = readListHeader(NbtType.COMPOUND, "Compound", "compound");
+                if (length == -1) {
+                    visitor.visitCompoundArrayStart(0);
+                } else {
+                    visitor.visitCompoundArrayStart(length);
+                    final int depth1 = depth + 1;
+                    for (int i = 0; i < length; i++) {
+                        readCompound(visitor, depth1);
+                    }
+                }
+                visitor.visitCompoundArrayEnd();
+                break;
+            case MAP:
+                readMap(visitor, depth);
+                break;
+            case MAP_ARRAY:
+                length = readListHeader(NbtType.LIST, "Map", "list");
+                if (length == -1) {
+                    visitor.visitMapArrayStart(0);
+                } else {
+                    visitor.visitMapArrayStart(length);
+                    final int depth1 = depth + 1;
+                    for (int i = 0; i < length; i++) {
+                        readMap(visitor, depth1);
+                    }
+                }
+                visitor.visitMapArrayEnd();
+                break;
+            case END:
+                throw new IllegalStateException("Unexpected END tag");
+            default:
+                throw new IOException("Attempted to deserialize a unknown nbt tag type: " + nbtType);
+        }
+    }
+
+    /**
+     * The header of a entry, the instance is reused by every call
+     * to {@link #readEntry()} so the values should be read before
+     * the next entry is read.
+     */
+    static final class Entry {
+
+        String name;
+        NbtType type;
+        @Nullable NbtType listType;
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import org.lanternpowered.nbt.BooleanArrayTag;
+import org.lanternpowered.nbt.BooleanTag;
+import org.lanternpowered.nbt.ByteArrayTag;
+import org.lanternpowered.nbt.ByteListTag;
+import org.lanternpowered.nbt.ByteTag;
+import org.lanternpowered.nbt.CharArrayTag;
+import org.lanternpowered.nbt.CharTag;
+import org.lanternpowered.nbt.CompoundArrayTag;
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.DoubleArrayTag;
+import org.lanternpowered.nbt.DoubleListTag;
+import org.lanternpowered.nbt.DoubleTag;
+import org.lanternpowered.nbt.FloatArrayTag;
+import org.lanternpowered.nbt.FloatListTag;
+import org.lanternpowered.nbt.FloatTag;
+import org.lanternpowered.nbt.IntArrayTag;
+import org.lanternpowered.nbt.IntListTag;
+import org.lanternpowered.nbt.IntTag;
+import org.lanternpowered.nbt.ListTag;
+import org.lanternpowered.nbt.LongArrayTag;
+import org.lanternpowered.nbt.LongListTag;
+import org.lanternpowered.nbt.LongTag;
+import org.lanternpowered.nbt.MapArrayTag;
+import org.lanternpowered.nbt.MapTag;
+import org.lanternpowered.nbt.ShortArrayTag;
+import org.lanternpowered.nbt.ShortListTag;
+import org.lanternpowered.nbt.ShortTag;
+import org.lanternpowered.nbt.StringArrayTag;
+import org.lanternpowered.nbt.StringTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The encoder that writes {@link Tag}s and their entry headers
+ * to a {@link NbtOutput}, shared by all the writers of the NBT format.
+ */
+@SuppressWarnings({"unchecked", "SuspiciousMethodCalls"})
+final class NbtEncoder {
+
+    private final NbtOutput output;
+    private final EntryHeaderCache headerCache;
+
+    // Writes the entries of compounds through forEach, iterating
+    // the entry set would allocate the entries of compact compounds
+    private final BiConsumer<String, Tag<?>> entryWriter = (key, tag) -> {
+        try {
+            writeEntry(key, tag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    };
+
+    NbtEncoder(NbtOutput output) {
+        this.output = output;
+        this.headerCache = EntryHeaderCache.SHARED;
+    }
+
+    /**
+     * Writes the header of a entry, the name suffix of
+     * the extended types will be appended to the key.
+     *
+     * @param key The key
+     * @param nbtType The type of the entry, cannot be a list
+     * @throws IOException If an io exception occurs
+     */
+    void writeEntryHeader(String key, NbtType nbtType) throws IOException {
+        final byte[] header = this.headerCache.get(key, nbtType, null);
+        if (header != null) {
+            this.output.write(header);
+            return;
+        }
+        this.output.writeByte(nbtType.type);
+        if (nbtType.suffix != null) {
+            key += '$' + nbtType.suffix;
+        }
+        this.output.writeUTF(key);
+    }
+
+    /**
+     * Writes the header of a list entry, including the type of the
+     * elements and the size. The name suffix of the extended element
+     * types will be appended to the key.
+     *
+     * @param key The key
+     * @param elementType The type of the elements, {@link NbtType#END} if empty
+     * @param size The size of the list
+     * @throws IOException If an io exception occurs
+     */
+    void writeListEntryHeader(String key, NbtType elementType, int size) throws IOException {
+        final byte[] header = this.headerCache.get(key, NbtType.LIST, elementType);
+        if (header != null) {
+            this.output.write(header);
+            this.output.writeInt(size);
+            return;
+        }
+        this.output.writeByte(NbtType.LIST.type);
+        if (elementType.suffix != null) {
+            key += "$List$" + elementType.suffix;
+        }
+        this.output.writeUTF(key);
+        writeListHeader(elementType, size);
+    }
+
+    void writeListHeader(NbtType elementType, int size) throws IOException {
+        this.output.writeByte(elementType.type);
+        this.output.writeInt(size);
+    }
+
+    void writeEntry(String key, Tag<?> tag) throws IOException {
+        NbtType nbtType = NbtType.byClass(tag.getClass());
+        if (nbtType == NbtType.LIST) {
+            final ListTag<?> listTag = (ListTag<?>) tag;
+            nbtType = NbtType.elementTypeOf(listTag);
+            writeListEntryHeader(key, nbtType, listTag.size());
+            writeListElements(nbtType, listTag);
+        } else {
+            writeEntryHeader(key, nbtType);
+            try {
+                writePayload(nbtType, tag);
+            } catch (Exception e) {
+                if (nbtType.suffix != null) {
+                    key += '$' + nbtType.suffix;
+                }
+                throw new IOException("Exception while serializing key: " + key, e);
+            }
+        }
+    }
+
+    void writePayload(NbtType nbtType, Tag<?> tag) throws IOException {
+        switch (nbtType) {
+            case BYTE:
+                this.output.writeByte(((ByteTag) tag).byteValue());
+                break;
+            case BYTE_ARRAY:
+                writeByteArray(((ByteArrayTag) tag).readOnlyArray());
+                break;
+            case SHORT:
+                this.output.writeShort(((ShortTag) tag).shortValue());
+                break;
+            case SHORT_ARRAY:
+                writeShortArray(((ShortArrayTag) tag).readOnlyArray());
+                break;
+            case CHAR:
+                writeChar(((CharTag) tag).charValue());
+                break;
+            case CHAR_ARRAY:
+                writeCharArray(((CharArrayTag) tag).readOnlyArray());
+                break;
+            case INT:
+                this.output.writeInt(((IntTag) tag).intValue());
+                break;
+            case INT_ARRAY:
+                writeIntArray(((IntArrayTag) tag).readOnlyArray());
+                break;
+            case LONG:
+                this.output.writeLong(((LongTag) tag).longValue());
+                break;
+            case LONG_ARRAY:
+                writeLongArray(((LongArrayTag) tag).readOnlyArray());
+                break;
+            case FLOAT:
+                this.output.writeFloat(((FloatTag) tag).floatValue());
+                break;
+            case FLOAT_ARRAY:
+                writeFloatArray(((FloatArrayTag) tag).readOnlyArray());
+                break;
+            case DOUBLE:
+                this.output.writeDouble(((DoubleTag) tag).doubleValue());
+                break;
+            case DOUBLE_ARRAY:
+                writeDoubleArray(((DoubleArrayTag) tag).readOnlyArray());
+                break;
+            case STRING:
+                this.output.writeUTF(((StringTag) tag).get());
+                break;
+            case STRING_ARRAY:
+                writeStringArray(((StringArrayTag) tag).readOnlyArray());
+                break;
+            case BOOLEAN:
+                this.output.writeBoolean(((BooleanTag) tag).booleanValue());
+                break;
+            case BOOLEAN_ARRAY:
+                writeBooleanArray(((BooleanArrayTag) tag).readOnlyArray());
+                break;
+            case LIST:
+                final ListTag<?> listTag = (ListTag<?>) tag;
+                final NbtType elementType = NbtType.elementTypeOf(listTag);
+                writeListHeader(elementType, listTag.size());
+                writeListElements(elementType, listTag);
+                break;
+            case COMPOUND:
+                writeCompound((CompoundTag) tag);
+                break;
+            case COMPOUND_ARRAY:
+                final CompoundTag[] compoundArray = ((CompoundArrayTag) tag).readOnlyArray();
+                this.output.writeByte(NbtType.COMPOUND.type);
+                this.output.writeInt(compoundArray.length);
+                for (CompoundTag compoundTag : compoundArray) {
+                    writeCompound(compoundTag);
+                }
+                break;
+            case MAP:
+                writeMap((MapTag) tag);
+                break;
+            case MAP_ARRAY:
+                final MapTag[] mapTagArray = ((MapArrayTag) tag).readOnlyArray();
+                this.output.writeByte(NbtType.LIST.type);
+                this.output.writeInt(mapTagArray.length);
+                for (MapTag mapTag : mapTagArray) {
+                    writeMap(mapTag);
+                }
+                break;
+            default:
+                throw new IOException("Attempted to serialize a unsupported tag type: " + tag.getClass().getName());
+        }
+    }
+
+    void writeByteArray(byte[] byteArray) throws IOException {
+        this.output.writeInt(byteArray.length);
+        this.output.write(byteArray);
+    }
+
+    void writeShortArray(short[] shortArray) throws IOException {
+        this.output.writeByte(NbtType.SHORT.type);
+        this.output.writeInt(shortArray.length);
+        this.output.writeShorts(shortArray);
+    }
+
+    void writeChar(char value) throws IOException {
+        this.output.writeUTF(value);
+    }
+
+    void writeCharArray(char[] charArray) throws IOException {
+        this.output.writeUTF(charArray);
+    }
+
+    void writeIntArray(int[] intArray) throws IOException {
+        this.output.writeInt(intArray.length);
+        this.output.writeInts(intArray);
+    }
+
+    void writeLongArray(long[] longArray) throws IOException {
+        this.output.writeInt(longArray.length);
+        this.output.writeLongs(longArray);
+    }
+
+    void writeFloatArray(float[] floatArray) throws IOException {
+        this.output.writeByte(NbtType.FLOAT.type);
+        this.output.writeInt(floatArray.length);
+        this.output.writeFloats(floatArray);
+    }
+
+    void writeDoubleArray(double[] doubleArray) throws IOException {
+        this.output.writeByte(NbtType.DOUBLE.type);
+        this.output.writeInt(doubleArray.length);
+        this.output.writeDoubles(doubleArray);
+    }
+
+    void writeStringArray(String[] stringArray) throws IOException {
+        this.output.writeByte(NbtType.STRING.type);
+        this.output.writeInt(stringArray.length);
+        for (String string : stringArray) {
+            this.output.writeUTF(string);
+        }
+    }
+
+    void writeBooleanArray(boolean[] booleanArray) throws IOException {
+        int length = booleanArray.length / 8;
+        if (booleanArray.length % 8 != 0) {
+            length++;
+        }
+        this.output.writeInt(length + 2);
+        this.output.writeShort(booleanArray.length);
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            byte value = 0;
+            while (j < booleanArray.length) {
+                final int k = j % 8;
+                if (booleanArray[j++]) {
+                    value |= 1 << k;
+                }
+            }
+            this.output.writeByte(value);
+        }
+    }
+
+    private void writeCompound(CompoundTag tag) throws IOException {
+        try {
+            tag.forEach(this.entryWriter);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        this.output.writeByte(NbtType.END.type);
+    }
+
+    private void writeMap(MapTag tag) throws IOException {
+        this.output.writeByte(NbtType.COMPOUND.type);
+        this.output.writeInt(tag.size());
+        for (Map.Entry<Tag, Tag> entry : ((Map<Tag, Tag>) tag).entrySet()) {
+            writeEntry(NbtType.mapKeyName, entry.getKey());
+            writeEntry(NbtType.mapValueName, entry.getValue());
+            this.output.writeByte(NbtType.END.type);
+        }
+    }
+
+    private void writeListElements(NbtType nbtType, ListTag<?> listTag) throws IOException {
+        // Write the primitive lists directly, without boxing the elements
+        if (listTag instanceof IntListTag) {
+            final IntListTag intListTag = (IntListTag) listTag;
+            for (int i = 0; i < intListTag.size(); i++) {
+                this.output.writeInt(intListTag.getInt(i));
+            }
+            return;
+        } else if (listTag instanceof DoubleListTag) {
+            final DoubleListTag doubleListTag = (DoubleListTag) listTag;
+            for (int i = 0; i < doubleListTag.size(); i++) {
+                this.output.writeDouble(doubleListTag.getDouble(i));
+            }
+            return;
+        } else if (listTag instanceof FloatListTag) {
+            final FloatListTag floatListTag = (FloatListTag) listTag;
+            for (int i = 0; i < floatListTag.size(); i++) {
+                this.output.writeFloat(floatListTag.getFloat(i));
+            }
+            return;
+        } else if (listTag instanceof LongListTag) {
+            final LongListTag longListTag = (LongListTag) listTag;
+            for (int i = 0; i < longListTag.size(); i++) {
+                this.output.writeLong(longListTag.getLong(i));
+            }
+            return;
+        } else if (listTag instanceof ShortListTag) {
+            final ShortListTag shortListTag = (ShortListTag) listTag;
+            for (int i = 0; i < shortListTag.size(); i++) {
+                this.output.writeShort(shortListTag.getShort(i));
+            }
+            return;
+        } else if (listTag instanceof ByteListTag) {
+            final ByteListTag byteListTag = (ByteListTag) listTag;
+            for (int i = 0; i < byteListTag.size(); i++) {
+                this.output.writeByte(byteListTag.getByte(i));
+            }
+            return;
+        }
+        for (Tag<?> tag : listTag) {
+            writePayload(nbtType, tag);
+        }
+    }
+}
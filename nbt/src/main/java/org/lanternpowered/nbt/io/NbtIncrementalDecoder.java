@@ -0,0 +1,381 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.Tag;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A non-blocking decoder for NBT documents that arrive in
+ * arbitrary chunks, for example from a network connection.
+ *
+ * <p>Data is pushed into the decoder through {@link #feed(ByteBuffer)},
+ * completed root entries can be retrieved through {@link #poll()} or
+ * {@link #poll(TagVisitor)}. The structure of the pending entry is tracked
+ * between the feeds, so every byte is only scanned once, no matter how
+ * the data is split. A root entry is decoded as soon as its last byte
+ * arrived.</p>
+ *
+ * <p>This decoder isn't thread safe. If an {@link IOException} is thrown
+ * while polling, the data is malformed and the decoder shouldn't be used
+ * anymore.</p>
+ */
+public final class NbtIncrementalDecoder {
+
+    // The states of the scanner
+    private static final int ENTRY_TYPE = 0;
+    private static final int ENTRY_KEY = 1;
+    private static final int PAYLOAD = 2;
+    private static final int NEXT = 3;
+    private static final int COMPLETE = 4;
+
+    // The frame type of a compound, lists use their element type
+    private static final int COMPOUND_FRAME = -1;
+
+    private static final int MAXIMUM_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    private final int maximumDepth;
+    private final KeyInterner keyInterner;
+
+    private byte[] buf = new byte[256];
+    // The start of the pending root entry
+    private int start;
+    // The end of the data that was fed
+    private int limit;
+    // The scan position, exceeds the limit while
+    // waiting for the bytes of a skipped payload
+    private long pos;
+
+    private int state = ENTRY_TYPE;
+    // The type of the payload that will be scanned next
+    private int type;
+
+    // The stack of the compounds and lists that are being scanned
+    private int depth;
+    private int[] frameTypes = new int[16];
+    private int[] frameRemaining = new int[16];
+
+    /**
+     * Constructs a new {@link NbtIncrementalDecoder}.
+     */
+    public NbtIncrementalDecoder() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@link NbtIncrementalDecoder}.
+     *
+     * @param maximumDepth The maximum depth of the data contains
+     */
+    public NbtIncrementalDecoder(int maximumDepth) {
+        this(maximumDepth, KeyInterner.shared());
+    }
+
+    /**
+     * Constructs a new {@link NbtIncrementalDecoder}.
+     *
+     * @param maximumDepth The maximum depth of the data contains
+     * @param keyInterner The key interner that resolves the keys of entries
+     */
+    public NbtIncrementalDecoder(int maximumDepth, KeyInterner keyInterner) {
+        this.maximumDepth = maximumDepth;
+        this.keyInterner = requireNonNull(keyInterner, "keyInterner");
+    }
+
+    /**
+     * Feeds all the remaining bytes of the {@link ByteBuffer} to this
+     * decoder. The bytes are copied, the buffer can be reused afterwards.
+     *
+     * @param byteBuffer The byte buffer
+     */
+    public void feed(ByteBuffer byteBuffer) {
+        requireNonNull(byteBuffer, "byteBuffer");
+        final int length = byteBuffer.remaining();
+        ensureCapacity(length);
+        byteBuffer.get(this.buf, this.limit, length);
+        this.limit += length;
+    }
+
+    /**
+     * Gets whether there is data that was fed, but
+     * that isn't part of a polled root entry yet.
+     *
+     * @return Whether there is pending data
+     */
+    public boolean hasPendingData() {
+        return this.limit > this.start;
+    }
+
+    /**
+     * Polls the next completed root entry.
+     *
+     * @return The tag, or {@code null} if the entry isn't complete yet
+     * @throws IOException If the data is malformed
+     */
+    @Nullable
+    public Tag<?> poll() throws IOException {
+        if (!scan()) {
+            return null;
+        }
+        final TagTreeBuilder builder = new TagTreeBuilder();
+        decode(builder);
+        return builder.result();
+    }
+
+    /**
+     * Passes the next completed root entry to the
+     * given {@link TagVisitor}, if there is one.
+     *
+     * @param visitor The visitor
+     * @return Whether a root entry was visited
+     * @throws IOException If the data is malformed
+     */
+    public boolean poll(TagVisitor visitor) throws IOException {
+        requireNonNull(visitor, "visitor");
+        if (!scan()) {
+            return false;
+        }
+        decode(visitor);
+        return true;
+    }
+
+    private void decode(TagVisitor visitor) throws IOException {
+        final int end = (int) this.pos;
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(this.buf, this.start, end - this.start);
+        new NbtDecoder(new BufferNbtInput(byteBuffer), this.maximumDepth, this.keyInterner).read(visitor);
+        this.state = ENTRY_TYPE;
+        if (end == this.limit) {
+            // Nothing left, start from the beginning of the buffer again
+            this.start = 0;
+            this.limit = 0;
+            this.pos = 0;
+        } else {
+            this.start = end;
+        }
+    }
+
+    private void ensureCapacity(int length) {
+        final int pending = this.limit - this.start;
+        if (length > MAXIMUM_BUFFER_SIZE - pending) {
+            throw new IllegalStateException("The pending data exceeds the maximum buffer size");
+        }
+        if (this.buf.length - this.limit >= length) {
+            return;
+        }
+        final int required = pending + length;
+        byte[] buf = this.buf;
+        if (buf.length < required) {
+            buf = new byte[(int) Math.min(MAXIMUM_BUFFER_SIZE, Math.max(required, buf.length * 2L))];
+        }
+        // Move the pending data to the start of the buffer
+        System.arraycopy(this.buf, this.start, buf, 0, pending);
+        this.buf = buf;
+        this.pos -= this.start;
+        this.limit = pending;
+        this.start = 0;
+    }
+
+    /**
+     * Continues scanning the structure of the pending
+     * root entry with the data that is available.
+     *
+     * @return Whether the root entry is complete
+     */
+    private boolean scan() throws IOException {
+        while (true) {
+            switch (this.state) {
+                case ENTRY_TYPE:
+                    if (!isAvailable(1)) {
+                        return false;
+                    }
+                    final int type = this.buf[(int) this.pos++];
+                    if (type == NbtType.END.type) {
+                        if (this.depth == 0) {
+                            throw new IOException("There is no more data to read.");
+                        }
+                        // End of the compound
+                        this.depth--;
+                        this.state = NEXT;
+                    } else {
+                        this.type = type;
+                        this.state = ENTRY_KEY;
+                    }
+                    break;
+                case ENTRY_KEY:
+                    if (!isAvailable(2)) {
+                        return false;
+                    }
+                    this.pos += 2 + getUnsignedShort();
+                    this.state = PAYLOAD;
+                    break;
+                case PAYLOAD:
+                    if (!scanPayload()) {
+                        return false;
+                    }
+                    break;
+                case NEXT:
+                    if (this.depth == 0) {
+                        // Wait for the remaining bytes of the last payload
+                        if (this.pos > this.limit) {
+                            return false;
+                        }
+                        this.state = COMPLETE;
+                        return true;
+                    }
+                    final int frame = this.depth - 1;
+                    final int frameType = this.frameTypes[frame];
+                    if (frameType == COMPOUND_FRAME) {
+                        this.state = ENTRY_TYPE;
+                    } else if (this.frameRemaining[frame] > 0) {
+                        this.frameRemaining[frame]--;
+                        this.type = frameType;
+                        this.state = PAYLOAD;
+                    } else {
+                        // End of the list
+                        this.depth--;
+                    }
+                    break;
+                case COMPLETE:
+                    return true;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+    }
+
+    private boolean scanPayload() throws IOException {
+        if (this.depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+        switch (this.type) {
+            case 1: // Byte, boolean
+            case 2: // Short
+            case 3: // Int
+            case 4: // Long
+            case 5: // Float
+            case 6: // Double
+                this.pos += NbtDecoder.fixedPayloadSize(this.type);
+                break;
+            case 7: // Byte array, boolean array
+                if (!isAvailable(4)) {
+                    return false;
+                }
+                this.pos += 4 + getLength(1);
+                break;
+            case 8: // String, char, char array
+                if (!isAvailable(2)) {
+                    return false;
+                }
+                this.pos += 2 + getUnsignedShort();
+                break;
+            case 9: // List and all the extended array types, maps
+                if (!isAvailable(5)) {
+                    return false;
+                }
+                final int elementType = this.buf[(int) this.pos++];
+                final int size = getInt();
+                this.pos += 4;
+                if (elementType == NbtType.END.type || size <= 0) {
+                    break;
+                }
+                final int elementSize = NbtDecoder.fixedPayloadSize(elementType);
+                if (elementSize != -1) {
+                    this.pos += (long) size * elementSize;
+                    break;
+                }
+                push(elementType, size);
+                break;
+            case 10: // Compound
+                push(COMPOUND_FRAME, 0);
+                this.state = ENTRY_TYPE;
+                return true;
+            case 11: // Int array
+                if (!isAvailable(4)) {
+                    return false;
+                }
+                this.pos += 4 + getLength(4);
+                break;
+            case 12: // Long array
+                if (!isAvailable(4)) {
+                    return false;
+                }
+                this.pos += 4 + getLength(8);
+                break;
+            default:
+                throw new IOException("Unknown NBT Type with id: " + this.type);
+        }
+        if (this.pos > MAXIMUM_BUFFER_SIZE + (long) this.start) {
+            throw new IOException("The root entry exceeds the maximum buffer size");
+        }
+        this.state = NEXT;
+        return true;
+    }
+
+    private void push(int frameType, int remaining) {
+        final int depth = this.depth;
+        if (depth == this.frameTypes.length) {
+            this.frameTypes = Arrays.copyOf(this.frameTypes, depth * 2);
+            this.frameRemaining = Arrays.copyOf(this.frameRemaining, depth * 2);
+        }
+        this.frameTypes[depth] = frameType;
+        this.frameRemaining[depth] = remaining;
+        this.depth = depth + 1;
+    }
+
+    private boolean isAvailable(int length) {
+        return this.pos + length <= this.limit;
+    }
+
+    private int getUnsignedShort() {
+        final int pos = (int) this.pos;
+        return ((this.buf[pos] & 0xff) << 8) | (this.buf[pos + 1] & 0xff);
+    }
+
+    private int getInt() {
+        final byte[] buf = this.buf;
+        final int pos = (int) this.pos;
+        return (buf[pos] << 24) | ((buf[pos + 1] & 0xff) << 16) | ((buf[pos + 2] & 0xff) << 8) | (buf[pos + 3] & 0xff);
+    }
+
+    /**
+     * Gets the length prefix of a array and
+     * converts it into the amount of bytes.
+     */
+    private long getLength(int elementSize) throws IOException {
+        final int length = getInt();
+        if (length < 0) {
+            throw new IOException("Invalid array length: " + length);
+        }
+        return (long) length * elementSize;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The source of the raw big-endian primitives
+ * which make up a NBT document.
+ */
+abstract class NbtInput implements Closeable {
+
+    abstract byte readByte() throws IOException;
+
+    abstract short readShort() throws IOException;
+
+    abstract int readInt() throws IOException;
+
+    abstract long readLong() throws IOException;
+
+    float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    // The location of the bytes of the last string read
+    // through readRawUTF, only valid until the next read
+    byte[] rawBytes;
+    int rawOffset;
+
+    // The chars of the last string read through readUTFChars,
+    // only valid until the next read
+    char[] chars = new char[64];
+
+    /**
+     * Reads the length and the bytes of a string which is encoded in the
+     * modified UTF-8 format, without decoding them. The bytes can be found
+     * in {@link #rawBytes} starting at {@link #rawOffset}, they are only
+     * valid until the next read.
+     *
+     * @return The amount of bytes
+     * @throws IOException If an io exception occurs
+     */
+    abstract int readRawUTF() throws IOException;
+
+    /**
+     * Reads a string which is encoded in the
+     * modified UTF-8 format, see {@link java.io.DataInput#readUTF()}.
+     *
+     * @return The string
+     * @throws IOException If an io exception occurs
+     */
+    String readUTF() throws IOException {
+        final int length = readRawUTF();
+        return ModifiedUtf8.decode(this.rawBytes, this.rawOffset, length, chars(length));
+    }
+
+    /**
+     * Reads a string which is encoded in the modified UTF-8 format
+     * into {@link #chars}, without creating a {@link String}.
+     *
+     * @return The amount of chars
+     * @throws IOException If an io exception occurs
+     */
+    int readUTFChars() throws IOException {
+        final int length = readRawUTF();
+        return ModifiedUtf8.decode(this.rawBytes, this.rawOffset, length, chars(length), 0);
+    }
+
+    private char[] chars(int length) {
+        if (this.chars.length < length) {
+            this.chars = new char[Math.max(length, this.chars.length * 2)];
+        }
+        return this.chars;
+    }
+
+    /**
+     * Reads bytes until the given array is filled.
+     *
+     * @param bytes The byte array to fill
+     * @throws IOException If an io exception occurs
+     */
+    abstract void readFully(byte[] bytes) throws IOException;
+
+    /**
+     * Skips the given amount of bytes.
+     *
+     * @param length The amount of bytes
+     * @throws IOException If an io exception occurs or
+     *     if the end of the input was reached
+     */
+    abstract void skipBytes(long length) throws IOException;
+
+    /**
+     * Skips a string which is encoded in the
+     * modified UTF-8 format.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    void skipUTF() throws IOException {
+        skipBytes(readShort() & 0xffff);
+    }
+
+    /**
+     * Reads {@code short}s until the given array is filled.
+     *
+     * @param array The array to fill
+     * @throws IOException If an io exception occurs
+     */
+    void readShorts(short[] array) throws IOException {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readShort();
+        }
+    }
+
+    /**
+     * Reads {@code int}s until the given array is filled.
+     *
+     * @param array The array to fill
+     * @throws IOException If an io exception occurs
+     */
+    void readInts(int[] array) throws IOException {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readInt();
+        }
+    }
+
+    /**
+     * Reads {@code long}s until the given array is filled.
+     *
+     * @param array The array to fill
+     * @throws IOException If an io exception occurs
+     */
+    void readLongs(long[] array) throws IOException {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readLong();
+        }
+    }
+
+    /**
+     * Reads {@code float}s until the given array is filled.
+     *
+     * @param array The array to fill
+     * @throws IOException If an io exception occurs
+     */
+    void readFloats(float[] array) throws IOException {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readFloat();
+        }
+    }
+
+    /**
+     * Reads {@code double}s until the given array is filled.
+     *
+     * @param array The array to fill
+     * @throws IOException If an io exception occurs
+     */
+    void readDoubles(double[] array) throws IOException {
+        for (int i = 0; i < array.length; i++) {
+            array[i] = readDouble();
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+
+/**
+ * The target of the raw big-endian primitives which make up a NBT
+ * document, everything is written through an internal buffer which
+ * is only passed to the {@link OutputStream} when it's full or when
+ * the output is flushed or closed.
+ */
+final class NbtOutput implements Flushable, Closeable {
+
+    /**
+     * The minimum size of the internal buffer, every
+     * primitive should fit in the buffer.
+     */
+    static final int MINIMUM_BUFFER_SIZE = 16;
+
+    private final OutputStream os;
+    private final byte[] buf;
+    private final ByteBuffer byteBuffer;
+
+    // The index of the next byte to write in the buffer
+    private int pos;
+
+    NbtOutput(OutputStream os, int bufferSize) {
+        if (bufferSize < MINIMUM_BUFFER_SIZE) {
+            throw new IllegalArgumentException("The buffer size must be at least " + MINIMUM_BUFFER_SIZE);
+        }
+        this.os = os;
+        this.buf = new byte[bufferSize];
+        this.byteBuffer = ByteBuffer.wrap(this.buf);
+    }
+
+    /**
+     * Writes the contents of the buffer to the output stream.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    private void flushBuffer() throws IOException {
+        if (this.pos > 0) {
+            this.os.write(this.buf, 0, this.pos);
+            this.pos = 0;
+        }
+    }
+
+    /**
+     * Ensures that the given amount of bytes can be written to the
+     * buffer, the amount may not exceed the buffer size.
+     *
+     * @param length The amount of bytes
+     * @throws IOException If an io exception occurs
+     */
+    private void ensure(int length) throws IOException {
+        if (this.buf.length - this.pos < length) {
+            flushBuffer();
+        }
+    }
+
+    void writeByte(int value) throws IOException {
+        if (this.pos == this.buf.length) {
+            flushBuffer();
+        }
+        this.buf[this.pos++] = (byte) value;
+    }
+
+    void writeShort(int value) throws IOException {
+        ensure(2);
+        final byte[] buf = this.buf;
+        final int pos = this.pos;
+        buf[pos] = (byte) (value >>> 8);
+        buf[pos + 1] = (byte) value;
+        this.pos = pos + 2;
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(4);
+        final byte[] buf = this.buf;
+        final int pos = this.pos;
+        buf[pos] = (byte) (value >>> 24);
+        buf[pos + 1] = (byte) (value >>> 16);
+        buf[pos + 2] = (byte) (value >>> 8);
+        buf[pos + 3] = (byte) value;
+        this.pos = pos + 4;
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(8);
+        final byte[] buf = this.buf;
+        final int pos = this.pos;
+        buf[pos] = (byte) (value >>> 56);
+        buf[pos + 1] = (byte) (value >>> 48);
+        buf[pos + 2] = (byte) (value >>> 40);
+        buf[pos + 3] = (byte) (value >>> 32);
+        buf[pos + 4] = (byte) (value >>> 24);
+        buf[pos + 5] = (byte) (value >>> 16);
+        buf[pos + 6] = (byte) (value >>> 8);
+        buf[pos + 7] = (byte) value;
+        this.pos = pos + 8;
+    }
+
+    void writeFloat(float value) throws IOException {
+        writeInt(Float.floatToIntBits(value));
+    }
+
+    void writeDouble(double value) throws IOException {
+        writeLong(Double.doubleToLongBits(value));
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a string which is encoded in the
+     * modified UTF-8 format, see {@link java.io.DataOutput#writeUTF(String)}.
+     *
+     * @param value The string
+     * @throws IOException If an io exception occurs
+     */
+    void writeUTF(String value) throws IOException {
+        final int maximumLength = value.length() * ModifiedUtf8.MAXIMUM_BYTES_PER_CHAR + 2;
+        if (maximumLength <= this.buf.length) {
+            // Encode straight into the buffer and fill in the length
+            // afterwards, this way the string is only visited once
+            ensure(maximumLength);
+            final int start = this.pos + 2;
+            writeUTFLength(ModifiedUtf8.encode(value, this.buf, start) - start);
+            return;
+        }
+        final int length = ModifiedUtf8.encodedLength(value);
+        checkUTFLength(length);
+        writeShort(length);
+        if (length <= this.buf.length) {
+            ensure(length);
+            this.pos = ModifiedUtf8.encode(value, this.buf, this.pos);
+        } else {
+            // Too large for the buffer
+            final byte[] bytes = new byte[length];
+            ModifiedUtf8.encode(value, bytes, 0);
+            write(bytes);
+        }
+    }
+
+    /**
+     * Writes the chars as a string which is encoded
+     * in the modified UTF-8 format.
+     *
+     * @param chars The chars
+     * @throws IOException If an io exception occurs
+     */
+    void writeUTF(char[] chars) throws IOException {
+        final int maximumLength = chars.length * ModifiedUtf8.MAXIMUM_BYTES_PER_CHAR + 2;
+        if (maximumLength <= this.buf.length) {
+            ensure(maximumLength);
+            final int start = this.pos + 2;
+            writeUTFLength(ModifiedUtf8.encode(chars, this.buf, start) - start);
+        } else {
+            writeUTF(new String(chars));
+        }
+    }
+
+    /**
+     * Writes the char as a string which is encoded
+     * in the modified UTF-8 format.
+     *
+     * @param value The char
+     * @throws IOException If an io exception occurs
+     */
+    void writeUTF(char value) throws IOException {
+        ensure(ModifiedUtf8.MAXIMUM_BYTES_PER_CHAR + 2);
+        final int start = this.pos + 2;
+        writeUTFLength(ModifiedUtf8.encode(value, this.buf, start) - start);
+    }
+
+    /**
+     * Writes the length in front of a string that was
+     * encoded directly after the current position.
+     */
+    private void writeUTFLength(int length) throws UTFDataFormatException {
+        checkUTFLength(length);
+        final int pos = this.pos;
+        this.buf[pos] = (byte) (length >>> 8);
+        this.buf[pos + 1] = (byte) length;
+        this.pos = pos + 2 + length;
+    }
+
+    private static void checkUTFLength(int length) throws UTFDataFormatException {
+        if (length > ModifiedUtf8.MAXIMUM_LENGTH) {
+            throw new UTFDataFormatException("encoded string too long: " + length + " bytes");
+        }
+    }
+
+    void write(byte[] bytes) throws IOException {
+        if (bytes.length <= this.buf.length) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, this.buf, this.pos, bytes.length);
+            this.pos += bytes.length;
+        } else {
+            // Write large arrays directly to the stream
+            flushBuffer();
+            this.os.write(bytes);
+        }
+    }
+
+    /**
+     * Gets a big-endian view of the free space in the buffer for
+     * the next {@code count} elements of the given size, the amount
+     * of elements may be limited by the buffer size.
+     *
+     * @param count The amount of elements
+     * @param elementSize The size of a single element in bytes
+     * @return The view
+     * @throws IOException If an io exception occurs
+     */
+    private ByteBuffer view(int count, int elementSize) throws IOException {
+        int fitting = (this.buf.length - this.pos) / elementSize;
+        if (fitting == 0) {
+            flushBuffer();
+            fitting = this.buf.length / elementSize;
+        }
+        final int length = Math.min(count, fitting) * elementSize;
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        byteBuffer.limit(this.pos + length);
+        byteBuffer.position(this.pos);
+        this.pos += length;
+        return byteBuffer;
+    }
+
+    /**
+     * Writes all the {@code short}s of the given array.
+     *
+     * @param array The array
+     * @throws IOException If an io exception occurs
+     */
+    void writeShorts(short[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 2);
+            final int count = view.remaining() / 2;
+            view.asShortBuffer().put(array, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Writes all the {@code int}s of the given array.
+     *
+     * @param array The array
+     * @throws IOException If an io exception occurs
+     */
+    void writeInts(int[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 4);
+            final int count = view.remaining() / 4;
+            view.asIntBuffer().put(array, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Writes all the {@code long}s of the given array.
+     *
+     * @param array The array
+     * @throws IOException If an io exception occurs
+     */
+    void writeLongs(long[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 8);
+            final int count = view.remaining() / 8;
+            view.asLongBuffer().put(array, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Writes all the {@code float}s of the given array.
+     *
+     * @param array The array
+     * @throws IOException If an io exception occurs
+     */
+    void writeFloats(float[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 4);
+            final int count = view.remaining() / 4;
+            view.asFloatBuffer().put(array, offset, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Writes all the {@code double}s of the given array.
+     *
+     * @param array The array
+     * @throws IOException If an io exception occurs
+     */
+    void writeDoubles(double[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 8);
+            final int count = view.remaining() / 8;
+            view.asDoubleBuffer().put(array, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        this.os.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            this.os.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a set of paths within a compound that should be read, all
+ * the other data will be skipped without being decoded. A path consists
+ * of the names of the entries separated by dots, {@code [*]} selects all
+ * the elements of a list. For example:
+ * <pre>{@code
+ * NbtProjection.of("Level.Sections[*].BlockStates", "Level.xPos")
+ * }</pre>
+ * results in the compound with the {@code xPos} entry and the
+ * {@code Sections} list of which every compound only contains the
+ * {@code BlockStates} entry. Everything below a selected entry is read,
+ * paths that don't match the data are ignored.
+ *
+ * <p>A projection can be reused for any amount of reads.</p>
+ */
+public final class NbtProjection {
+
+    /**
+     * Creates a new {@link NbtProjection} for the given paths.
+     *
+     * @param paths The paths
+     * @return The projection
+     */
+    public static NbtProjection of(String... paths) {
+        return of(Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a new {@link NbtProjection} for the given paths.
+     *
+     * @param paths The paths
+     * @return The projection
+     */
+    public static NbtProjection of(Collection<String> paths) {
+        final Node root = new Node();
+        for (String path : paths) {
+            parse(root, requireNonNull(path, "path"));
+        }
+        return new NbtProjection(root);
+    }
+
+    private static void parse(Node root, String path) {
+        Node node = root;
+        for (String segment : path.split("\\.", -1)) {
+            int index = segment.indexOf('[');
+            final String name = index == -1 ? segment : segment.substring(0, index);
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Invalid path, missing a entry name: " + path);
+            }
+            node = node.child(name);
+            while (index != -1) {
+                if (!segment.startsWith("[*]", index)) {
+                    throw new IllegalArgumentException("Invalid path, only [*] is supported for lists: " + path);
+                }
+                node = node.elements();
+                index += 3;
+                if (index == segment.length()) {
+                    break;
+                } else if (segment.charAt(index) != '[') {
+                    throw new IllegalArgumentException("Invalid path: " + path);
+                }
+            }
+        }
+        node.all = true;
+    }
+
+    final Node root;
+
+    private NbtProjection(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * A node of the projection tree.
+     */
+    static final class Node {
+
+        /**
+         * Whether everything below this node should be read.
+         */
+        boolean all;
+
+        /**
+         * The projection of the entries, if this node is a compound.
+         */
+        @Nullable private Map<String, Node> children;
+
+        /**
+         * The projection of the elements, if this node is a list.
+         */
+        @Nullable Node elements;
+
+        /**
+         * Gets the child {@link Node} for the entry with the given
+         * name, or {@code null} if the entry should be skipped.
+         *
+         * @param name The name of the entry
+         * @return The child node
+         */
+        @Nullable
+        Node getChild(String name) {
+            return this.children == null ? null : this.children.get(name);
+        }
+
+        private Node child(String name) {
+            if (this.children == null) {
+                this.children = new HashMap<>();
+            }
+            return this.children.computeIfAbsent(name, key -> new Node());
+        }
+
+        private Node elements() {
+            if (this.elements == null) {
+                this.elements = new Node();
+            }
+            return this.elements;
+        }
+    }
+}
@@ -0,0 +1,648 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.BooleanArrayTag;
+import org.lanternpowered.nbt.BooleanTag;
+import org.lanternpowered.nbt.ByteArrayTag;
+import org.lanternpowered.nbt.ByteTag;
+import org.lanternpowered.nbt.CharArrayTag;
+import org.lanternpowered.nbt.CharTag;
+import org.lanternpowered.nbt.DoubleArrayTag;
+import org.lanternpowered.nbt.DoubleTag;
+import org.lanternpowered.nbt.FloatArrayTag;
+import org.lanternpowered.nbt.FloatTag;
+import org.lanternpowered.nbt.IntArrayTag;
+import org.lanternpowered.nbt.IntTag;
+import org.lanternpowered.nbt.LongArrayTag;
+import org.lanternpowered.nbt.LongTag;
+import org.lanternpowered.nbt.ShortArrayTag;
+import org.lanternpowered.nbt.ShortTag;
+import org.lanternpowered.nbt.StringArrayTag;
+import org.lanternpowered.nbt.StringTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A pull based reader that moves a cursor over the contents of a NBT
+ * document, without building the {@link Tag} tree. Every call to
+ * {@link #next()} moves the cursor to the next {@link Token}.
+ *
+ * <p>For example, the document {@code {a: 1, b: [2, 3]}} results in
+ * the tokens: {@link Token#ENTRY} (the root), {@link Token#COMPOUND_START},
+ * {@link Token#ENTRY} (a), {@link Token#VALUE}, {@link Token#ENTRY} (b),
+ * {@link Token#LIST_START}, {@link Token#VALUE}, {@link Token#VALUE},
+ * {@link Token#LIST_END}, {@link Token#COMPOUND_END} and
+ * {@link Token#END_DOCUMENT}.</p>
+ *
+ * <p>Compounds and lists are the only containers that are visited
+ * by the cursor, all the other types, including the extended compound
+ * array and map types, are a single {@link Token#VALUE}. Values that
+ * aren't read when the cursor moves on will be skipped.</p>
+ */
+public final class NbtReader implements Closeable {
+
+    /**
+     * Represents the tokens of a NBT document.
+     */
+    public enum Token {
+        /**
+         * The header of a named entry in a compound or the root entry,
+         * the name is available through {@link #getName()} and the type
+         * through {@link #getType()}. The value of the entry will follow.
+         */
+        ENTRY,
+        /**
+         * A value that isn't a compound or a list, the type is
+         * available through {@link #getType()} and the value
+         * through one of the typed getters.
+         */
+        VALUE,
+        /**
+         * The start of a compound.
+         */
+        COMPOUND_START,
+        /**
+         * The end of a compound.
+         */
+        COMPOUND_END,
+        /**
+         * The start of a list, the element type is available through
+         * {@link #getType()} and the size through {@link #getSize()}.
+         */
+        LIST_START,
+        /**
+         * The end of a list.
+         */
+        LIST_END,
+        /**
+         * The end of the root value, the next call to {@link #next()}
+         * will attempt to read the next document.
+         */
+        END_DOCUMENT,
+    }
+
+    private final NbtInput input;
+    private final NbtDecoder decoder;
+    private final int maximumDepth;
+    private final ValueCapture capture = new ValueCapture();
+
+    // The stack of the containers the cursor is in, a null
+    // element type represents a compound
+    private NbtType[] elementTypes = new NbtType[16];
+    // The remaining elements of a list or -1 for a
+    // compound, if no entries were read yet
+    private int[] remaining = new int[16];
+    private int depth;
+
+    @Nullable private Token token;
+    @Nullable private String name;
+    @Nullable private NbtType type;
+    @Nullable private NbtType listType;
+    private int size;
+
+    // Whether the value at the cursor isn't consumed yet, this
+    // is the case for the ENTRY and unread VALUE tokens
+    private boolean pending;
+    // Whether the value at the cursor was read into the capture
+    private boolean captured;
+
+    /**
+     * Constructs a new {@link NbtReader}.
+     *
+     * @param inputStream The input stream
+     */
+    public NbtReader(InputStream inputStream) {
+        this(inputStream, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@link NbtReader}.
+     *
+     * @param inputStream The input stream
+     * @param maximumDepth The maximum depth of the data contains
+     */
+    public NbtReader(InputStream inputStream, int maximumDepth) {
+        this(inputStream, maximumDepth, NbtTagInputStream.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link NbtReader}.
+     *
+     * @param inputStream The input stream
+     * @param maximumDepth The maximum depth of the data contains
+     * @param bufferSize The size of the internal buffer
+     */
+    public NbtReader(InputStream inputStream, int maximumDepth, int bufferSize) {
+        this(new StreamNbtInput(requireNonNull(inputStream, "inputStream"), bufferSize), maximumDepth);
+    }
+
+    /**
+     * Constructs a new {@link NbtReader}. The position of the
+     * buffer will be moved to the end of every document that
+     * is completely read.
+     *
+     * @param byteBuffer The byte buffer
+     */
+    public NbtReader(ByteBuffer byteBuffer) {
+        this(byteBuffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@link NbtReader}. The position of the
+     * buffer will be moved to the end of every document that
+     * is completely read.
+     *
+     * @param byteBuffer The byte buffer
+     * @param maximumDepth The maximum depth of the data contains
+     */
+    public NbtReader(ByteBuffer byteBuffer, int maximumDepth) {
+        this(new BufferNbtInput(requireNonNull(byteBuffer, "byteBuffer")), maximumDepth);
+    }
+
+    private NbtReader(NbtInput input, int maximumDepth) {
+        this.input = input;
+        this.maximumDepth = maximumDepth;
+        this.decoder = new NbtDecoder(input, maximumDepth);
+    }
+
+    /**
+     * Moves the cursor to the next {@link Token}.
+     *
+     * @return The token
+     * @throws IOException If an io exception occurs
+     */
+    public Token next() throws IOException {
+        if (this.pending) {
+            if (this.token == Token.ENTRY) {
+                return this.token = startValue(this.type, this.listType);
+            }
+            skipPendingValue();
+        }
+        if (this.depth == 0) {
+            if (this.token == null || this.token == Token.END_DOCUMENT) {
+                final NbtDecoder.Entry entry = this.decoder.readEntry();
+                if (entry == null) {
+                    throw new IOException("There is no more data to read.");
+                }
+                return enterEntry(entry);
+            }
+            if (this.input instanceof BufferNbtInput) {
+                ((BufferNbtInput) this.input).syncPosition();
+            }
+            return this.token = Token.END_DOCUMENT;
+        }
+        final int index = this.depth - 1;
+        final NbtType elementType = this.elementTypes[index];
+        if (elementType == null) {
+            final NbtDecoder.Entry entry = this.decoder.readEntry();
+            if (entry == null) {
+                this.depth--;
+                return this.token = Token.COMPOUND_END;
+            }
+            this.remaining[index] = 0;
+            return enterEntry(entry);
+        }
+        if (this.remaining[index] == 0) {
+            this.depth--;
+            return this.token = Token.LIST_END;
+        }
+        this.remaining[index]--;
+        return this.token = startValue(elementType, null);
+    }
+
+    private Token enterEntry(NbtDecoder.Entry entry) {
+        this.name = entry.name;
+        this.type = entry.type;
+        this.listType = entry.listType;
+        this.pending = true;
+        this.captured = false;
+        return this.token = Token.ENTRY;
+    }
+
+    private Token startValue(NbtType type, @Nullable NbtType listType) throws IOException {
+        this.type = type;
+        if (type == NbtType.COMPOUND) {
+            this.pending = false;
+            push(null, -1);
+            return Token.COMPOUND_START;
+        } else if (type == NbtType.LIST) {
+            this.pending = false;
+            final byte elementType = this.input.readByte();
+            if (listType == null) {
+                listType = elementType < 0 || elementType >= NbtType.byIndex.length ? null : NbtType.byIndex[elementType];
+                if (listType == null) {
+                    throw new IOException("Unknown NBT Type with id: " + elementType);
+                }
+            }
+            int size = this.input.readInt();
+            if (listType == NbtType.END) {
+                size = 0;
+            }
+            this.type = listType;
+            this.size = size;
+            push(listType, size);
+            return Token.LIST_START;
+        }
+        this.pending = true;
+        this.captured = false;
+        return Token.VALUE;
+    }
+
+    private void push(@Nullable NbtType elementType, int remaining) throws IOException {
+        if (this.depth > this.maximumDepth) {
+            throw new IOException("Attempted to read a data container with too high complexity,"
+                    + " exceeded the maximum depth of " + this.maximumDepth);
+        }
+        if (this.depth == this.elementTypes.length) {
+            this.elementTypes = Arrays.copyOf(this.elementTypes, this.depth * 2);
+            this.remaining = Arrays.copyOf(this.remaining, this.depth * 2);
+        }
+        this.elementTypes[this.depth] = elementType;
+        this.remaining[this.depth] = remaining;
+        this.depth++;
+    }
+
+    private void skipPendingValue() throws IOException {
+        this.decoder.skipPayload(this.type, this.listType, this.depth);
+        this.pending = false;
+    }
+
+    /**
+     * Skips the value at the cursor. When the cursor is at a
+     * {@link Token#ENTRY} or {@link Token#VALUE}, the value is skipped.
+     * When the cursor is at a {@link Token#COMPOUND_START} or
+     * {@link Token#LIST_START}, the rest of the container is skipped,
+     * including the end token.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    public void skipValue() throws IOException {
+        if (this.pending) {
+            skipPendingValue();
+            this.listType = null;
+        } else if (this.token == Token.COMPOUND_START || this.token == Token.LIST_START) {
+            final int depth = this.depth;
+            while (this.depth >= depth) {
+                next();
+                if (this.pending) {
+                    skipPendingValue();
+                }
+            }
+        } else if (this.token != Token.VALUE) {
+            throw new IllegalStateException("There is no value to skip at " + this.token);
+        }
+    }
+
+    /**
+     * Gets the current {@link Token}.
+     *
+     * @return The token
+     */
+    @Nullable
+    public Token getToken() {
+        return this.token;
+    }
+
+    /**
+     * Gets the name of the last {@link Token#ENTRY}.
+     *
+     * @return The name
+     */
+    @Nullable
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the {@link NbtType} of the current entry or value, or
+     * the element type if the cursor is at a {@link Token#LIST_START}.
+     *
+     * @return The type
+     */
+    @Nullable
+    public NbtType getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the size of the list if the cursor is at a {@link Token#LIST_START}.
+     *
+     * @return The size
+     */
+    public int getSize() {
+        if (this.token != Token.LIST_START) {
+            throw new IllegalStateException("The cursor isn't at the start of a list.");
+        }
+        return this.size;
+    }
+
+    /**
+     * Gets the amount of containers the cursor is in.
+     *
+     * @return The depth
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    private ValueCapture capture(NbtType expectedType) throws IOException {
+        if (this.token != Token.VALUE) {
+            throw new IllegalStateException("The cursor isn't at a value.");
+        }
+        if (expectedType != this.type) {
+            throw new IllegalStateException("Expected a value of type " + expectedType + ", but found " + this.type);
+        }
+        return capture();
+    }
+
+    private ValueCapture capture() throws IOException {
+        if (!this.captured) {
+            if (!this.pending) {
+                throw new IllegalStateException("The value was skipped.");
+            }
+            final NbtType type = this.type;
+            if (type == NbtType.COMPOUND_ARRAY || type == NbtType.MAP || type == NbtType.MAP_ARRAY) {
+                final TagTreeBuilder builder = new TagTreeBuilder();
+                this.decoder.readPayload(builder, type, null, this.depth);
+                this.capture.objectValue = builder.result();
+            } else {
+                this.decoder.readPayload(this.capture, type, null, this.depth);
+            }
+            this.pending = false;
+            this.captured = true;
+        }
+        return this.capture;
+    }
+
+    public boolean getBoolean() throws IOException {
+        return capture(NbtType.BOOLEAN).longValue != 0;
+    }
+
+    public byte getByte() throws IOException {
+        return (byte) capture(NbtType.BYTE).longValue;
+    }
+
+    public short getShort() throws IOException {
+        return (short) capture(NbtType.SHORT).longValue;
+    }
+
+    public char getChar() throws IOException {
+        return (char) capture(NbtType.CHAR).longValue;
+    }
+
+    public int getInt() throws IOException {
+        return (int) capture(NbtType.INT).longValue;
+    }
+
+    public long getLong() throws IOException {
+        return capture(NbtType.LONG).longValue;
+    }
+
+    public float getFloat() throws IOException {
+        return (float) capture(NbtType.FLOAT).doubleValue;
+    }
+
+    public double getDouble() throws IOException {
+        return capture(NbtType.DOUBLE).doubleValue;
+    }
+
+    public String getString() throws IOException {
+        return (String) capture(NbtType.STRING).objectValue;
+    }
+
+    public boolean[] getBooleanArray() throws IOException {
+        return (boolean[]) capture(NbtType.BOOLEAN_ARRAY).objectValue;
+    }
+
+    public byte[] getByteArray() throws IOException {
+        return (byte[]) capture(NbtType.BYTE_ARRAY).objectValue;
+    }
+
+    public short[] getShortArray() throws IOException {
+        return (short[]) capture(NbtType.SHORT_ARRAY).objectValue;
+    }
+
+    public char[] getCharArray() throws IOException {
+        return (char[]) capture(NbtType.CHAR_ARRAY).objectValue;
+    }
+
+    public int[] getIntArray() throws IOException {
+        return (int[]) capture(NbtType.INT_ARRAY).objectValue;
+    }
+
+    public long[] getLongArray() throws IOException {
+        return (long[]) capture(NbtType.LONG_ARRAY).objectValue;
+    }
+
+    public float[] getFloatArray() throws IOException {
+        return (float[]) capture(NbtType.FLOAT_ARRAY).objectValue;
+    }
+
+    public double[] getDoubleArray() throws IOException {
+        return (double[]) capture(NbtType.DOUBLE_ARRAY).objectValue;
+    }
+
+    public String[] getStringArray() throws IOException {
+        return (String[]) capture(NbtType.STRING_ARRAY).objectValue;
+    }
+
+    /**
+     * Reads the value at the cursor as a {@link Tag}. When the cursor
+     * is at a {@link Token#ENTRY}, the complete value of the entry is
+     * read, including compounds and lists, the next token will be the
+     * one after the value.
+     *
+     * @return The tag
+     * @throws IOException If an io exception occurs
+     */
+    public Tag<?> readTag() throws IOException {
+        if (this.token == Token.ENTRY && this.pending) {
+            final TagTreeBuilder builder = new TagTreeBuilder();
+            this.decoder.readPayload(builder, this.type, this.listType, this.depth);
+            this.pending = false;
+            this.listType = null;
+            return builder.result();
+        } else if (this.token != Token.VALUE) {
+            throw new IllegalStateException("The cursor isn't at an entry or value.");
+        }
+        final ValueCapture capture = capture();
+        switch (this.type) {
+            case BOOLEAN:
+                return new BooleanTag(capture.longValue != 0);
+            case BYTE:
+                return new ByteTag((byte) capture.longValue);
+            case SHORT:
+                return new ShortTag((short) capture.longValue);
+            case CHAR:
+                return new CharTag((char) capture.longValue);
+            case INT:
+                return new IntTag((int) capture.longValue);
+            case LONG:
+                return new LongTag(capture.longValue);
+            case FLOAT:
+                return new FloatTag((float) capture.doubleValue);
+            case DOUBLE:
+                return new DoubleTag(capture.doubleValue);
+            case STRING:
+                return new StringTag((String) capture.objectValue);
+            case BOOLEAN_ARRAY:
+                return new BooleanArrayTag((boolean[]) capture.objectValue);
+            case BYTE_ARRAY:
+                return new ByteArrayTag((byte[]) capture.objectValue);
+            case SHORT_ARRAY:
+                return new ShortArrayTag((short[]) capture.objectValue);
+            case CHAR_ARRAY:
+                return new CharArrayTag((char[]) capture.objectValue);
+            case INT_ARRAY:
+                return new IntArrayTag((int[]) capture.objectValue);
+            case LONG_ARRAY:
+                return new LongArrayTag((long[]) capture.objectValue);
+            case FLOAT_ARRAY:
+                return new FloatArrayTag((float[]) capture.objectValue);
+            case DOUBLE_ARRAY:
+                return new DoubleArrayTag((double[]) capture.objectValue);
+            case STRING_ARRAY:
+                return new StringArrayTag((String[]) capture.objectValue);
+            default:
+                // Compound arrays, maps and map arrays
+                return (Tag<?>) capture.objectValue;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    /**
+     * A visitor that captures a single value.
+     */
+    private static final class ValueCapture implements TagVisitor {
+
+        long longValue;
+        double doubleValue;
+        @Nullable Object objectValue;
+
+        @Override
+        public void visitBoolean(boolean value) {
+            this.longValue = value ? 1 : 0;
+        }
+
+        @Override
+        public void visitByte(byte value) {
+            this.longValue = value;
+        }
+
+        @Override
+        public void visitShort(short value) {
+            this.longValue = value;
+        }
+
+        @Override
+        public void visitChar(char value) {
+            this.longValue = value;
+        }
+
+        @Override
+        public void visitInt(int value) {
+            this.longValue = value;
+        }
+
+        @Override
+        public void visitLong(long value) {
+            this.longValue = value;
+        }
+
+        @Override
+        public void visitFloat(float value) {
+            this.doubleValue = value;
+        }
+
+        @Override
+        public void visitDouble(double value) {
+            this.doubleValue = value;
+        }
+
+        @Override
+        public void visitString(String value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitBooleanArray(boolean[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitByteArray(byte[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitShortArray(short[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitCharArray(char[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitIntArray(int[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitLongArray(long[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitFloatArray(float[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitDoubleArray(double[] value) {
+            this.objectValue = value;
+        }
+
+        @Override
+        public void visitStringArray(String[] value) {
+            this.objectValue = value;
+        }
+    }
+}
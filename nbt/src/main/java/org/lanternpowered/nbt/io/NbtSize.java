@@ -0,0 +1,220 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.BooleanArrayTag;
+import org.lanternpowered.nbt.ByteArrayTag;
+import org.lanternpowered.nbt.CharArrayTag;
+import org.lanternpowered.nbt.CharTag;
+import org.lanternpowered.nbt.CompoundArrayTag;
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.DoubleArrayTag;
+import org.lanternpowered.nbt.FloatArrayTag;
+import org.lanternpowered.nbt.IntArrayTag;
+import org.lanternpowered.nbt.ListTag;
+import org.lanternpowered.nbt.LongArrayTag;
+import org.lanternpowered.nbt.MapArrayTag;
+import org.lanternpowered.nbt.MapTag;
+import org.lanternpowered.nbt.ShortArrayTag;
+import org.lanternpowered.nbt.StringArrayTag;
+import org.lanternpowered.nbt.StringTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.util.Map;
+
+/**
+ * Computes the amount of bytes that {@link Tag}s occupy when
+ * they are written by a {@link NbtTagOutputStream} or a
+ * {@link NbtWriter}, without encoding them.
+ *
+ * <p>This can be used to allocate buffers of the exact
+ * size up front, or to prefix data with its length.</p>
+ */
+@SuppressWarnings("unchecked")
+public final class NbtSize {
+
+    /**
+     * Gets the amount of bytes the {@link Tag} occupies when
+     * it's written as a root entry by a {@link NbtTagOutputStream}.
+     *
+     * @param tag The tag
+     * @return The size in bytes
+     * @throws IllegalArgumentException If the tag or one of its children isn't supported
+     */
+    public static long sizeOf(Tag<?> tag) {
+        return sizeOf("", tag);
+    }
+
+    /**
+     * Gets the amount of bytes the {@link Tag} occupies when it's
+     * written as a entry with the given name, including the header.
+     *
+     * @param name The name of the entry
+     * @param tag The tag
+     * @return The size in bytes
+     * @throws IllegalArgumentException If the tag or one of its children isn't supported
+     */
+    public static long sizeOf(String name, Tag<?> tag) {
+        requireNonNull(name, "name");
+        requireNonNull(tag, "tag");
+        return sizeOfEntry(name, tag);
+    }
+
+    private static long sizeOfEntry(String key, Tag<?> tag) {
+        NbtType nbtType = typeOf(tag);
+        if (nbtType == NbtType.LIST) {
+            final ListTag<?> listTag = (ListTag<?>) tag;
+            nbtType = elementTypeOf(listTag);
+            // Type, key, element type and size
+            return 1 + sizeOfKey(key, nbtType.suffix == null ? 0 : 6 + nbtType.suffix.length()) + sizeOfList(nbtType, listTag);
+        }
+        return 1 + sizeOfKey(key, nbtType.suffix == null ? 0 : 1 + nbtType.suffix.length()) + sizeOfPayload(nbtType, tag);
+    }
+
+    private static int sizeOfKey(String key, int suffixLength) {
+        // The suffixes are always ASCII, so one byte per char
+        return 2 + ModifiedUtf8.encodedLength(key) + suffixLength;
+    }
+
+    private static long sizeOfPayload(NbtType nbtType, Tag<?> tag) {
+        switch (nbtType) {
+            case BYTE:
+            case BOOLEAN:
+                return 1;
+            case SHORT:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            case BYTE_ARRAY:
+                return 4 + ((ByteArrayTag) tag).length();
+            case SHORT_ARRAY:
+                return 1 + 4 + 2L * ((ShortArrayTag) tag).length();
+            case CHAR:
+                return 2 + ModifiedUtf8.encodedLength(((CharTag) tag).charValue());
+            case CHAR_ARRAY:
+                return 2 + ModifiedUtf8.encodedLength(((CharArrayTag) tag).readOnlyArray());
+            case INT_ARRAY:
+                return 4 + 4L * ((IntArrayTag) tag).length();
+            case LONG_ARRAY:
+                return 4 + 8L * ((LongArrayTag) tag).length();
+            case FLOAT_ARRAY:
+                return 1 + 4 + 4L * ((FloatArrayTag) tag).length();
+            case DOUBLE_ARRAY:
+                return 1 + 4 + 8L * ((DoubleArrayTag) tag).length();
+            case STRING:
+                return 2 + ModifiedUtf8.encodedLength(((StringTag) tag).get());
+            case STRING_ARRAY: {
+                long size = 1 + 4;
+                for (String value : ((StringArrayTag) tag).readOnlyArray()) {
+                    size += 2 + ModifiedUtf8.encodedLength(value);
+                }
+                return size;
+            }
+            case BOOLEAN_ARRAY:
+                // Length, amount of booleans and the booleans packed as bits
+                return 4 + 2 + (((BooleanArrayTag) tag).length() + 7) / 8;
+            case LIST: {
+                final ListTag<?> listTag = (ListTag<?>) tag;
+                return sizeOfList(elementTypeOf(listTag), listTag);
+            }
+            case COMPOUND:
+                return sizeOfCompound((CompoundTag) tag);
+            case COMPOUND_ARRAY: {
+                long size = 1 + 4;
+                for (CompoundTag compoundTag : ((CompoundArrayTag) tag).readOnlyArray()) {
+                    size += sizeOfCompound(compoundTag);
+                }
+                return size;
+            }
+            case MAP:
+                return sizeOfMap((MapTag) tag);
+            case MAP_ARRAY: {
+                long size = 1 + 4;
+                for (MapTag mapTag : ((MapArrayTag) tag).readOnlyArray()) {
+                    size += sizeOfMap(mapTag);
+                }
+                return size;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported tag type: " + tag.getClass().getName());
+        }
+    }
+
+    private static long sizeOfCompound(CompoundTag tag) {
+        // Iterated through forEach, iterating the entry set
+        // would allocate the entries of compact compounds
+        final long[] size = { 1 }; // End
+        tag.forEach((key, value) -> size[0] += sizeOfEntry(key, value));
+        return size[0];
+    }
+
+    private static long sizeOfMap(MapTag tag) {
+        long size = 1 + 4;
+        for (Map.Entry<Tag, Tag> entry : ((Map<Tag, Tag>) tag).entrySet()) {
+            size += sizeOfEntry(NbtType.mapKeyName, entry.getKey());
+            size += sizeOfEntry(NbtType.mapValueName, entry.getValue());
+            size++; // End
+        }
+        return size;
+    }
+
+    private static long sizeOfList(NbtType elementType, ListTag<?> listTag) {
+        // Element type and size
+        long size = 1 + 4;
+        final int elementSize = NbtDecoder.fixedPayloadSize(elementType.type);
+        if (elementSize != -1) {
+            return size + (long) elementSize * listTag.size();
+        }
+        for (Tag<?> element : listTag) {
+            size += sizeOfPayload(elementType, element);
+        }
+        return size;
+    }
+
+    private static NbtType elementTypeOf(ListTag<?> listTag) {
+        final NbtType nbtType = NbtType.elementTypeOf(listTag);
+        if (nbtType == null) {
+            throw new IllegalArgumentException("Unsupported tag type: " + listTag.get(0).getClass().getName());
+        }
+        return nbtType;
+    }
+
+    private static NbtType typeOf(Tag<?> tag) {
+        final NbtType nbtType = NbtType.byClass(tag.getClass());
+        if (nbtType == null) {
+            throw new IllegalArgumentException("Unsupported tag type: " + tag.getClass().getName());
+        }
+        return nbtType;
+    }
+
+    private NbtSize() {
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A input stream to read NBT {@link Tag}s directly from a {@link ByteBuffer},
+ * both heap and direct buffers are supported. Reading starts at the current
+ * position of the buffer and the position will be moved to the end of each
+ * {@link Tag} that was read. The byte order of the buffer is ignored, NBT
+ * data is always big-endian.
+ */
+public final class NbtTagBufferInputStream implements TagInputStream {
+
+    private final BufferNbtInput input;
+    private final NbtDecoder decoder;
+    private final int maximumDepth;
+    private final KeyInterner keyInterner;
+
+    /**
+     * Constructs a new {@link NbtTagBufferInputStream}.
+     *
+     * @param bytes The byte array
+     */
+    public NbtTagBufferInputStream(byte[] bytes) {
+        this(ByteBuffer.wrap(requireNonNull(bytes, "bytes")));
+    }
+
+    /**
+     * Constructs a new {@link NbtTagBufferInputStream}.
+     *
+     * @param byteBuffer The byte buffer
+     */
+    public NbtTagBufferInputStream(ByteBuffer byteBuffer) {
+        this(byteBuffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@link NbtTagBufferInputStream}.
+     *
+     * @param byteBuffer The byte buffer
+     * @param maximumDepth The maximum depth of the data contains
+     */
+    public NbtTagBufferInputStream(ByteBuffer byteBuffer, int maximumDepth) {
+        this(byteBuffer, maximumDepth, KeyInterner.shared());
+    }
+
+    /**
+     * Constructs a new {@link NbtTagBufferInputStream}.
+     *
+     * @param byteBuffer The byte buffer
+     * @param maximumDepth The maximum depth of the data contains
+     * @param keyInterner The key interner that resolves the keys of entries
+     */
+    public NbtTagBufferInputStream(ByteBuffer byteBuffer, int maximumDepth, KeyInterner keyInterner) {
+        this.input = new BufferNbtInput(requireNonNull(byteBuffer, "byteBuffer"));
+        this.decoder = new NbtDecoder(this.input, maximumDepth, requireNonNull(keyInterner, "keyInterner"));
+        this.maximumDepth = maximumDepth;
+        this.keyInterner = keyInterner;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public Tag<?> read() throws IOException {
+        final TagTreeBuilder builder = new TagTreeBuilder();
+        this.decoder.read(builder);
+        this.input.syncPosition();
+        return builder.result();
+    }
+
+    /**
+     * Reads the next {@link CompoundTag}, but only the data that is selected
+     * by the given {@link NbtProjection}. All the other data is skipped
+     * without being decoded.
+     *
+     * @param projection The projection
+     * @return The projected compound tag
+     * @throws IOException If an io exception occurs or if the root tag isn't a compound
+     */
+    public CompoundTag read(NbtProjection projection) throws IOException {
+        requireNonNull(projection, "projection");
+        final TagTreeBuilder builder = new TagTreeBuilder();
+        this.decoder.read(builder, projection);
+        this.input.syncPosition();
+        return (CompoundTag) builder.result();
+    }
+
+    /**
+     * Reads the next {@link CompoundTag} lazily. Only the names and offsets
+     * of the entries are read, the values will be decoded from the buffer
+     * when they are accessed for the first time. This is useful when only
+     * a few entries of large compounds are needed, for example of memory
+     * mapped files.
+     *
+     * <p>The contents of the buffer may not be modified as long as
+     * the returned compound is in use. The returned compound isn't
+     * thread safe, not even for reads.</p>
+     *
+     * @return The compound tag
+     * @throws IOException If an io exception occurs or if the root tag isn't a compound
+     */
+    public CompoundTag readLazy() throws IOException {
+        final NbtDecoder.Entry entry = this.decoder.readEntry();
+        if (entry == null) {
+            throw new IOException("There is no more data to read.");
+        }
+        if (entry.type != NbtType.COMPOUND) {
+            throw new IOException("Only compound tags can be read lazily, but found: " + entry.type);
+        }
+        final BufferNbtInput input = this.input.duplicate();
+        final CompoundTag compoundTag = LazyCompoundTag.read(input, new NbtDecoder(input, this.maximumDepth, this.keyInterner), 0);
+        this.input.index(input.index());
+        this.input.syncPosition();
+        return compoundTag;
+    }
+}
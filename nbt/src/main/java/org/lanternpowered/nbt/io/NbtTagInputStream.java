@@ -26,29 +26,7 @@
 
 import static java.util.Objects.requireNonNull;
 
-import org.lanternpowered.nbt.BooleanArrayTag;
-import org.lanternpowered.nbt.BooleanTag;
-import org.lanternpowered.nbt.ByteArrayTag;
-import org.lanternpowered.nbt.ByteTag;
-import org.lanternpowered.nbt.CharArrayTag;
-import org.lanternpowered.nbt.CharTag;
-import org.lanternpowered.nbt.CompoundArrayTag;
 import org.lanternpowered.nbt.CompoundTag;
-import org.lanternpowered.nbt.DoubleArrayTag;
-import org.lanternpowered.nbt.DoubleTag;
-import org.lanternpowered.nbt.FloatArrayTag;
-import org.lanternpowered.nbt.FloatTag;
-import org.lanternpowered.nbt.IntArrayTag;
-import org.lanternpowered.nbt.IntTag;
-import org.lanternpowered.nbt.ListTag;
-import org.lanternpowered.nbt.LongArrayTag;
-import org.lanternpowered.nbt.LongTag;
-import org.lanternpowered.nbt.MapArrayTag;
-import org.lanternpowered.nbt.MapTag;
-import org.lanternpowered.nbt.ShortArrayTag;
-import org.lanternpowered.nbt.ShortTag;
-import org.lanternpowered.nbt.StringArrayTag;
-import org.lanternpowered.nbt.StringTag;
 import org.lanternpowered.nbt.Tag;
 
 import java.io.DataInputStream;
@@ -57,18 +35,21 @@
 
 /**
  * A input stream to read NBT {@link Tag}s.
+ *
+ * <p>The input stream is buffered internally, wrapping the
+ * provided stream into a {@link java.io.BufferedInputStream}
+ * is not needed. Bytes may be read ahead from the provided
+ * stream, so it shouldn't be used after it was passed in.</p>
  */
 public final class NbtTagInputStream implements TagInputStream {
 
-    private static final short[] EMPTY_SHORT_ARRAY = new short[0];
-    private static final float[] EMPTY_FLOAT_ARRAY = new float[0];
-    private static final double[] EMPTY_DOUBLE_ARRAY = new double[0];
-    private static final String[] EMPTY_STRING_ARRAY = new String[0];
-    private static final CompoundTag[] EMPTY_COMPOUND_TAG_ARRAY = new CompoundTag[0];
-    private static final MapTag[] EMPTY_MAP_TAG_ARRAY = new MapTag[0];
+    /**
+     * The default size of the internal buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
 
-    private final DataInputStream dis;
-    private final int maximumDepth;
+    private final NbtInput input;
+    private final NbtDecoder decoder;
 
     /**
      * Constructs a new {@link NbtTagInputStream}.
@@ -86,8 +67,7 @@ public NbtTagInputStream(DataInputStream dataInputStream) {
      * @param maximumDepth The maximum depth of the data contains
      */
     public NbtTagInputStream(DataInputStream dataInputStream, int maximumDepth) {
-        this.dis = requireNonNull(dataInputStream, "dataInputStream");
-        this.maximumDepth = maximumDepth;
+        this(requireNonNull(dataInputStream, "dataInputStream"), maximumDepth, DEFAULT_BUFFER_SIZE);
     }
 
     /**
@@ -106,307 +86,58 @@ public NbtTagInputStream(InputStream inputStream) {
      * @param maximumDepth The maximum depth of the data contains
      */
     public NbtTagInputStream(InputStream inputStream, int maximumDepth) {
-        this(requireNonNull(inputStream, "inputStream") instanceof DataInputStream ?
-                (DataInputStream) inputStream : new DataInputStream(inputStream), maximumDepth);
-    }
-
-    @Override
-    public void close() throws IOException {
-        this.dis.close();
-    }
-
-    @Override
-    public Tag<?> read() throws IOException {
-        Entry entry = readEntry();
-        if (entry == null) {
-            throw new IOException("There is no more data to read.");
-        }
-        return readObject(entry, 0);
+        this(inputStream, maximumDepth, DEFAULT_BUFFER_SIZE);
     }
 
-    private Tag<?> readObject(Entry entry, int depth) throws IOException {
-        return readPayload(entry.type, entry.listType, depth);
-    }
-
-    private Entry readEntry() throws IOException {
-        final byte type = this.dis.readByte();
-        if (type == NbtType.END.type) {
-            return null;
-        }
-        String name = this.dis.readUTF();
-        int index = name.lastIndexOf('$');
-        NbtType nbtType = type < 0 || type >= NbtType.byIndex.length ? null : NbtType.byIndex[type];
-        if (nbtType == null) {
-            throw new IOException("Unknown NBT Type with id: " + type);
-        }
-        NbtType listNbtType = null;
-        if (index != -1) {
-            final String suffix = name.substring(index + 1);
-            name = name.substring(0, index);
-            final NbtType nbtType1 = NbtType.bySuffix.get(suffix);
-            if (nbtType1 != null) {
-                if (nbtType == NbtType.LIST) {
-                    index = name.lastIndexOf('$');
-                    if (index != -1) {
-                        final String li = name.substring(index + 1);
-                        if (li.equals("List")) {
-                            name = name.substring(0, index);
-                            listNbtType = nbtType1;
-                        }
-                    }
-                }
-                if (listNbtType == null) {
-                    nbtType = nbtType1;
-                }
-            }
-        }
-        return new Entry(name, nbtType, listNbtType);
+    /**
+     * Constructs a new {@link NbtTagInputStream}.
+     *
+     * @param inputStream The input stream
+     * @param maximumDepth The maximum depth of the data contains
+     * @param bufferSize The size of the internal buffer
+     */
+    public NbtTagInputStream(InputStream inputStream, int maximumDepth, int bufferSize) {
+        this(inputStream, maximumDepth, bufferSize, KeyInterner.shared());
     }
 
-    private CompoundTag readCompound(int depth) throws IOException {
-        final CompoundTag compoundTag = new CompoundTag();
-        final int depth1 = depth + 1;
-        Entry entry;
-        while ((entry = readEntry()) != null) {
-            compoundTag.put(entry.name, readObject(entry, depth1));
-        }
-        return compoundTag;
+    /**
+     * Constructs a new {@link NbtTagInputStream}.
+     *
+     * @param inputStream The input stream
+     * @param maximumDepth The maximum depth of the data contains
+     * @param bufferSize The size of the internal buffer
+     * @param keyInterner The key interner that resolves the keys of entries
+     */
+    public NbtTagInputStream(InputStream inputStream, int maximumDepth, int bufferSize, KeyInterner keyInterner) {
+        this.input = new StreamNbtInput(requireNonNull(inputStream, "inputStream"), bufferSize);
+        this.decoder = new NbtDecoder(this.input, maximumDepth, requireNonNull(keyInterner, "keyInterner"));
     }
 
-    @SuppressWarnings("unchecked")
-    private MapTag readMap(int depth) throws IOException {
-        final byte type = this.dis.readByte();
-        final int length = this.dis.readInt();
-
-        final MapTag mapTag = new MapTag();
-        if (type == NbtType.END.type) {
-            if (length != 0) {
-                throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-            }
-            return mapTag;
-        } else if (type != NbtType.COMPOUND.type) {
-            throw new IOException("Attempted to deserialize a Map (List) but the list type wasn't a compound.");
-        }
-        depth += 1;
-        for (int i = 0; i < length; i++) {
-            Tag<?> key = null;
-            Tag<?> value = null;
-            // Read a compound tag, we only need a K and V entry
-            Entry entry;
-            while ((entry = readEntry()) != null) {
-                final Tag<?> tag = readObject(entry, depth);
-                if (entry.name.equals(NbtType.mapKeyName)) {
-                    key = tag;
-                } else if (entry.name.equals(NbtType.mapValueName)) {
-                    value = tag;
-                }
-            }
-            if (key == null) {
-                throw new IOException("Map entry was missing a key entry.");
-            } else if (value == null) {
-                throw new IOException("Map entry was missing a value entry.");
-            }
-            mapTag.put(key, value);
-        }
-        return mapTag;
+    @Override
+    public void close() throws IOException {
+        this.input.close();
     }
 
-    @SuppressWarnings({"rawtypes", "unchecked"})
-    private Tag<?> readPayload(NbtType nbtType, NbtType listNbtType, int depth) throws IOException {
-        if (depth > this.maximumDepth) {
-            throw new IOException("Attempted to read a data container with too high complexity,"
-                    + " exceeded the maximum depth of " + this.maximumDepth);
-        }
-        switch (nbtType) {
-            case BYTE:
-                return new ByteTag(this.dis.readByte());
-            case BYTE_ARRAY:
-                final byte[] byteArray = new byte[this.dis.readInt()];
-                this.dis.readFully(byteArray);
-                return new ByteArrayTag(byteArray);
-            case SHORT:
-                return new ShortTag(this.dis.readShort());
-            case SHORT_ARRAY:
-                byte type = this.dis.readByte();
-                int length = this.dis.readInt();
-                if (type == NbtType.END.type) {
-                    if (length != 0) {
-                        throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-                    }
-                    return new ShortArrayTag(EMPTY_SHORT_ARRAY);
-                } else if (type != NbtType.SHORT.type) {
-                    throw new IOException("Attempted to deserialize a Short Array (List) but the list type wasn't a short.");
-                }
-                final short[] shortArray = new short[length];
-                for (int i = 0; i < shortArray.length; i++) {
-                    shortArray[i] = this.dis.readShort();
-                }
-                return new ShortArrayTag(shortArray);
-            case CHAR:
-                final String charString = this.dis.readUTF();
-                if (charString.length() != 1) {
-                    throw new IOException("The Char string must be one character.");
-                }
-                return new CharTag(charString.charAt(0));
-            case CHAR_ARRAY:
-                return new CharArrayTag(this.dis.readUTF().toCharArray());
-            case INT:
-                return new IntTag(this.dis.readInt());
-            case INT_ARRAY:
-                final int[] intArray = new int[this.dis.readInt()];
-                for (int i = 0; i < intArray.length; i++) {
-                    intArray[i] = this.dis.readInt();
-                }
-                return new IntArrayTag(intArray);
-            case LONG:
-                return new LongTag(this.dis.readLong());
-            case LONG_ARRAY:
-                final long[] longArray = new long[this.dis.readInt()];
-                for (int i = 0; i < longArray.length; i++) {
-                    longArray[i] = this.dis.readLong();
-                }
-                return new LongArrayTag(longArray);
-            case FLOAT:
-                return new FloatTag(this.dis.readFloat());
-            case FLOAT_ARRAY:
-                type = this.dis.readByte();
-                length = this.dis.readInt();
-                if (type == NbtType.END.type) {
-                    if (length != 0) {
-                        throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-                    }
-                    return new FloatArrayTag(EMPTY_FLOAT_ARRAY);
-                } else if (type != NbtType.FLOAT.type) {
-                    throw new IOException("Attempted to deserialize a Float Array (List) but the list type wasn't a float.");
-                }
-                final float[] floatArray = new float[length];
-                for (int i = 0; i < floatArray.length; i++) {
-                    floatArray[i] = this.dis.readFloat();
-                }
-                return new FloatArrayTag(floatArray);
-            case DOUBLE:
-                return new DoubleTag(this.dis.readDouble());
-            case DOUBLE_ARRAY:
-                type = this.dis.readByte();
-                length = this.dis.readInt();
-                if (type == NbtType.END.type) {
-                    if (length != 0) {
-                        throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-                    }
-                    return new DoubleArrayTag(EMPTY_DOUBLE_ARRAY);
-                } else if (type != NbtType.DOUBLE.type) {
-                    throw new IOException("Attempted to deserialize a Double Array (List) but the list type wasn't a double.");
-                }
-                final double[] doubleArray = new double[length];
-                for (int i = 0; i < doubleArray.length; i++) {
-                    doubleArray[i] = this.dis.readDouble();
-                }
-                return new DoubleArrayTag(doubleArray);
-            case STRING:
-                return new StringTag(this.dis.readUTF());
-            case STRING_ARRAY:
-                type = this.dis.readByte();
-                length = this.dis.readInt();
-                if (type == NbtType.END.type) {
-                    if (length != 0) {
-                        throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-                    }
-                    return new StringArrayTag(EMPTY_STRING_ARRAY);
-                } else if (type != NbtType.STRING.type) {
-                    throw new IOException("Attempted to deserialize a String Array (List) but the list type wasn't a string.");
-                }
-                final String[] stringArray = new String[length];
-                for (int i = 0; i < stringArray.length; i++) {
-                    stringArray[i] = this.dis.readUTF();
-                }
-                return new StringArrayTag(stringArray);
-            case BOOLEAN:
-                return new BooleanTag(this.dis.readBoolean());
-            case BOOLEAN_ARRAY:
-                int bitBytes = this.dis.readInt() - 2;
-                final boolean[] booleanArray = new boolean[this.dis.readShort()];
-                int j = 0;
-                for (int i = 0; i < bitBytes; i++) {
-                    final byte value = this.dis.readByte();
-                    while (j < booleanArray.length) {
-                        final int k = j % 8;
-                        booleanArray[j++] = (value & (1 << k)) != 0;
-                    }
-                }
-                return new BooleanArrayTag(booleanArray);
-            case LIST:
-                final byte listType = this.dis.readByte();
-                if (listNbtType == null) {
-                    listNbtType = listType < 0 || listType >= NbtType.byIndex.length ? null : NbtType.byIndex[listType];
-                    if (listNbtType == null) {
-                        throw new IOException("Unknown NBT Type with id: " + listType);
-                    }
-                }
-                final int size = this.dis.readInt();
-                final ListTag listTag = new ListTag();
-                if (size == 0 || listNbtType == NbtType.END) {
-                    return listTag;
-                }
-                int depth1 = depth + 1;
-                for (int i = 0; i < size; i++) {
-                    listTag.add(readPayload(listNbtType, null, depth1));
-                }
-                return listTag;
-            case COMPOUND:
-                return readCompound(depth);
-            case COMPOUND_ARRAY:
-                type = this.dis.readByte();
-                length = this.dis.readInt();
-                if (type == NbtType.END.type) {
-                    if (length != 0) {
-                        throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-                    }
-                    return new CompoundArrayTag(EMPTY_COMPOUND_TAG_ARRAY);
-                } else if (type != NbtType.COMPOUND.type) {
-                    throw new IOException("Attempted to deserialize a Compound Array (List) but the list type wasn't a compound.");
-                }
-                depth1 = depth + 1;
-                final CompoundTag[] compoundTags = new CompoundTag[length];
-                for (int i = 0; i < length; i++) {
-                    compoundTags[i] = readCompound(depth1);
-                }
-                return new CompoundArrayTag(compoundTags);
-            case MAP:
-                return readMap(depth);
-            case MAP_ARRAY:
-                type = this.dis.readByte();
-                length = this.dis.readInt();
-                if (type == NbtType.END.type) {
-                    if (length != 0) {
-                        throw new IllegalStateException("Got a list tag with end tags which isn't empty.");
-                    }
-                    return new MapArrayTag(EMPTY_MAP_TAG_ARRAY);
-                } else if (type != NbtType.LIST.type) {
-                    throw new IOException("Attempted to deserialize a Map Array (List) but the list type wasn't a list.");
-                }
-                depth1 = depth + 1;
-                final MapTag[] mapTags = new MapTag[length];
-                for (int i = 0; i < length; i++) {
-                    mapTags[i] = readMap(depth1);
-                }
-                return new MapArrayTag(mapTags);
-            case END:
-                throw new IllegalStateException("Unexpected END tag");
-            default:
-                throw new IOException("Attempted to deserialize a unknown nbt tag type: " + nbtType);
-        }
+    @Override
+    public Tag<?> read() throws IOException {
+        final TagTreeBuilder builder = new TagTreeBuilder();
+        this.decoder.read(builder);
+        return builder.result();
     }
 
-    private static class Entry {
-
-        private final String name;
-        private final NbtType type;
-        private final NbtType listType;
-
-        Entry(String name, NbtType type, NbtType listType) {
-            this.listType = listType;
-            this.name = name;
-            this.type = type;
-        }
+    /**
+     * Reads the next {@link CompoundTag}, but only the data that is selected
+     * by the given {@link NbtProjection}. All the other data is skipped
+     * without being decoded.
+     *
+     * @param projection The projection
+     * @return The projected compound tag
+     * @throws IOException If an io exception occurs or if the root tag isn't a compound
+     */
+    public CompoundTag read(NbtProjection projection) throws IOException {
+        requireNonNull(projection, "projection");
+        final TagTreeBuilder builder = new TagTreeBuilder();
+        this.decoder.read(builder, projection);
+        return (CompoundTag) builder.result();
     }
 }
@@ -27,32 +27,48 @@
 import org.lanternpowered.nbt.BooleanArrayTag;
 import org.lanternpowered.nbt.BooleanTag;
 import org.lanternpowered.nbt.ByteArrayTag;
+import org.lanternpowered.nbt.ByteListTag;
 import org.lanternpowered.nbt.ByteTag;
 import org.lanternpowered.nbt.CharArrayTag;
 import org.lanternpowered.nbt.CharTag;
 import org.lanternpowered.nbt.CompoundArrayTag;
 import org.lanternpowered.nbt.CompoundTag;
 import org.lanternpowered.nbt.DoubleArrayTag;
+import org.lanternpowered.nbt.DoubleListTag;
 import org.lanternpowered.nbt.DoubleTag;
 import org.lanternpowered.nbt.FloatArrayTag;
+import org.lanternpowered.nbt.FloatListTag;
 import org.lanternpowered.nbt.FloatTag;
 import org.lanternpowered.nbt.IntArrayTag;
+import org.lanternpowered.nbt.IntListTag;
 import org.lanternpowered.nbt.IntTag;
 import org.lanternpowered.nbt.ListTag;
 import org.lanternpowered.nbt.LongArrayTag;
+import org.lanternpowered.nbt.LongListTag;
 import org.lanternpowered.nbt.LongTag;
 import org.lanternpowered.nbt.MapArrayTag;
 import org.lanternpowered.nbt.MapTag;
+import org.lanternpowered.nbt.PrimitiveListTag;
 import org.lanternpowered.nbt.ShortArrayTag;
+import org.lanternpowered.nbt.ShortListTag;
 import org.lanternpowered.nbt.ShortTag;
 import org.lanternpowered.nbt.StringArrayTag;
 import org.lanternpowered.nbt.StringTag;
 import org.lanternpowered.nbt.Tag;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
-enum NbtType {
+import javax.annotation.Nullable;
+
+/**
+ * Represents the type of a NBT tag. Next to the official types, there
+ * are extended types which are stored as one of the official types with
+ * a suffix in the name of the entry, e.g. {@code Name$char[]}.
+ */
+public enum NbtType {
     // Official types
     END                     (null, 0),
     BYTE                    (ByteTag.class, 1),
@@ -91,9 +107,12 @@ enum NbtType {
     static final Map<String, NbtType> bySuffix = new HashMap<>();
     static final Map<Class<?>, NbtType> byClass = new HashMap<>();
     static final NbtType[] byIndex;
+    static final NbtType[] withSuffix;
 
     final int type;
     final String suffix;
+    // The suffix encoded in modified UTF-8, all the suffixes are ASCII
+    final byte[] suffixBytes;
     final Class<? extends Tag> tagClass;
 
     NbtType(Class<? extends Tag> tagClass, int type) {
@@ -103,6 +122,7 @@ enum NbtType {
     NbtType(Class<? extends Tag> tagClass, String suffix, int type) {
         this.tagClass = tagClass;
         this.suffix = suffix;
+        this.suffixBytes = suffix == null ? null : suffix.getBytes(StandardCharsets.US_ASCII);
         this.type = type;
     }
 
@@ -117,5 +137,47 @@ enum NbtType {
                 byIndex[nbtType.type] = nbtType;
             }
         }
+        byClass.put(LazyCompoundTag.class, COMPOUND);
+        byClass.put(ByteListTag.class, LIST);
+        byClass.put(ShortListTag.class, LIST);
+        byClass.put(IntListTag.class, LIST);
+        byClass.put(LongListTag.class, LIST);
+        byClass.put(FloatListTag.class, LIST);
+        byClass.put(DoubleListTag.class, LIST);
+        withSuffix = Arrays.stream(values()).filter(nbtType -> nbtType.suffix != null).toArray(NbtType[]::new);
+    }
+
+    /**
+     * Gets the {@link NbtType} of the given tag class.
+     *
+     * @param tagClass The tag class
+     * @return The nbt type, or {@code null} if the tag class isn't supported
+     */
+    @Nullable
+    static NbtType byClass(Class<?> tagClass) {
+        NbtType nbtType = byClass.get(tagClass);
+        // Frozen tags are hidden subclasses of the tag types
+        while (nbtType == null && tagClass != Object.class) {
+            tagClass = tagClass.getSuperclass();
+            nbtType = byClass.get(tagClass);
+        }
+        return nbtType;
+    }
+
+    /**
+     * Gets the {@link NbtType} of the elements of the {@link ListTag},
+     * {@link #END} is returned for empty lists.
+     *
+     * @param listTag The list tag
+     * @return The element type, or {@code null} if the elements aren't supported
+     */
+    static NbtType elementTypeOf(ListTag<?> listTag) {
+        if (listTag.isEmpty()) {
+            return END;
+        }
+        if (listTag instanceof PrimitiveListTag) {
+            return byClass.get(((PrimitiveListTag<?>) listTag).getElementType());
+        }
+        return byClass(listTag.get(0).getClass());
     }
 }
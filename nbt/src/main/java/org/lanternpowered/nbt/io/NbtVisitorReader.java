@@ -0,0 +1,123 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.Tag;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A reader that streams the contents of NBT documents to a
+ * {@link TagVisitor}, without building the {@link Tag} tree.
+ *
+ * <p>The reader can read from a {@link InputStream}, which
+ * is buffered internally, or directly from a {@link ByteBuffer}.
+ * See {@link NbtTagInputStream} and {@link NbtTagBufferInputStream}
+ * for the behavior of both sources.</p>
+ */
+public final class NbtVisitorReader implements Closeable {
+
+    private final NbtInput input;
+    private final NbtDecoder decoder;
+
+    /**
+     * Constructs a new {@link NbtVisitorReader}.
+     *
+     * @param inputStream The input stream
+     */
+    public NbtVisitorReader(InputStream inputStream) {
+        this(inputStream, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@link NbtVisitorReader}.
+     *
+     * @param inputStream The input stream
+     * @param maximumDepth The maximum depth of the data contains
+     */
+    public NbtVisitorReader(InputStream inputStream, int maximumDepth) {
+        this(inputStream, maximumDepth, NbtTagInputStream.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link NbtVisitorReader}.
+     *
+     * @param inputStream The input stream
+     * @param maximumDepth The maximum depth of the data contains
+     * @param bufferSize The size of the internal buffer
+     */
+    public NbtVisitorReader(InputStream inputStream, int maximumDepth, int bufferSize) {
+        this(new StreamNbtInput(requireNonNull(inputStream, "inputStream"), bufferSize), maximumDepth);
+    }
+
+    /**
+     * Constructs a new {@link NbtVisitorReader}.
+     *
+     * @param byteBuffer The byte buffer
+     */
+    public NbtVisitorReader(ByteBuffer byteBuffer) {
+        this(byteBuffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a new {@link NbtVisitorReader}.
+     *
+     * @param byteBuffer The byte buffer
+     * @param maximumDepth The maximum depth of the data contains
+     */
+    public NbtVisitorReader(ByteBuffer byteBuffer, int maximumDepth) {
+        this(new BufferNbtInput(requireNonNull(byteBuffer, "byteBuffer")), maximumDepth);
+    }
+
+    private NbtVisitorReader(NbtInput input, int maximumDepth) {
+        this.input = input;
+        this.decoder = new NbtDecoder(input, maximumDepth);
+    }
+
+    /**
+     * Reads the next root entry and passes its
+     * contents to the given {@link TagVisitor}.
+     *
+     * @param visitor The visitor
+     * @throws IOException If an io exception occurs
+     */
+    public void accept(TagVisitor visitor) throws IOException {
+        requireNonNull(visitor, "visitor");
+        this.decoder.read(visitor);
+        if (this.input instanceof BufferNbtInput) {
+            ((BufferNbtInput) this.input).syncPosition();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+}
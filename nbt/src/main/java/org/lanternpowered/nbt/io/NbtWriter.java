@@ -0,0 +1,701 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.ListTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A writer that streams the contents of a NBT document directly
+ * to the output, without building the {@link Tag} tree first. The
+ * written bytes are the same as the ones written by the
+ * {@link NbtTagOutputStream}, extended types included.
+ *
+ * <p>Entries of compounds and root entries are written through the
+ * methods that accept a name, the elements of lists through the ones
+ * that don't. For example:</p>
+ * <pre>{@code
+ * writer.beginCompound("");
+ * writer.writeInt("DataVersion", 1343);
+ * writer.beginList("Sections", NbtType.COMPOUND, sections.size());
+ * for (Section section : sections) {
+ *     writer.beginCompound();
+ *     writer.writeLongArray("BlockStates", section.getBlockStates());
+ *     writer.endCompound();
+ * }
+ * writer.endList();
+ * writer.endCompound();
+ * }</pre>
+ *
+ * <p>The output is buffered internally, wrapping the provided
+ * stream into a {@link java.io.BufferedOutputStream} is not
+ * needed.</p>
+ */
+public final class NbtWriter implements Flushable, Closeable {
+
+    private final NbtOutput output;
+    private final NbtEncoder encoder;
+
+    // The stack of the containers that are being written, a
+    // null element type represents a compound
+    private NbtType[] elementTypes = new NbtType[16];
+    // The remaining elements of the lists
+    private int[] remaining = new int[16];
+    private int depth;
+
+    /**
+     * Constructs a new {@link NbtWriter}.
+     *
+     * @param outputStream The output stream
+     */
+    public NbtWriter(OutputStream outputStream) {
+        this(outputStream, NbtTagOutputStream.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link NbtWriter}.
+     *
+     * @param outputStream The output stream
+     * @param bufferSize The size of the internal buffer
+     */
+    public NbtWriter(OutputStream outputStream, int bufferSize) {
+        this.output = new NbtOutput(requireNonNull(outputStream, "outputStream"), bufferSize);
+        this.encoder = new NbtEncoder(this.output);
+    }
+
+    /**
+     * Starts a compound entry in the current compound, or the root
+     * compound. Must be followed by a {@link #endCompound()}.
+     *
+     * @param name The name of the entry
+     * @throws IOException If an io exception occurs
+     */
+    public void beginCompound(String name) throws IOException {
+        beginEntry(name, NbtType.COMPOUND);
+        push(null, 0);
+    }
+
+    /**
+     * Starts a compound element in the current list. Must
+     * be followed by a {@link #endCompound()}.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    public void beginCompound() throws IOException {
+        beginElement(NbtType.COMPOUND);
+        push(null, 0);
+    }
+
+    /**
+     * Ends the current compound.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    public void endCompound() throws IOException {
+        if (this.depth == 0 || this.elementTypes[this.depth - 1] != null) {
+            throw new IllegalStateException("There is no compound to end.");
+        }
+        this.output.writeByte(NbtType.END.type);
+        this.depth--;
+    }
+
+    /**
+     * Starts a list entry in the current compound, or the root list.
+     * Exactly the given amount of elements of the element type must
+     * be written, followed by a {@link #endList()}.
+     *
+     * @param name The name of the entry
+     * @param elementType The type of the elements
+     * @param size The amount of elements
+     * @throws IOException If an io exception occurs
+     */
+    public void beginList(String name, NbtType elementType, int size) throws IOException {
+        checkListHeader(elementType, size);
+        checkEntry(name);
+        // Empty lists are always written with the end type, the same
+        // way that the tag output stream does
+        this.encoder.writeListEntryHeader(name, size == 0 ? NbtType.END : elementType, size);
+        push(elementType, size);
+    }
+
+    /**
+     * Starts a list element in the current list. Exactly the given
+     * amount of elements of the element type must be written, followed
+     * by a {@link #endList()}. The element type of a list within a list
+     * cannot be one of the extended types.
+     *
+     * @param elementType The type of the elements
+     * @param size The amount of elements
+     * @throws IOException If an io exception occurs
+     */
+    public void beginList(NbtType elementType, int size) throws IOException {
+        checkListHeader(elementType, size);
+        if (elementType.suffix != null) {
+            throw new IllegalArgumentException("The element type of a list within a list cannot be " + elementType);
+        }
+        beginElement(NbtType.LIST);
+        this.encoder.writeListHeader(size == 0 ? NbtType.END : elementType, size);
+        push(elementType, size);
+    }
+
+    /**
+     * Ends the current list.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    public void endList() throws IOException {
+        if (this.depth == 0 || this.elementTypes[this.depth - 1] == null) {
+            throw new IllegalStateException("There is no list to end.");
+        }
+        final int remaining = this.remaining[this.depth - 1];
+        if (remaining != 0) {
+            throw new IllegalStateException("The list is missing " + remaining + " elements.");
+        }
+        this.depth--;
+    }
+
+    /**
+     * Writes a boolean entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeBoolean(String name, boolean value) throws IOException {
+        beginEntry(name, NbtType.BOOLEAN);
+        this.output.writeBoolean(value);
+    }
+
+    /**
+     * Writes a boolean element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeBoolean(boolean value) throws IOException {
+        beginElement(NbtType.BOOLEAN);
+        this.output.writeBoolean(value);
+    }
+
+    /**
+     * Writes a byte entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeByte(String name, byte value) throws IOException {
+        beginEntry(name, NbtType.BYTE);
+        this.output.writeByte(value);
+    }
+
+    /**
+     * Writes a byte element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeByte(byte value) throws IOException {
+        beginElement(NbtType.BYTE);
+        this.output.writeByte(value);
+    }
+
+    /**
+     * Writes a short entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeShort(String name, short value) throws IOException {
+        beginEntry(name, NbtType.SHORT);
+        this.output.writeShort(value);
+    }
+
+    /**
+     * Writes a short element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeShort(short value) throws IOException {
+        beginElement(NbtType.SHORT);
+        this.output.writeShort(value);
+    }
+
+    /**
+     * Writes a char entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeChar(String name, char value) throws IOException {
+        beginEntry(name, NbtType.CHAR);
+        this.encoder.writeChar(value);
+    }
+
+    /**
+     * Writes a char element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeChar(char value) throws IOException {
+        beginElement(NbtType.CHAR);
+        this.encoder.writeChar(value);
+    }
+
+    /**
+     * Writes an int entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeInt(String name, int value) throws IOException {
+        beginEntry(name, NbtType.INT);
+        this.output.writeInt(value);
+    }
+
+    /**
+     * Writes an int element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeInt(int value) throws IOException {
+        beginElement(NbtType.INT);
+        this.output.writeInt(value);
+    }
+
+    /**
+     * Writes a long entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeLong(String name, long value) throws IOException {
+        beginEntry(name, NbtType.LONG);
+        this.output.writeLong(value);
+    }
+
+    /**
+     * Writes a long element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeLong(long value) throws IOException {
+        beginElement(NbtType.LONG);
+        this.output.writeLong(value);
+    }
+
+    /**
+     * Writes a float entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeFloat(String name, float value) throws IOException {
+        beginEntry(name, NbtType.FLOAT);
+        this.output.writeFloat(value);
+    }
+
+    /**
+     * Writes a float element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeFloat(float value) throws IOException {
+        beginElement(NbtType.FLOAT);
+        this.output.writeFloat(value);
+    }
+
+    /**
+     * Writes a double entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeDouble(String name, double value) throws IOException {
+        beginEntry(name, NbtType.DOUBLE);
+        this.output.writeDouble(value);
+    }
+
+    /**
+     * Writes a double element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeDouble(double value) throws IOException {
+        beginElement(NbtType.DOUBLE);
+        this.output.writeDouble(value);
+    }
+
+    /**
+     * Writes a string entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeString(String name, String value) throws IOException {
+        beginEntry(name, NbtType.STRING);
+        this.output.writeUTF(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a string element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeString(String value) throws IOException {
+        beginElement(NbtType.STRING);
+        this.output.writeUTF(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a boolean array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeBooleanArray(String name, boolean[] value) throws IOException {
+        beginEntry(name, NbtType.BOOLEAN_ARRAY);
+        this.encoder.writeBooleanArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a boolean array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeBooleanArray(boolean[] value) throws IOException {
+        beginElement(NbtType.BOOLEAN_ARRAY);
+        this.encoder.writeBooleanArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a byte array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeByteArray(String name, byte[] value) throws IOException {
+        beginEntry(name, NbtType.BYTE_ARRAY);
+        this.encoder.writeByteArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a byte array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeByteArray(byte[] value) throws IOException {
+        beginElement(NbtType.BYTE_ARRAY);
+        this.encoder.writeByteArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a short array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeShortArray(String name, short[] value) throws IOException {
+        beginEntry(name, NbtType.SHORT_ARRAY);
+        this.encoder.writeShortArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a short array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeShortArray(short[] value) throws IOException {
+        beginElement(NbtType.SHORT_ARRAY);
+        this.encoder.writeShortArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a char array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeCharArray(String name, char[] value) throws IOException {
+        beginEntry(name, NbtType.CHAR_ARRAY);
+        this.encoder.writeCharArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a char array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeCharArray(char[] value) throws IOException {
+        beginElement(NbtType.CHAR_ARRAY);
+        this.encoder.writeCharArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes an int array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeIntArray(String name, int[] value) throws IOException {
+        beginEntry(name, NbtType.INT_ARRAY);
+        this.encoder.writeIntArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes an int array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeIntArray(int[] value) throws IOException {
+        beginElement(NbtType.INT_ARRAY);
+        this.encoder.writeIntArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a long array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeLongArray(String name, long[] value) throws IOException {
+        beginEntry(name, NbtType.LONG_ARRAY);
+        this.encoder.writeLongArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a long array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeLongArray(long[] value) throws IOException {
+        beginElement(NbtType.LONG_ARRAY);
+        this.encoder.writeLongArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a float array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeFloatArray(String name, float[] value) throws IOException {
+        beginEntry(name, NbtType.FLOAT_ARRAY);
+        this.encoder.writeFloatArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a float array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeFloatArray(float[] value) throws IOException {
+        beginElement(NbtType.FLOAT_ARRAY);
+        this.encoder.writeFloatArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a double array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeDoubleArray(String name, double[] value) throws IOException {
+        beginEntry(name, NbtType.DOUBLE_ARRAY);
+        this.encoder.writeDoubleArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a double array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeDoubleArray(double[] value) throws IOException {
+        beginElement(NbtType.DOUBLE_ARRAY);
+        this.encoder.writeDoubleArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a string array entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeStringArray(String name, String[] value) throws IOException {
+        beginEntry(name, NbtType.STRING_ARRAY);
+        this.encoder.writeStringArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes a string array element to the current list.
+     *
+     * @param value The value
+     * @throws IOException If an io exception occurs
+     */
+    public void writeStringArray(String[] value) throws IOException {
+        beginElement(NbtType.STRING_ARRAY);
+        this.encoder.writeStringArray(requireNonNull(value, "value"));
+    }
+
+    /**
+     * Writes the {@link Tag} as a entry to the current compound.
+     *
+     * @param name The name of the entry
+     * @param tag The tag
+     * @throws IOException If an io exception occurs
+     */
+    public void writeTag(String name, Tag<?> tag) throws IOException {
+        requireNonNull(tag, "tag");
+        checkEntry(name);
+        this.encoder.writeEntry(name, tag);
+    }
+
+    /**
+     * Writes the {@link Tag} as a element to the current list.
+     *
+     * @param tag The tag
+     * @throws IOException If an io exception occurs
+     */
+    public void writeTag(Tag<?> tag) throws IOException {
+        final NbtType nbtType = NbtType.byClass(requireNonNull(tag, "tag").getClass());
+        if (nbtType == NbtType.LIST) {
+            final ListTag<?> listTag = (ListTag<?>) tag;
+            beginList(NbtType.elementTypeOf(listTag), listTag.size());
+            for (Tag<?> element : listTag) {
+                writeTag(element);
+            }
+            endList();
+        } else {
+            beginElement(nbtType);
+            this.encoder.writePayload(nbtType, tag);
+        }
+    }
+
+    private static void checkListHeader(NbtType elementType, int size) {
+        requireNonNull(elementType, "elementType");
+        if (size < 0) {
+            throw new IllegalArgumentException("The size cannot be negative: " + size);
+        }
+        if (elementType == NbtType.UNKNOWN || (elementType == NbtType.END && size != 0)) {
+            throw new IllegalArgumentException("Invalid element type " + elementType + " for a list of size " + size);
+        }
+    }
+
+    private void checkEntry(String name) {
+        requireNonNull(name, "name");
+        if (this.depth != 0 && this.elementTypes[this.depth - 1] != null) {
+            throw new IllegalStateException("Named entries cannot be written to a list.");
+        }
+    }
+
+    private void beginEntry(String name, NbtType nbtType) throws IOException {
+        checkEntry(name);
+        this.encoder.writeEntryHeader(name, nbtType);
+    }
+
+    private void beginElement(NbtType nbtType) {
+        final NbtType elementType = this.depth == 0 ? null : this.elementTypes[this.depth - 1];
+        if (elementType == null) {
+            throw new IllegalStateException("Elements can only be written to a list.");
+        }
+        if (elementType != nbtType) {
+            throw new IllegalStateException("Expected a element of type " + elementType + ", but found " + nbtType);
+        }
+        if (this.remaining[this.depth - 1] == 0) {
+            throw new IllegalStateException("The list is already complete.");
+        }
+        this.remaining[this.depth - 1]--;
+    }
+
+    private void push(@Nullable NbtType elementType, int remaining) {
+        if (this.depth == this.elementTypes.length) {
+            this.elementTypes = Arrays.copyOf(this.elementTypes, this.depth * 2);
+            this.remaining = Arrays.copyOf(this.remaining, this.depth * 2);
+        }
+        this.elementTypes[this.depth] = elementType;
+        this.remaining[this.depth] = remaining;
+        this.depth++;
+    }
+
+    /**
+     * Gets the amount of containers that are being written.
+     *
+     * @return The depth
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+final class NoCompression implements Compression {
+
+    static final NoCompression INSTANCE = new NoCompression();
+
+    @Override
+    public String getName() {
+        return "none";
+    }
+
+    @Override
+    public OutputStream compress(OutputStream outputStream) {
+        return outputStream;
+    }
+
+    @Override
+    public InputStream decompress(InputStream inputStream) {
+        return inputStream;
+    }
+
+    @Override
+    public boolean test(InputStream inputStream) {
+        // Every file can be read through this compression,
+        // the data may not be so useful though.
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    private NoCompression() {
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.annotation.Nullable;
+
+/**
+ * A output stream that compresses data in the gzip format, the data is split
+ * into blocks which are compressed in parallel by a {@link Executor}.
+ *
+ * <p>Every block is primed with the last 32 KiB of the previous block as
+ * dictionary, so the compression ratio is close to the one of a single
+ * deflate stream. The compressed blocks are joined into a single gzip member,
+ * which can be read by any gzip implementation, for example the
+ * {@link java.util.zip.GZIPInputStream}.</p>
+ *
+ * <p>The blocks are written to the underlying stream in order, by the thread
+ * that writes to this stream. The amount of blocks that are compressed at the
+ * same time is limited, which bounds the memory usage.</p>
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * The default size of the blocks.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    // The maximum size of a deflate dictionary
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    // Magic, the deflate method, no flags, no modification time, no extra flags and an unknown OS
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int deflaterKey;
+    private final int blockSize;
+    private final int maximumPendingBlocks;
+
+    private final CRC32 crc = new CRC32();
+    private final ArrayDeque<CompletableFuture<Block>> pendingBlocks = new ArrayDeque<>();
+
+    private byte[] block;
+    private int blockLength;
+    @Nullable private byte[] previousBlock;
+    private long size;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@link ParallelGzipOutputStream} that
+     * compresses the blocks in the common {@link ForkJoinPool}.
+     *
+     * @param outputStream The output stream
+     * @throws IOException If an io exception occurs while writing the header
+     */
+    public ParallelGzipOutputStream(OutputStream outputStream) throws IOException {
+        this(outputStream, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@link ParallelGzipOutputStream}.
+     *
+     * @param outputStream The output stream
+     * @param executor The executor that compresses the blocks
+     * @throws IOException If an io exception occurs while writing the header
+     */
+    public ParallelGzipOutputStream(OutputStream outputStream, Executor executor) throws IOException {
+        this(outputStream, executor, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a new {@link ParallelGzipOutputStream}.
+     *
+     * @param outputStream The output stream
+     * @param executor The executor that compresses the blocks
+     * @param level The compression level, between -1 and 9
+     * @param blockSize The size of the blocks that are compressed in parallel
+     * @throws IOException If an io exception occurs while writing the header
+     */
+    public ParallelGzipOutputStream(OutputStream outputStream, Executor executor, int level, int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("The block size must be greater than zero, but found: " + blockSize);
+        }
+        this.out = requireNonNull(outputStream, "outputStream");
+        this.executor = requireNonNull(executor, "executor");
+        this.deflaterKey = ZlibPool.deflaterKey(level, Deflater.DEFAULT_STRATEGY, true);
+        this.blockSize = blockSize;
+        this.maximumPendingBlocks = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+        this.block = new byte[blockSize];
+        this.out.write(GZIP_HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureWritable();
+        this.block[this.blockLength++] = (byte) b;
+        if (this.blockLength == this.blockSize) {
+            submitBlock(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureWritable();
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            final int n = Math.min(len, this.blockSize - this.blockLength);
+            System.arraycopy(b, off, this.block, this.blockLength, n);
+            this.blockLength += n;
+            off += n;
+            len -= n;
+            if (this.blockLength == this.blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the blocks that are already compressed to the
+     * underlying stream and flushes it. The data that doesn't
+     * fill a complete block yet isn't flushed.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeBlocks(this.maximumPendingBlocks);
+        this.out.flush();
+    }
+
+    /**
+     * Finishes writing the compressed data to the underlying
+     * stream, without closing it.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    public void finish() throws IOException {
+        ensureOpen();
+        if (this.finished) {
+            return;
+        }
+        submitBlock(true);
+        writeBlocks(0);
+        final byte[] trailer = new byte[8];
+        writeInt(trailer, 0, (int) this.crc.getValue());
+        writeInt(trailer, 4, (int) this.size);
+        this.out.write(trailer);
+        this.finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            finish();
+        } finally {
+            this.closed = true;
+            // Abandon the blocks that are still pending if finishing failed
+            this.pendingBlocks.clear();
+            this.out.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (this.finished) {
+            throw new IOException("write beyond end of stream");
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        final int deflaterKey = this.deflaterKey;
+        final byte[] block = this.block;
+        final int length = this.blockLength;
+        final byte[] dictionary = this.previousBlock;
+        this.crc.update(block, 0, length);
+        this.size += length;
+        this.pendingBlocks.add(CompletableFuture.supplyAsync(
+                () -> compressBlock(deflaterKey, block, length, dictionary, last), this.executor));
+        // Only complete blocks are submitted before the last one
+        this.previousBlock = block;
+        this.blockLength = 0;
+        if (!last) {
+            this.block = new byte[this.blockSize];
+        }
+        writeBlocks(this.maximumPendingBlocks);
+    }
+
+    /**
+     * Writes the compressed blocks in order, waits for blocks
+     * as long as there are more than the given amount pending.
+     */
+    private void writeBlocks(int maximumPendingBlocks) throws IOException {
+        CompletableFuture<Block> future;
+        while ((future = this.pendingBlocks.peek()) != null
+                && (future.isDone() || this.pendingBlocks.size() > maximumPendingBlocks)) {
+            final Block block;
+            try {
+                block = future.join();
+            } catch (CompletionException e) {
+                final Throwable cause = e.getCause();
+                throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+            }
+            this.pendingBlocks.poll();
+            this.out.write(block.bytes, 0, block.length);
+        }
+    }
+
+    private static Block compressBlock(int deflaterKey, byte[] block, int length, @Nullable byte[] dictionary, boolean last) {
+        final Deflater deflater = ZlibPool.acquireDeflater(deflaterKey);
+        try {
+            if (dictionary != null) {
+                final int dictionaryLength = Math.min(DICTIONARY_SIZE, dictionary.length);
+                deflater.setDictionary(dictionary, dictionary.length - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(block, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] bytes = new byte[length + (length >> 7) + 64];
+            int n = 0;
+            while (true) {
+                // Sync flush the blocks, so they end at a byte boundary and can be concatenated
+                n += deflater.deflate(bytes, n, bytes.length - n, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+                if (last ? deflater.finished() : n < bytes.length) {
+                    break;
+                }
+                if (n == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+            return new Block(bytes, n);
+        } finally {
+            ZlibPool.releaseDeflater(deflaterKey, deflater);
+        }
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        // Little endian
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static final class Block {
+
+        final byte[] bytes;
+        final int length;
+
+        Block(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link DeflaterOutputStream} that uses a pooled {@link java.util.zip.Deflater},
+ * which is returned to the {@link ZlibPool} together with the buffer when the
+ * stream is closed. Writes
+ * the gzip header and trailer around the compressed data if requested.
+ */
+final class PooledDeflaterOutputStream extends DeflaterOutputStream {
+
+    // Magic, the deflate method, no flags, no modification time, no extra flags and an unknown OS
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0 };
+
+    private final int deflaterKey;
+    @Nullable private final CRC32 crc;
+    private boolean released;
+
+    PooledDeflaterOutputStream(OutputStream out, int deflaterKey, boolean gzip) throws IOException {
+        // Replace the buffer with a pooled one, the smallest possible size is allocated by the super class
+        super(out, ZlibPool.acquireDeflater(deflaterKey), 1);
+        this.buf = ZlibPool.acquireBuffer();
+        this.deflaterKey = deflaterKey;
+        if (gzip) {
+            this.crc = new CRC32();
+            try {
+                out.write(GZIP_HEADER);
+            } catch (IOException e) {
+                release();
+                throw e;
+            }
+        } else {
+            this.crc = null;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        super.write(b, off, len);
+        if (this.crc != null) {
+            this.crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        super.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        ensureOpen();
+        if (!this.def.finished()) {
+            super.finish();
+            if (this.crc != null) {
+                writeTrailer();
+            }
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        final byte[] trailer = new byte[8];
+        writeInt(trailer, 0, (int) this.crc.getValue());
+        writeInt(trailer, 4, (int) this.def.getBytesRead());
+        this.out.write(trailer);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        // Little endian
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.released) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.released) {
+            return;
+        }
+        try {
+            super.close();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        this.released = true;
+        ZlibPool.releaseDeflater(this.deflaterKey, this.def);
+        ZlibPool.releaseBuffer(this.buf);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link InflaterInputStream} that uses a pooled {@link java.util.zip.Inflater},
+ * which is returned to the {@link ZlibPool} together with the buffer when the
+ * stream is closed. Reads and
+ * verifies the gzip headers and trailers if requested, concatenated gzip members
+ * are supported.
+ */
+final class PooledInflaterInputStream extends InflaterInputStream {
+
+    // The gzip header flags
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final boolean nowrap;
+    @Nullable private final CRC32 crc;
+    private boolean eos;
+    private boolean released;
+
+    PooledInflaterInputStream(InputStream in, boolean nowrap, boolean gzip) throws IOException {
+        // Replace the buffer with a pooled one, the smallest possible size is allocated by the super class
+        super(in, ZlibPool.acquireInflater(nowrap), 1);
+        this.buf = ZlibPool.acquireBuffer();
+        this.nowrap = nowrap;
+        if (gzip) {
+            this.crc = new CRC32();
+            try {
+                readHeader(in);
+            } catch (IOException e) {
+                release();
+                throw e;
+            }
+        } else {
+            this.crc = null;
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (this.released) {
+            throw new IOException("Stream closed");
+        }
+        if (this.eos) {
+            return -1;
+        }
+        final int n = super.read(b, off, len);
+        if (n == -1) {
+            if (this.crc == null || readTrailer()) {
+                this.eos = true;
+                return -1;
+            }
+            // The next gzip member
+            return read(b, off, len);
+        }
+        if (this.crc != null) {
+            this.crc.update(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (this.released) {
+            throw new IOException("Stream closed");
+        }
+        return this.eos ? 0 : super.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.released) {
+            return;
+        }
+        try {
+            super.close();
+        } finally {
+            release();
+        }
+    }
+
+    private void release() {
+        this.released = true;
+        ZlibPool.releaseInflater(this.nowrap, this.inf);
+        ZlibPool.releaseBuffer(this.buf);
+    }
+
+    /**
+     * Reads the gzip member header.
+     *
+     * @return The amount of bytes of the header
+     */
+    private int readHeader(InputStream in) throws IOException {
+        final CRC32 crc = this.crc;
+        final CheckedInputStream cin = new CheckedInputStream(in, crc);
+        crc.reset();
+        if (readUnsignedShort(cin) != GZIPInputStream.GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUnsignedByte(cin) != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        final int flags = readUnsignedByte(cin);
+        // Modification time, extra flags and the OS
+        skipBytes(cin, 6);
+        int n = 2 + 2 + 6;
+        if ((flags & FEXTRA) == FEXTRA) {
+            final int length = readUnsignedShort(cin);
+            skipBytes(cin, length);
+            n += length + 2;
+        }
+        if ((flags & FNAME) == FNAME) {
+            do {
+                n++;
+            } while (readUnsignedByte(cin) != 0);
+        }
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            do {
+                n++;
+            } while (readUnsignedByte(cin) != 0);
+        }
+        if ((flags & FHCRC) == FHCRC) {
+            final int value = (int) crc.getValue() & 0xffff;
+            if (readUnsignedShort(cin) != value) {
+                throw new ZipException("Corrupt GZIP header");
+            }
+            n += 2;
+        }
+        crc.reset();
+        return n;
+    }
+
+    /**
+     * Reads the gzip member trailer and the header
+     * of the next member, if there is one.
+     *
+     * @return Whether the end of the stream is reached
+     */
+    private boolean readTrailer() throws IOException {
+        InputStream in = this.in;
+        final int n = this.inf.getRemaining();
+        final long crc;
+        final long size;
+        if (n >= 8) {
+            // The common case, the trailer is already in the buffer
+            final int offset = this.len - n;
+            crc = getUnsignedInt(this.buf, offset);
+            size = getUnsignedInt(this.buf, offset + 4);
+        } else {
+            if (n > 0) {
+                // The inflater already consumed a part of the trailer from the underlying stream
+                in = prepend(this.len - n, n);
+            }
+            crc = readUnsignedInt(in);
+            size = readUnsignedInt(in);
+        }
+        if (crc != this.crc.getValue() || size != (this.inf.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt GZIP trailer");
+        }
+        // Try to read the header of a concatenated member, a header and trailer are at least 26 bytes
+        if (this.in.available() > 0 || n > 26) {
+            if (in == this.in && n > 0) {
+                in = prepend(this.len - n + 8, n - 8);
+            }
+            int m = 8;
+            try {
+                m += readHeader(in);
+            } catch (IOException e) {
+                // Ignore trailing garbage
+                return true;
+            }
+            this.inf.reset();
+            if (n > m) {
+                this.inf.setInput(this.buf, this.len - n + m, n - m);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Creates a stream that reads the given range of the buffer
+     * before it continues with the underlying stream.
+     */
+    private InputStream prepend(int offset, int length) {
+        return new SequenceInputStream(new ByteArrayInputStream(this.buf, offset, length), new FilterInputStream(this.in) {
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    private static long getUnsignedInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] & 0xff) << 16)
+                | ((bytes[offset + 3] & 0xffL) << 24);
+    }
+
+    private static long readUnsignedInt(InputStream in) throws IOException {
+        final long value = readUnsignedShort(in);
+        return ((long) readUnsignedShort(in) << 16) | value;
+    }
+
+    private static int readUnsignedShort(InputStream in) throws IOException {
+        final int value = readUnsignedByte(in);
+        return (readUnsignedByte(in) << 8) | value;
+    }
+
+    private static int readUnsignedByte(InputStream in) throws IOException {
+        final int value = in.read();
+        if (value == -1) {
+            throw new EOFException();
+        }
+        return value;
+    }
+
+    private static void skipBytes(InputStream in, int length) throws IOException {
+        while (length > 0) {
+            readUnsignedByte(in);
+            length--;
+        }
+    }
+}
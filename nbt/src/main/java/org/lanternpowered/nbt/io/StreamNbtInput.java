@@ -0,0 +1,264 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link NbtInput} that reads from a {@link InputStream} through
+ * its own internal buffer. Bytes may be read ahead from the stream,
+ * so the stream shouldn't be used directly after it was passed in.
+ */
+final class StreamNbtInput extends NbtInput {
+
+    /**
+     * The minimum size of the internal buffer, every
+     * primitive should fit in the buffer.
+     */
+    static final int MINIMUM_BUFFER_SIZE = 16;
+
+    private final InputStream is;
+    private final byte[] buf;
+    private final ByteBuffer byteBuffer;
+
+    // The index of the next byte to read from the buffer
+    private int pos;
+    // The index after the last valid byte in the buffer
+    private int limit;
+
+    StreamNbtInput(InputStream is, int bufferSize) {
+        if (bufferSize < MINIMUM_BUFFER_SIZE) {
+            throw new IllegalArgumentException("The buffer size must be at least " + MINIMUM_BUFFER_SIZE);
+        }
+        this.is = is;
+        this.buf = new byte[bufferSize];
+        this.byteBuffer = ByteBuffer.wrap(this.buf);
+    }
+
+    /**
+     * Ensures that at least the given amount of bytes are available
+     * in the buffer, the amount may not exceed the buffer size.
+     *
+     * @param length The amount of bytes
+     * @throws IOException If an io exception occurs
+     */
+    private void ensure(int length) throws IOException {
+        int available = this.limit - this.pos;
+        if (available >= length) {
+            return;
+        }
+        // Move the remaining bytes to the start of the buffer
+        if (available > 0) {
+            System.arraycopy(this.buf, this.pos, this.buf, 0, available);
+        }
+        this.pos = 0;
+        this.limit = available;
+        while (this.limit < length) {
+            final int read = this.is.read(this.buf, this.limit, this.buf.length - this.limit);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            this.limit += read;
+        }
+    }
+
+    @Override
+    void skipBytes(long length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Cannot skip a negative amount of bytes: " + length);
+        }
+        final int buffered = (int) Math.min(this.limit - this.pos, length);
+        this.pos += buffered;
+        length -= buffered;
+        while (length > 0) {
+            final long skipped = this.is.skip(length);
+            if (skipped > 0) {
+                length -= skipped;
+            } else if (this.is.read() < 0) {
+                // Skip may return 0 before the end of the stream is
+                // reached, reading a byte tells them apart
+                throw new EOFException();
+            } else {
+                length--;
+            }
+        }
+    }
+
+    @Override
+    byte readByte() throws IOException {
+        if (this.pos == this.limit) {
+            ensure(1);
+        }
+        return this.buf[this.pos++];
+    }
+
+    @Override
+    short readShort() throws IOException {
+        ensure(2);
+        final byte[] buf = this.buf;
+        final int pos = this.pos;
+        this.pos = pos + 2;
+        return (short) ((buf[pos] << 8) | (buf[pos + 1] & 0xff));
+    }
+
+    @Override
+    int readInt() throws IOException {
+        ensure(4);
+        final byte[] buf = this.buf;
+        final int pos = this.pos;
+        this.pos = pos + 4;
+        return (buf[pos] << 24) |
+                ((buf[pos + 1] & 0xff) << 16) |
+                ((buf[pos + 2] & 0xff) << 8) |
+                (buf[pos + 3] & 0xff);
+    }
+
+    @Override
+    long readLong() throws IOException {
+        ensure(8);
+        final byte[] buf = this.buf;
+        final int pos = this.pos;
+        this.pos = pos + 8;
+        return ((long) buf[pos] << 56) |
+                ((long) (buf[pos + 1] & 0xff) << 48) |
+                ((long) (buf[pos + 2] & 0xff) << 40) |
+                ((long) (buf[pos + 3] & 0xff) << 32) |
+                ((long) (buf[pos + 4] & 0xff) << 24) |
+                ((buf[pos + 5] & 0xff) << 16) |
+                ((buf[pos + 6] & 0xff) << 8) |
+                (buf[pos + 7] & 0xff);
+    }
+
+    @Override
+    int readRawUTF() throws IOException {
+        final int length = readShort() & 0xffff;
+        if (length <= this.buf.length) {
+            ensure(length);
+            this.rawBytes = this.buf;
+            this.rawOffset = this.pos;
+            this.pos += length;
+        } else {
+            // Too large for the buffer
+            final byte[] bytes = new byte[length];
+            readFully(bytes);
+            this.rawBytes = bytes;
+            this.rawOffset = 0;
+        }
+        return length;
+    }
+
+    @Override
+    void readFully(byte[] bytes) throws IOException {
+        int available = Math.min(this.limit - this.pos, bytes.length);
+        System.arraycopy(this.buf, this.pos, bytes, 0, available);
+        this.pos += available;
+        // Read the remaining bytes directly from the stream
+        while (available < bytes.length) {
+            final int read = this.is.read(bytes, available, bytes.length - available);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            available += read;
+        }
+    }
+
+    /**
+     * Gets a big-endian view of the next {@code count} elements of the
+     * given size that are present in the buffer and skips them, the
+     * amount of elements may be limited by the buffer size.
+     *
+     * @param count The amount of elements
+     * @param elementSize The size of a single element in bytes
+     * @return The view
+     * @throws IOException If an io exception occurs
+     */
+    private ByteBuffer view(int count, int elementSize) throws IOException {
+        final int length = Math.min(count, this.buf.length / elementSize) * elementSize;
+        ensure(length);
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        byteBuffer.limit(this.pos + length);
+        byteBuffer.position(this.pos);
+        this.pos += length;
+        return byteBuffer;
+    }
+
+    @Override
+    void readShorts(short[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 2);
+            final int count = view.remaining() / 2;
+            view.asShortBuffer().get(array, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    void readInts(int[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 4);
+            final int count = view.remaining() / 4;
+            view.asIntBuffer().get(array, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    void readLongs(long[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 8);
+            final int count = view.remaining() / 8;
+            view.asLongBuffer().get(array, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    void readFloats(float[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 4);
+            final int count = view.remaining() / 4;
+            view.asFloatBuffer().get(array, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    void readDoubles(double[] array) throws IOException {
+        for (int offset = 0; offset < array.length; ) {
+            final ByteBuffer view = view(array.length - offset, 8);
+            final int count = view.remaining() / 8;
+            view.asDoubleBuffer().get(array, offset, count);
+            offset += count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.is.close();
+    }
+}
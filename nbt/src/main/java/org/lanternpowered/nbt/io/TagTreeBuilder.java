@@ -0,0 +1,359 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import org.lanternpowered.nbt.BooleanArrayTag;
+import org.lanternpowered.nbt.BooleanTag;
+import org.lanternpowered.nbt.ByteArrayTag;
+import org.lanternpowered.nbt.ByteListTag;
+import org.lanternpowered.nbt.ByteTag;
+import org.lanternpowered.nbt.CharArrayTag;
+import org.lanternpowered.nbt.CharTag;
+import org.lanternpowered.nbt.CompoundArrayTag;
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.DoubleArrayTag;
+import org.lanternpowered.nbt.DoubleListTag;
+import org.lanternpowered.nbt.DoubleTag;
+import org.lanternpowered.nbt.FloatArrayTag;
+import org.lanternpowered.nbt.FloatListTag;
+import org.lanternpowered.nbt.FloatTag;
+import org.lanternpowered.nbt.IntArrayTag;
+import org.lanternpowered.nbt.IntListTag;
+import org.lanternpowered.nbt.IntTag;
+import org.lanternpowered.nbt.ListTag;
+import org.lanternpowered.nbt.LongArrayTag;
+import org.lanternpowered.nbt.LongListTag;
+import org.lanternpowered.nbt.LongTag;
+import org.lanternpowered.nbt.MapArrayTag;
+import org.lanternpowered.nbt.MapTag;
+import org.lanternpowered.nbt.ShortArrayTag;
+import org.lanternpowered.nbt.ShortListTag;
+import org.lanternpowered.nbt.ShortTag;
+import org.lanternpowered.nbt.StringArrayTag;
+import org.lanternpowered.nbt.StringTag;
+import org.lanternpowered.nbt.Tag;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link TagVisitor} that builds the {@link Tag} tree.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+final class TagTreeBuilder implements TagVisitor {
+
+    private static final CompoundTag[] EMPTY_COMPOUND_TAG_ARRAY = new CompoundTag[0];
+    private static final MapTag[] EMPTY_MAP_TAG_ARRAY = new MapTag[0];
+
+    /**
+     * The maximum initial capacity of a list, based on the size in the header.
+     */
+    private static final int MAXIMUM_INITIAL_LIST_CAPACITY = 1024;
+
+    // The containers that are currently being built, a container is
+    // a CompoundTag, ListTag, MapTag, CompoundTag[] or MapTag[]
+    private Object[] containers = new Object[16];
+    // The name of the current entry for compounds
+    private String[] names = new String[16];
+    // The index of the next element for arrays
+    private int[] indices = new int[16];
+    // The size of the last compound at each depth, siblings
+    // mostly have the same keys, so it's used as initial capacity
+    private int[] compoundSizes = new int[16];
+    private int depth = -1;
+
+    @Nullable private Tag<?> result;
+
+    /**
+     * Gets the {@link Tag} that was built and resets the builder.
+     *
+     * @return The tag
+     */
+    Tag<?> result() {
+        final Tag<?> result = this.result;
+        if (result == null || this.depth != -1) {
+            throw new IllegalStateException("The tag isn't complete.");
+        }
+        this.result = null;
+        return result;
+    }
+
+    private void push(Object container) {
+        final int depth = ++this.depth;
+        if (depth == this.containers.length) {
+            this.containers = Arrays.copyOf(this.containers, depth * 2);
+            this.names = Arrays.copyOf(this.names, depth * 2);
+            this.indices = Arrays.copyOf(this.indices, depth * 2);
+            this.compoundSizes = Arrays.copyOf(this.compoundSizes, depth * 2);
+        }
+        this.containers[depth] = container;
+        this.indices[depth] = 0;
+    }
+
+    private Object pop() {
+        final int depth = this.depth--;
+        final Object container = this.containers[depth];
+        this.containers[depth] = null;
+        this.names[depth] = null;
+        return container;
+    }
+
+    private void add(Tag<?> tag) {
+        final int depth = this.depth;
+        if (depth == -1) {
+            this.result = tag;
+            return;
+        }
+        final Object container = this.containers[depth];
+        if (container instanceof CompoundTag) {
+            ((CompoundTag) container).put(this.names[depth], tag);
+        } else if (container instanceof ListTag) {
+            ((ListTag) container).add(tag);
+        } else if (container instanceof MapTag) {
+            // Each map entry is a compound with a key and value
+            final CompoundTag entry = (CompoundTag) tag;
+            ((MapTag) container).put(entry.get(NbtType.mapKeyName), entry.get(NbtType.mapValueName));
+        } else {
+            ((Object[]) container)[this.indices[depth]++] = tag;
+        }
+    }
+
+    @Override
+    public void visitEntry(String name, NbtType type) {
+        if (this.depth != -1) {
+            this.names[this.depth] = name;
+        }
+    }
+
+    @Override
+    public void visitCompoundStart() {
+        final int depth = this.depth + 1;
+        push(new CompoundTag(depth < this.compoundSizes.length ? this.compoundSizes[depth] : 0));
+    }
+
+    @Override
+    public void visitCompoundEnd() {
+        final CompoundTag compoundTag = (CompoundTag) pop();
+        this.compoundSizes[this.depth + 1] = compoundTag.size();
+        add(compoundTag);
+    }
+
+    @Override
+    public void visitListStart(NbtType elementType, int size) {
+        // The size isn't trusted, a corrupt header shouldn't allocate huge arrays
+        // before any element is read, the lists grow when they're filled up
+        final int capacity = Math.max(0, Math.min(size, MAXIMUM_INITIAL_LIST_CAPACITY));
+        // Lists of primitives are stored in primitive arrays
+        switch (elementType) {
+            case BYTE:
+                push(new ByteListTag(capacity));
+                break;
+            case SHORT:
+                push(new ShortListTag(capacity));
+                break;
+            case INT:
+                push(new IntListTag(capacity));
+                break;
+            case LONG:
+                push(new LongListTag(capacity));
+                break;
+            case FLOAT:
+                push(new FloatListTag(capacity));
+                break;
+            case DOUBLE:
+                push(new DoubleListTag(capacity));
+                break;
+            default:
+                push(new ListTag<>());
+                break;
+        }
+    }
+
+    /**
+     * Gets the container that is currently being built.
+     *
+     * @return The container, or {@code null} if the root is being built
+     */
+    @Nullable
+    private Object container() {
+        return this.depth == -1 ? null : this.containers[this.depth];
+    }
+
+    @Override
+    public void visitListEnd() {
+        add((ListTag) pop());
+    }
+
+    @Override
+    public void visitCompoundArrayStart(int length) {
+        push(length == 0 ? EMPTY_COMPOUND_TAG_ARRAY : new CompoundTag[length]);
+    }
+
+    @Override
+    public void visitCompoundArrayEnd() {
+        add(new CompoundArrayTag((CompoundTag[]) pop()));
+    }
+
+    @Override
+    public void visitMapStart(int size) {
+        push(new MapTag<>());
+    }
+
+    @Override
+    public void visitMapEnd() {
+        add((MapTag) pop());
+    }
+
+    @Override
+    public void visitMapArrayStart(int length) {
+        push(length == 0 ? EMPTY_MAP_TAG_ARRAY : new MapTag[length]);
+    }
+
+    @Override
+    public void visitMapArrayEnd() {
+        add(new MapArrayTag((MapTag[]) pop()));
+    }
+
+    @Override
+    public void visitBoolean(boolean value) {
+        add(new BooleanTag(value));
+    }
+
+    @Override
+    public void visitBooleanArray(boolean[] value) {
+        add(new BooleanArrayTag(value));
+    }
+
+    @Override
+    public void visitByte(byte value) {
+        final Object container = container();
+        if (container instanceof ByteListTag) {
+            ((ByteListTag) container).addByte(value);
+        } else {
+            add(new ByteTag(value));
+        }
+    }
+
+    @Override
+    public void visitByteArray(byte[] value) {
+        add(new ByteArrayTag(value));
+    }
+
+    @Override
+    public void visitShort(short value) {
+        final Object container = container();
+        if (container instanceof ShortListTag) {
+            ((ShortListTag) container).addShort(value);
+        } else {
+            add(new ShortTag(value));
+        }
+    }
+
+    @Override
+    public void visitShortArray(short[] value) {
+        add(new ShortArrayTag(value));
+    }
+
+    @Override
+    public void visitChar(char value) {
+        add(new CharTag(value));
+    }
+
+    @Override
+    public void visitCharArray(char[] value) {
+        add(new CharArrayTag(value));
+    }
+
+    @Override
+    public void visitInt(int value) {
+        final Object container = container();
+        if (container instanceof IntListTag) {
+            ((IntListTag) container).addInt(value);
+        } else {
+            add(new IntTag(value));
+        }
+    }
+
+    @Override
+    public void visitIntArray(int[] value) {
+        add(new IntArrayTag(value));
+    }
+
+    @Override
+    public void visitLong(long value) {
+        final Object container = container();
+        if (container instanceof LongListTag) {
+            ((LongListTag) container).addLong(value);
+        } else {
+            add(new LongTag(value));
+        }
+    }
+
+    @Override
+    public void visitLongArray(long[] value) {
+        add(new LongArrayTag(value));
+    }
+
+    @Override
+    public void visitFloat(float value) {
+        final Object container = container();
+        if (container instanceof FloatListTag) {
+            ((FloatListTag) container).addFloat(value);
+        } else {
+            add(new FloatTag(value));
+        }
+    }
+
+    @Override
+    public void visitFloatArray(float[] value) {
+        add(new FloatArrayTag(value));
+    }
+
+    @Override
+    public void visitDouble(double value) {
+        final Object container = container();
+        if (container instanceof DoubleListTag) {
+            ((DoubleListTag) container).addDouble(value);
+        } else {
+            add(new DoubleTag(value));
+        }
+    }
+
+    @Override
+    public void visitDoubleArray(double[] value) {
+        add(new DoubleArrayTag(value));
+    }
+
+    @Override
+    public void visitString(String value) {
+        add(new StringTag(value));
+    }
+
+    @Override
+    public void visitStringArray(String[] value) {
+        add(new StringArrayTag(value));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import org.lanternpowered.nbt.CompoundArrayTag;
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.ListTag;
+import org.lanternpowered.nbt.MapArrayTag;
+import org.lanternpowered.nbt.MapTag;
+import org.lanternpowered.nbt.Tag;
+
+/**
+ * A visitor that receives the contents of a NBT document as a
+ * stream of events, without building a {@link Tag} tree.
+ *
+ * <p>Every value is preceded by a {@link #visitEntry(String, NbtType)}
+ * call when it's the root value or a value within a compound, list
+ * elements are visited without entry. Container values are visited
+ * with a start event, followed by their contents and an end event.</p>
+ *
+ * <p>All the methods do nothing by default, so only the events that
+ * are of interest need to be overridden. The arrays that are passed
+ * to the visitor are never reused by the reader.</p>
+ */
+public interface TagVisitor {
+
+    /**
+     * Visits the start of a named entry within a {@link CompoundTag},
+     * or the root entry. The value of the entry will be visited next.
+     *
+     * @param name The name of the entry
+     * @param type The type of the entry
+     */
+    default void visitEntry(String name, NbtType type) {
+    }
+
+    /**
+     * Visits the start of a {@link CompoundTag}.
+     */
+    default void visitCompoundStart() {
+    }
+
+    /**
+     * Visits the end of a {@link CompoundTag}.
+     */
+    default void visitCompoundEnd() {
+    }
+
+    /**
+     * Visits the start of a {@link ListTag}, the {@code size}
+     * elements of the given type will be visited next.
+     *
+     * @param elementType The type of the elements
+     * @param size The size of the list
+     */
+    default void visitListStart(NbtType elementType, int size) {
+    }
+
+    /**
+     * Visits the end of a {@link ListTag}.
+     */
+    default void visitListEnd() {
+    }
+
+    /**
+     * Visits the start of a {@link CompoundArrayTag}, the
+     * {@code length} compounds will be visited next.
+     *
+     * @param length The length of the array
+     */
+    default void visitCompoundArrayStart(int length) {
+    }
+
+    /**
+     * Visits the end of a {@link CompoundArrayTag}.
+     */
+    default void visitCompoundArrayEnd() {
+    }
+
+    /**
+     * Visits the start of a {@link MapTag}, the {@code size} entries
+     * will be visited next. Each entry of the map is visited as a
+     * compound that holds a {@code K} (key) and {@code V} (value) entry.
+     *
+     * @param size The size of the map
+     */
+    default void visitMapStart(int size) {
+    }
+
+    /**
+     * Visits the end of a {@link MapTag}.
+     */
+    default void visitMapEnd() {
+    }
+
+    /**
+     * Visits the start of a {@link MapArrayTag}, the
+     * {@code length} maps will be visited next.
+     *
+     * @param length The length of the array
+     */
+    default void visitMapArrayStart(int length) {
+    }
+
+    /**
+     * Visits the end of a {@link MapArrayTag}.
+     */
+    default void visitMapArrayEnd() {
+    }
+
+    default void visitBoolean(boolean value) {
+    }
+
+    default void visitBooleanArray(boolean[] value) {
+    }
+
+    default void visitByte(byte value) {
+    }
+
+    default void visitByteArray(byte[] value) {
+    }
+
+    default void visitShort(short value) {
+    }
+
+    default void visitShortArray(short[] value) {
+    }
+
+    default void visitChar(char value) {
+    }
+
+    default void visitCharArray(char[] value) {
+    }
+
+    default void visitInt(int value) {
+    }
+
+    default void visitIntArray(int[] value) {
+    }
+
+    default void visitLong(long value) {
+    }
+
+    default void visitLongArray(long[] value) {
+    }
+
+    default void visitFloat(float value) {
+    }
+
+    default void visitFloatArray(float[] value) {
+    }
+
+    default void visitDouble(double value) {
+    }
+
+    default void visitDoubleArray(double[] value) {
+    }
+
+    default void visitString(String value) {
+    }
+
+    default void visitStringArray(String[] value) {
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.io;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A per thread pool of {@link Deflater}s and {@link Inflater}s, this
+ * avoids the allocation and teardown of the native zlib state for every
+ * compressed document. The instances are reset when they are released.
+ * The buffers of the streams that use them are pooled as well.
+ */
+final class ZlibPool {
+
+    // The maximum amount of instances that are kept per thread and type
+    private static final int MAXIMUM_POOLED = 4;
+
+    // The size of the pooled buffers
+    static final int BUFFER_SIZE = 8192;
+
+    private static final int LEVELS = 11; // -1 to 9
+    private static final int STRATEGIES = 3;
+
+    private static final ThreadLocal<ZlibPool> pools = ThreadLocal.withInitial(ZlibPool::new);
+
+    /**
+     * Gets the key of the {@link Deflater}s with the given settings,
+     * the settings are validated.
+     *
+     * @param level The compression level
+     * @param strategy The compression strategy
+     * @param nowrap Whether the zlib header and checksum are omitted
+     * @return The key
+     */
+    static int deflaterKey(int level, int strategy, boolean nowrap) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        if (strategy != Deflater.DEFAULT_STRATEGY && strategy != Deflater.FILTERED && strategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Invalid compression strategy: " + strategy);
+        }
+        return ((nowrap ? 1 : 0) * STRATEGIES + strategy) * LEVELS + level + 1;
+    }
+
+    /**
+     * Acquires a {@link Deflater} for the given key.
+     *
+     * @param key The key
+     * @return The deflater
+     * @see #deflaterKey(int, int, boolean)
+     */
+    static Deflater acquireDeflater(int key) {
+        final Deflater deflater = (Deflater) pools.get().deflaters[key].poll();
+        if (deflater != null) {
+            return deflater;
+        }
+        final int level = key % LEVELS - 1;
+        final int strategy = key / LEVELS % STRATEGIES;
+        final boolean nowrap = key / LEVELS / STRATEGIES == 1;
+        final Deflater newDeflater = new Deflater(level, nowrap);
+        newDeflater.setStrategy(strategy);
+        return newDeflater;
+    }
+
+    /**
+     * Releases the {@link Deflater} that was acquired for the given key.
+     *
+     * @param key The key
+     * @param deflater The deflater
+     */
+    static void releaseDeflater(int key, Deflater deflater) {
+        deflater.reset();
+        if (!pools.get().deflaters[key].offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Acquires a {@link Inflater}.
+     *
+     * @param nowrap Whether the zlib header and checksum are omitted
+     * @return The inflater
+     */
+    static Inflater acquireInflater(boolean nowrap) {
+        final Inflater inflater = (Inflater) pools.get().inflaters[nowrap ? 1 : 0].poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    /**
+     * Releases the {@link Inflater} that was acquired.
+     *
+     * @param nowrap Whether the zlib header and checksum are omitted
+     * @param inflater The inflater
+     */
+    static void releaseInflater(boolean nowrap, Inflater inflater) {
+        inflater.reset();
+        if (!pools.get().inflaters[nowrap ? 1 : 0].offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Acquires a buffer of {@link #BUFFER_SIZE} bytes.
+     *
+     * @return The buffer
+     */
+    static byte[] acquireBuffer() {
+        final byte[] buffer = (byte[]) pools.get().buffers.poll();
+        return buffer != null ? buffer : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Releases the buffer that was acquired.
+     *
+     * @param buffer The buffer
+     */
+    static void releaseBuffer(byte[] buffer) {
+        pools.get().buffers.offer(buffer);
+    }
+
+    private final Stack[] deflaters = new Stack[2 * STRATEGIES * LEVELS];
+    private final Stack[] inflaters = new Stack[2];
+    private final Stack buffers = new Stack();
+
+    private ZlibPool() {
+        for (int i = 0; i < this.deflaters.length; i++) {
+            this.deflaters[i] = new Stack();
+        }
+        for (int i = 0; i < this.inflaters.length; i++) {
+            this.inflaters[i] = new Stack();
+        }
+    }
+
+    private static final class Stack {
+
+        private final Object[] values = new Object[MAXIMUM_POOLED];
+        private int size;
+
+        Object poll() {
+            if (this.size == 0) {
+                return null;
+            }
+            final Object value = this.values[--this.size];
+            this.values[this.size] = null;
+            return value;
+        }
+
+        boolean offer(Object value) {
+            if (this.size == this.values.length) {
+                return false;
+            }
+            this.values[this.size++] = value;
+            return true;
+        }
+    }
+}
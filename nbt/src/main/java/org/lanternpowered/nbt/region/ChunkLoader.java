@@ -0,0 +1,233 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.region;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.CompoundTag;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Loads chunks from {@link RegionFile}s in three stages, each stage runs
+ * on its own {@link Executor}: the positional reads of the file, the
+ * decompression of the data and the decoding of the NBT data. The stages
+ * of different chunks overlap, while one chunk is being decoded the data
+ * of the next chunks can already be read and decompressed.
+ *
+ * <p>The chunk data is {@code null} for chunks that don't exist. Loading a
+ * chunk that couldn't be read completes exceptionally with a {@link IOException},
+ * the {@link Result}s of multiple chunks throw the exception instead.</p>
+ */
+public final class ChunkLoader {
+
+    private final Executor readExecutor;
+    private final Executor inflateExecutor;
+    private final Executor decodeExecutor;
+
+    /**
+     * Constructs a new {@link ChunkLoader}.
+     *
+     * @param readExecutor The executor that reads the data from the files
+     * @param inflateExecutor The executor that decompresses the data
+     * @param decodeExecutor The executor that decodes the NBT data
+     */
+    public ChunkLoader(Executor readExecutor, Executor inflateExecutor, Executor decodeExecutor) {
+        this.readExecutor = requireNonNull(readExecutor, "readExecutor");
+        this.inflateExecutor = requireNonNull(inflateExecutor, "inflateExecutor");
+        this.decodeExecutor = requireNonNull(decodeExecutor, "decodeExecutor");
+    }
+
+    /**
+     * Loads the chunk at the given coordinates from the {@link RegionFile},
+     * only the lowest 5 bits of the coordinates are used.
+     *
+     * @param regionFile The region file
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return The future of the chunk data
+     */
+    public CompletableFuture<CompoundTag> load(RegionFile regionFile, int x, int z) {
+        requireNonNull(regionFile, "regionFile");
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return regionFile.readRawChunk(x, z);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, this.readExecutor)
+                .thenApplyAsync(rawChunk -> {
+                    try {
+                        return rawChunk == null ? null : rawChunk.inflate();
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, this.inflateExecutor)
+                .thenApplyAsync(data -> {
+                    try {
+                        return data == null ? null : RawChunk.decode(data);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, this.decodeExecutor);
+    }
+
+    /**
+     * Loads all the requested chunks. The returned futures are in the order in
+     * which the chunks complete, the first future completes with the result of
+     * the first chunk that is loaded, and so on. Every {@link Result} holds the
+     * {@link Request} it belongs to. Use {@link #load(RegionFile, int, int)} to
+     * get the future of a specific chunk.
+     *
+     * @param requests The requests
+     * @return The futures of the results, in completion order
+     */
+    public List<CompletableFuture<Result>> loadAll(Collection<Request> requests) {
+        requireNonNull(requests, "requests");
+        final List<CompletableFuture<Result>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        final AtomicInteger completed = new AtomicInteger();
+        for (Request request : requests) {
+            load(request.regionFile, request.x, request.z).whenComplete((compoundTag, throwable) -> {
+                final CompletableFuture<Result> result = results.get(completed.getAndIncrement());
+                if (throwable != null) {
+                    result.complete(new Result(request, null,
+                            throwable instanceof CompletionException ? throwable.getCause() : throwable));
+                } else {
+                    result.complete(new Result(request, compoundTag, null));
+                }
+            });
+        }
+        return results;
+    }
+
+    /**
+     * A request to load a chunk from a {@link RegionFile}.
+     */
+    public static final class Request {
+
+        private final RegionFile regionFile;
+        private final int x;
+        private final int z;
+
+        /**
+         * Constructs a new {@link Request}, only the
+         * lowest 5 bits of the coordinates are used.
+         *
+         * @param regionFile The region file
+         * @param x The x coordinate of the chunk
+         * @param z The z coordinate of the chunk
+         */
+        public Request(RegionFile regionFile, int x, int z) {
+            this.regionFile = requireNonNull(regionFile, "regionFile");
+            this.x = x;
+            this.z = z;
+        }
+
+        /**
+         * Gets the {@link RegionFile} of the chunk.
+         *
+         * @return The region file
+         */
+        public RegionFile getRegionFile() {
+            return this.regionFile;
+        }
+
+        /**
+         * Gets the x coordinate of the chunk.
+         *
+         * @return The x coordinate
+         */
+        public int getX() {
+            return this.x;
+        }
+
+        /**
+         * Gets the z coordinate of the chunk.
+         *
+         * @return The z coordinate
+         */
+        public int getZ() {
+            return this.z;
+        }
+    }
+
+    /**
+     * The result of a {@link Request}.
+     */
+    public static final class Result {
+
+        private final Request request;
+        @Nullable private final CompoundTag chunk;
+        @Nullable private final Throwable failure;
+
+        private Result(Request request, @Nullable CompoundTag chunk, @Nullable Throwable failure) {
+            this.request = request;
+            this.chunk = chunk;
+            this.failure = failure;
+        }
+
+        /**
+         * Gets the {@link Request} this result belongs to.
+         *
+         * @return The request
+         */
+        public Request getRequest() {
+            return this.request;
+        }
+
+        /**
+         * Gets the chunk data.
+         *
+         * @return The chunk data, or {@code null} if the chunk doesn't exist
+         * @throws IOException If the chunk couldn't be read
+         */
+        @Nullable
+        public CompoundTag getChunk() throws IOException {
+            if (this.failure instanceof IOException) {
+                throw (IOException) this.failure;
+            } else if (this.failure instanceof RuntimeException) {
+                throw (RuntimeException) this.failure;
+            } else if (this.failure instanceof Error) {
+                throw (Error) this.failure;
+            } else if (this.failure != null) {
+                throw new IOException(this.failure);
+            }
+            return this.chunk;
+        }
+    }
+}
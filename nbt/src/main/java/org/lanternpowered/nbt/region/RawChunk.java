@@ -0,0 +1,112 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.region;
+
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.Tag;
+import org.lanternpowered.nbt.io.NbtTagBufferInputStream;
+import org.lanternpowered.nbt.io.NbtTagInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The data of a chunk as it's stored in a {@link RegionFile}.
+ */
+final class RawChunk {
+
+    private final int compressionType;
+    private final ByteBuffer data;
+
+    RawChunk(int compressionType, ByteBuffer data) {
+        this.compressionType = compressionType;
+        this.data = data;
+    }
+
+    /**
+     * Decompresses and decodes the data of the chunk.
+     *
+     * @return The chunk data
+     * @throws IOException If the data is malformed
+     */
+    CompoundTag decode() throws IOException {
+        if (this.compressionType == RegionFile.COMPRESSION_NONE) {
+            return decode(this.data);
+        }
+        final InputStream is = new ByteArrayInputStream(this.data.array(), 0, this.data.limit());
+        final Tag<?> tag;
+        try (NbtTagInputStream nis = new NbtTagInputStream(RegionFile.toCompression(this.compressionType).decompress(is))) {
+            tag = nis.read();
+        }
+        return toCompound(tag);
+    }
+
+    /**
+     * Decompresses the data of the chunk.
+     *
+     * @return The uncompressed data
+     * @throws IOException If the data is malformed
+     */
+    ByteBuffer inflate() throws IOException {
+        if (this.compressionType == RegionFile.COMPRESSION_NONE) {
+            return this.data;
+        }
+        final InputStream is = new ByteArrayInputStream(this.data.array(), 0, this.data.limit());
+        // The compression ratio of chunks is usually a bit below 4
+        byte[] bytes = new byte[Math.max(8192, this.data.limit() * 4)];
+        int length = 0;
+        try (InputStream dis = RegionFile.toCompression(this.compressionType).decompress(is)) {
+            int n;
+            while ((n = dis.read(bytes, length, bytes.length - length)) != -1) {
+                length += n;
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, length);
+    }
+
+    /**
+     * Decodes the uncompressed data of a chunk.
+     *
+     * @param data The uncompressed data
+     * @return The chunk data
+     * @throws IOException If the data is malformed
+     */
+    static CompoundTag decode(ByteBuffer data) throws IOException {
+        return toCompound(new NbtTagBufferInputStream(data).read());
+    }
+
+    private static CompoundTag toCompound(Tag<?> tag) throws IOException {
+        if (!(tag instanceof CompoundTag)) {
+            throw new IOException("The chunk data must be a compound, but found: " + tag.getClass().getName());
+        }
+        return (CompoundTag) tag;
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * This file is part of LanternNBT, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) LanternPowered https://github.com/LanternPowered/LanternNBT
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the Software), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, andor sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED AS IS, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.lanternpowered.nbt.region;
+
+import static java.util.Objects.requireNonNull;
+
+import org.lanternpowered.nbt.CompoundTag;
+import org.lanternpowered.nbt.io.Compression;
+import org.lanternpowered.nbt.io.NbtTagOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.StampedLock;
+
+import javax.annotation.Nullable;
+
+/**
+ * Represents a anvil region file (.mca), which stores the
+ * data of 32x32 chunks as compressed {@link CompoundTag}s.
+ *
+ * <p>The file starts with a header of 8 KiB that contains the location
+ * and the timestamp of every chunk, the header is memory mapped. The chunk
+ * data is stored in sectors of 4 KiB, and is read and written through
+ * positional {@link FileChannel} operations.</p>
+ *
+ * <p>Rewritten chunks are always written to free sectors before the
+ * header is updated, so the previous data stays intact until the new
+ * data is written completely.</p>
+ *
+ * <p>This class is thread safe. Chunks are read without locking, a read is
+ * validated afterwards against a concurrent write of the same chunk and only
+ * retried with a lock if that happened. Writes lock a stripe of the chunks,
+ * the data is encoded and compressed before the lock is acquired. The sector
+ * allocation is guarded by a separate lock, which is only held while sectors
+ * are allocated or freed.</p>
+ */
+public final class RegionFile implements Closeable {
+
+    /**
+     * The size of a sector in bytes.
+     */
+    public static final int SECTOR_SIZE = 4096;
+
+    // The header sectors, the locations and the timestamps
+    private static final int HEADER_SECTORS = 2;
+
+    // The length and the compression type
+    private static final int CHUNK_HEADER_SIZE = 5;
+
+    // The maximum amount of sectors of a chunk, one byte in the location
+    private static final int MAXIMUM_CHUNK_SECTORS = 255;
+
+    // The flag in the compression type of chunks that are stored in a external file
+    private static final int EXTERNAL_FLAG = 128;
+
+    static final int COMPRESSION_GZIP = 1;
+    static final int COMPRESSION_ZLIB = 2;
+    static final int COMPRESSION_NONE = 3;
+
+    // The amount of locks, the chunks are distributed over them
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+
+    // The locations of the chunks, the offset in sectors and the amount of
+    // sectors. Invalid locations in the header are ignored and are 0 here.
+    private final AtomicIntegerArray locations = new AtomicIntegerArray(1024);
+    private final StampedLock[] locks = new StampedLock[LOCK_STRIPES];
+
+    // The sectors that are in use, guarded by itself
+    private final BitSet usedSectors = new BitSet();
+    // The amount of sectors in the file, guarded by the used sectors
+    private int sectors;
+
+    /**
+     * Opens the {@link RegionFile} at the given {@link Path},
+     * the file will be created if it doesn't exist.
+     *
+     * @param path The path
+     * @throws IOException If an io exception occurs
+     */
+    public RegionFile(Path path) throws IOException {
+        requireNonNull(path, "path");
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            final long size = this.channel.size();
+            if (size < HEADER_SECTORS * SECTOR_SIZE) {
+                // Create or complete the header
+                final ByteBuffer zeros = ByteBuffer.allocate((int) (HEADER_SECTORS * SECTOR_SIZE - size));
+                writeFully(zeros, size);
+            }
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SECTORS * SECTOR_SIZE);
+            this.sectors = (int) ((this.channel.size() + SECTOR_SIZE - 1) / SECTOR_SIZE);
+            this.usedSectors.set(0, HEADER_SECTORS);
+            for (int index = 0; index < this.locations.length(); index++) {
+                final int location = this.header.getInt(index * 4);
+                final int offset = location >>> 8;
+                final int sectors = location & 0xff;
+                if (sectors != 0 && offset >= HEADER_SECTORS && offset + sectors <= this.sectors) {
+                    this.locations.set(index, location);
+                    this.usedSectors.set(offset, offset + sectors);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new StampedLock();
+        }
+    }
+
+    private static int index(int x, int z) {
+        return (x & 31) | ((z & 31) << 5);
+    }
+
+    private StampedLock lock(int index) {
+        return this.locks[index & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Gets whether there is data for the chunk at the given coordinates,
+     * only the lowest 5 bits of the coordinates are used.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return Whether there is data
+     */
+    public boolean hasChunk(int x, int z) {
+        return this.locations.get(index(x, z)) != 0;
+    }
+
+    /**
+     * Gets the last time the chunk at the given coordinates was written,
+     * in seconds since the epoch. Only the lowest 5 bits of the coordinates
+     * are used.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return The timestamp, or {@code 0} if the chunk doesn't exist
+     */
+    public int getTimestamp(int x, int z) {
+        return this.header.getInt(SECTOR_SIZE + index(x, z) * 4);
+    }
+
+    /**
+     * Reads the data of the chunk at the given coordinates,
+     * only the lowest 5 bits of the coordinates are used.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return The chunk data, or {@code null} if the chunk doesn't exist
+     * @throws IOException If an io exception occurs or the data is malformed
+     */
+    @Nullable
+    public CompoundTag readChunk(int x, int z) throws IOException {
+        final RawChunk rawChunk = readRawChunk(x, z);
+        return rawChunk == null ? null : rawChunk.decode();
+    }
+
+    /**
+     * Reads the data of the chunk at the given coordinates as it's stored
+     * in the file, only the lowest 5 bits of the coordinates are used.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @return The raw chunk data, or {@code null} if the chunk doesn't exist
+     * @throws IOException If an io exception occurs or the data is malformed
+     */
+    @Nullable
+    RawChunk readRawChunk(int x, int z) throws IOException {
+        final int index = index(x, z);
+        final StampedLock lock = lock(index);
+        // Read without locking, the data is only valid if
+        // the chunk wasn't written in the meantime
+        final long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            RawChunk rawChunk = null;
+            IOException exception = null;
+            try {
+                rawChunk = readSectors(index);
+            } catch (IOException e) {
+                exception = e;
+            }
+            if (lock.validate(stamp)) {
+                if (exception != null) {
+                    throw exception;
+                }
+                return rawChunk;
+            }
+        }
+        final long readStamp = lock.readLock();
+        try {
+            return readSectors(index);
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    @Nullable
+    private RawChunk readSectors(int index) throws IOException {
+        final int location = this.locations.get(index);
+        if (location == 0) {
+            return null;
+        }
+        final long position = (long) (location >>> 8) * SECTOR_SIZE;
+        final ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+        readFully(chunkHeader, position);
+        final int length = chunkHeader.getInt(0);
+        final int compressionType = chunkHeader.get(4) & 0xff;
+        if (length <= 0 || length > (location & 0xff) * SECTOR_SIZE - 4) {
+            throw new IOException("Invalid length of chunk " + (index & 31) + ", " + (index >> 5) + ": " + length);
+        }
+        if ((compressionType & EXTERNAL_FLAG) != 0) {
+            throw new IOException("Chunks that are stored in external files aren't supported.");
+        }
+        final ByteBuffer data = ByteBuffer.allocate(length - 1);
+        readFully(data, position + CHUNK_HEADER_SIZE);
+        data.flip();
+        return new RawChunk(compressionType, data);
+    }
+
+    /**
+     * Writes the data of the chunk at the given coordinates compressed
+     * with zlib, only the lowest 5 bits of the coordinates are used.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @param compoundTag The chunk data
+     * @throws IOException If an io exception occurs
+     */
+    public void writeChunk(int x, int z, CompoundTag compoundTag) throws IOException {
+        writeChunk(x, z, compoundTag, Compression.zlib());
+    }
+
+    /**
+     * Writes the data of the chunk at the given coordinates, only
+     * the lowest 5 bits of the coordinates are used. The compression
+     * must be gzip, zlib or none.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     * @param compoundTag The chunk data
+     * @param compression The compression
+     * @throws IOException If an io exception occurs
+     */
+    public void writeChunk(int x, int z, CompoundTag compoundTag, Compression compression) throws IOException {
+        requireNonNull(compoundTag, "compoundTag");
+        final int compressionType = toCompressionType(requireNonNull(compression, "compression"));
+        final ChunkBuffer buffer = new ChunkBuffer();
+        try (NbtTagOutputStream nos = new NbtTagOutputStream(compression.compress(buffer))) {
+            nos.write(compoundTag);
+        }
+        final byte[] bytes = buffer.bytes();
+        final int length = buffer.size();
+        putInt(bytes, 0, length - 4);
+        bytes[4] = (byte) compressionType;
+        final int sectors = (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        if (sectors > MAXIMUM_CHUNK_SECTORS) {
+            throw new IOException("The chunk data of " + (x & 31) + ", " + (z & 31) + " is too large: " + length + " bytes");
+        }
+        final int index = index(x, z);
+        final StampedLock lock = lock(index);
+        final long stamp = lock.writeLock();
+        try {
+            final int offset = allocate(sectors);
+            try {
+                writeFully(ByteBuffer.wrap(bytes, 0, length), (long) offset * SECTOR_SIZE);
+            } catch (IOException e) {
+                free((offset << 8) | sectors);
+                throw e;
+            }
+            final int location = (offset << 8) | sectors;
+            final int oldLocation = this.locations.getAndSet(index, location);
+            this.header.putInt(index * 4, location);
+            this.header.putInt(SECTOR_SIZE + index * 4, (int) (System.currentTimeMillis() / 1000L));
+            free(oldLocation);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes the data of the chunk at the given coordinates,
+     * only the lowest 5 bits of the coordinates are used.
+     *
+     * @param x The x coordinate of the chunk
+     * @param z The z coordinate of the chunk
+     */
+    public void deleteChunk(int x, int z) {
+        final int index = index(x, z);
+        final StampedLock lock = lock(index);
+        final long stamp = lock.writeLock();
+        try {
+            final int location = this.locations.getAndSet(index, 0);
+            this.header.putInt(index * 4, 0);
+            this.header.putInt(SECTOR_SIZE + index * 4, 0);
+            free(location);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Allocates the given amount of sectors, the first free range
+     * that is large enough is used, or the file is extended.
+     */
+    private int allocate(int sectors) throws IOException {
+        synchronized (this.usedSectors) {
+            int offset = this.usedSectors.nextClearBit(HEADER_SECTORS);
+            while (offset < this.sectors) {
+                final int end = this.usedSectors.nextSetBit(offset);
+                if (end == -1 || end - offset >= sectors) {
+                    break;
+                }
+                offset = this.usedSectors.nextClearBit(end);
+            }
+            if (offset + sectors > this.sectors) {
+                // Extend the file, so that it's always a multiple of the sector size
+                final long size = (long) (offset + sectors) * SECTOR_SIZE;
+                writeFully(ByteBuffer.allocate(1), size - 1);
+                this.sectors = offset + sectors;
+            }
+            this.usedSectors.set(offset, offset + sectors);
+            return offset;
+        }
+    }
+
+    private void free(int location) {
+        if (location != 0) {
+            synchronized (this.usedSectors) {
+                this.usedSectors.clear(location >>> 8, (location >>> 8) + (location & 0xff));
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (this.channel.read(buffer, position + buffer.position()) == -1) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer, position + buffer.position() - start);
+        }
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    static Compression toCompression(int compressionType) throws IOException {
+        switch (compressionType) {
+            case COMPRESSION_GZIP:
+                return Compression.gzip();
+            case COMPRESSION_ZLIB:
+                return Compression.zlib();
+            default:
+                throw new IOException("Unknown chunk compression type: " + compressionType);
+        }
+    }
+
+    private static int toCompressionType(Compression compression) {
+        switch (compression.getName()) {
+            case "gzip":
+                return COMPRESSION_GZIP;
+            case "zlib":
+                return COMPRESSION_ZLIB;
+            case "none":
+                return COMPRESSION_NONE;
+            default:
+                throw new IllegalArgumentException("Unsupported compression for region files: " + compression.getName());
+        }
+    }
+
+    /**
+     * Forces the header and the chunk data to be written to the storage device.
+     *
+     * @throws IOException If an io exception occurs
+     */
+    public void flush() throws IOException {
+        this.channel.force(false);
+        this.header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * A buffer for the chunk data, with room for the chunk header.
+     */
+    private static final class ChunkBuffer extends ByteArrayOutputStream {
+
+        ChunkBuffer() {
+            super(SECTOR_SIZE);
+            this.count = CHUNK_HEADER_SIZE;
+        }
+
+        byte[] bytes() {
+            return this.buf;
+        }
+    }
+}
@@ -24,22 +24,67 @@
  */
 package org.lanternpowered.nbt;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Test;
+import org.lanternpowered.nbt.io.Compression;
+import org.lanternpowered.nbt.io.KeyInterner;
+import org.lanternpowered.nbt.io.NbtIncrementalDecoder;
+import org.lanternpowered.nbt.io.NbtProjection;
+import org.lanternpowered.nbt.io.NbtReader;
+import org.lanternpowered.nbt.io.NbtSize;
+import org.lanternpowered.nbt.io.NbtTagBufferInputStream;
 import org.lanternpowered.nbt.io.NbtTagInputStream;
 import org.lanternpowered.nbt.io.NbtTagOutputStream;
+import org.lanternpowered.nbt.io.NbtType;
+import org.lanternpowered.nbt.io.NbtVisitorReader;
+import org.lanternpowered.nbt.io.NbtWriter;
+import org.lanternpowered.nbt.io.ParallelGzipOutputStream;
+import org.lanternpowered.nbt.io.TagVisitor;
+import org.lanternpowered.nbt.region.ChunkLoader;
+import org.lanternpowered.nbt.region.RegionFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 public final class TagTest {
 
-    @Test
-    public void test() throws IOException {
+    private static CompoundTag createTestCompound() {
         final CompoundTag compoundTag = new CompoundTag();
 
         // Boolean value
@@ -109,6 +154,1095 @@ public void test() throws IOException {
         intToMixedMapTag.put(new IntTag(10), new LongTag(9L));
         intToMixedMapTag.put(new IntTag(12), new CharArrayTag('H', 'O', 'L', 'A'));
         compoundTag.put("X", intToMixedMapTag);
+        return compoundTag;
+    }
+
+    private static byte[] toBytes(Tag<?> tag) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NbtTagOutputStream nos = new NbtTagOutputStream(baos)) {
+            nos.write(tag);
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testBufferInputStream() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final byte[] bytes = toBytes(compoundTag);
+        final CompoundTag expected = (CompoundTag) new NbtTagInputStream(new ByteArrayInputStream(bytes)).read();
+
+        final ByteBuffer heapBuffer = ByteBuffer.allocate(bytes.length + 3);
+        heapBuffer.position(3);
+        heapBuffer.put(bytes);
+        heapBuffer.position(3);
+        assertEquals(expected, new NbtTagBufferInputStream(heapBuffer.slice()).read());
+
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        directBuffer.put(bytes).put(bytes).flip();
+        final NbtTagBufferInputStream bis = new NbtTagBufferInputStream(directBuffer);
+        assertEquals(expected, bis.read());
+        assertEquals(bytes.length, directBuffer.position());
+        assertEquals(compoundTag, bis.read());
+        assertEquals(directBuffer.limit(), directBuffer.position());
+    }
+
+    @Test
+    public void testSmallBuffers() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final long[] longArray = new long[100];
+        final int[] intArray = new int[101];
+        for (int i = 0; i < longArray.length; i++) {
+            longArray[i] = i * 31L << 40;
+        }
+        for (int i = 0; i < intArray.length; i++) {
+            intArray[i] = -i * 31;
+        }
+        compoundTag.put("Y", new LongArrayTag(longArray));
+        compoundTag.put("Z", new IntArrayTag(intArray));
+        compoundTag.put("Lore", new StringTag("A string which doesn't fit in the buffer \u00e9\u4e16"));
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NbtTagOutputStream nos = new NbtTagOutputStream(baos, 16)) {
+            nos.write(compoundTag);
+        }
+        final byte[] bytes = baos.toByteArray();
+        assertArrayEquals(toBytes(compoundTag), bytes);
+        try (NbtTagInputStream nis = new NbtTagInputStream(new ByteArrayInputStream(bytes), Integer.MAX_VALUE, 16)) {
+            assertEquals(compoundTag, nis.read());
+        }
+    }
+
+    @Test
+    public void testStrings() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            builder.append((char) (i % 7 == 0 ? i * 31 : 'a' + i % 26));
+        }
+        final String[] values = { "", "Test", "\u0000", "\u00e9p\u00e9e", "\ud83d\ude00 \u20ac", builder.toString() };
+        for (String value : values) {
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            try (DataOutputStream dos = new DataOutputStream(expected)) {
+                dos.writeByte(NbtType.STRING.ordinal());
+                dos.writeUTF("");
+                dos.writeUTF(value);
+            }
+            for (int bufferSize : new int[] { 16, 8192 }) {
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                try (NbtTagOutputStream nos = new NbtTagOutputStream(baos, bufferSize)) {
+                    nos.write(new StringTag(value));
+                }
+                assertArrayEquals(expected.toByteArray(), baos.toByteArray());
+                assertEquals(new StringTag(value), new NbtTagInputStream(
+                        new ByteArrayInputStream(baos.toByteArray()), Integer.MAX_VALUE, bufferSize).read());
+                final CharArrayTag charArrayTag = new CharArrayTag(value.toCharArray());
+                assertEquals(charArrayTag, new NbtTagBufferInputStream(toBytes(charArrayTag)).read());
+            }
+        }
+    }
+
+    @Test
+    public void testEntryHeaders() throws IOException {
+        final StringBuilder longKey = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            longKey.append((char) ('a' + i % 26));
+        }
+        final CompoundTag compoundTag = new CompoundTag();
+        compoundTag.putInt("id", 1);
+        compoundTag.putBoolean("id2", true);
+        compoundTag.putInt(longKey.toString(), 2);
+        compoundTag.put("list", ListTag.ofShorts((short) 1, (short) 2));
+        compoundTag.put("list2", new ListTag<>());
+        final CompoundTag nested = new CompoundTag();
+        // The same keys with different types
+        nested.putLong("id", 3L);
+        nested.putChar("id2", 'c');
+        nested.put("list", ListTag.ofInts(1, 2));
+        nested.put("list2", ListTag.ofStrings("a"));
+        compoundTag.put("nested", nested);
+        final byte[] bytes = toBytes(compoundTag);
+        // The second write uses the cached headers
+        assertArrayEquals(bytes, toBytes(compoundTag));
+        assertEquals(compoundTag, new NbtTagBufferInputStream(bytes).read());
+    }
+
+    @Test
+    public void testSizeOf() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        compoundTag.put("Y", new CompoundArrayTag(CompoundTag.of(compoundTag), new CompoundTag()));
+        compoundTag.put("Z", new MapArrayTag((MapTag<?, ?>) compoundTag.get("X"), new MapTag<>()));
+        compoundTag.put("\u00e9p\u00e9e", new StringTag("\u0000 \ud83d\ude00 \u20ac"));
+        compoundTag.put("chars", new CharArrayTag('\u0000', '\u00e9', '\u20ac'));
+        compoundTag.put("booleans", ListTag.ofBooleans(true, false));
+        compoundTag.put("empty", new ListTag<>());
+        for (int i = 0; i < 18; i++) {
+            compoundTag.put("booleans" + i, new BooleanArrayTag(new boolean[i]));
+        }
+        assertEquals(toBytes(compoundTag).length, NbtSize.sizeOf(compoundTag));
+        for (Map.Entry<String, Tag<?>> entry : compoundTag.entrySet()) {
+            assertEquals(toBytes(entry.getValue()).length, NbtSize.sizeOf(entry.getValue()));
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (NbtWriter writer = new NbtWriter(baos)) {
+                writer.writeTag(entry.getKey(), entry.getValue());
+            }
+            assertEquals(baos.size(), NbtSize.sizeOf(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    @Test
+    public void testIncrementalDecoder() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        compoundTag.put("Y", new CompoundArrayTag(CompoundTag.of(compoundTag), new CompoundTag()));
+        compoundTag.put("Z", new ListTag<>());
+        final byte[] bytes = toBytes(compoundTag);
+
+        // Byte at a time
+        final NbtIncrementalDecoder decoder = new NbtIncrementalDecoder();
+        for (int i = 0; i < bytes.length - 1; i++) {
+            decoder.feed(ByteBuffer.wrap(bytes, i, 1));
+            assertNull(decoder.poll());
+            assertTrue(decoder.hasPendingData());
+        }
+        decoder.feed(ByteBuffer.wrap(bytes, bytes.length - 1, 1));
+        assertEquals(compoundTag, decoder.poll());
+        assertNull(decoder.poll());
+        assertFalse(decoder.hasPendingData());
+
+        // Multiple root entries split at random offsets
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NbtTagOutputStream nos = new NbtTagOutputStream(baos)) {
+            nos.write(compoundTag);
+            nos.write(new IntTag(5));
+            nos.write(compoundTag);
+        }
+        final byte[] multiple = baos.toByteArray();
+        final Random random = new Random(0);
+        final List<Tag<?>> tags = new ArrayList<>();
+        for (int i = 0; i < multiple.length; ) {
+            final int length = Math.min(multiple.length - i, random.nextInt(100));
+            decoder.feed(ByteBuffer.wrap(multiple, i, length));
+            i += length;
+            Tag<?> tag;
+            while ((tag = decoder.poll()) != null) {
+                tags.add(tag);
+            }
+        }
+        assertEquals(Arrays.asList(compoundTag, new IntTag(5), compoundTag), tags);
+
+        // Visitor events
+        final Set<String> names = new HashSet<>();
+        decoder.feed(ByteBuffer.wrap(bytes));
+        assertTrue(decoder.poll(new TagVisitor() {
+            @Override
+            public void visitEntry(String name, NbtType type) {
+                names.add(name);
+            }
+        }));
+        assertTrue(names.containsAll(compoundTag.keySet()));
+    }
+
+    private static byte[] compress(Compression compression, Tag<?> tag) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NbtTagOutputStream nos = new NbtTagOutputStream(compression.compress(baos))) {
+            nos.write(tag);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Tag<?> decompress(Compression compression, byte[] bytes) throws IOException {
+        try (NbtTagInputStream nis = new NbtTagInputStream(compression.decompress(new ByteArrayInputStream(bytes)))) {
+            return nis.read();
+        }
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final Compression[] compressions = {
+                Compression.gzip(), Compression.zlib(), Compression.deflate(), Compression.none(),
+                Compression.gzip(Deflater.BEST_SPEED, Deflater.FILTERED),
+                Compression.zlib(Deflater.BEST_COMPRESSION, Deflater.HUFFMAN_ONLY),
+                Compression.deflate(Deflater.NO_COMPRESSION, Deflater.DEFAULT_STRATEGY) };
+        for (Compression compression : compressions) {
+            final byte[] bytes = compress(compression, compoundTag);
+            // The pooled deflaters are reset between the documents
+            assertArrayEquals(bytes, compress(compression, compoundTag));
+            assertEquals(compoundTag, decompress(compression, bytes));
+            assertEquals(compoundTag, decompress(compression, bytes));
+        }
+
+        // Compatible with the streams of the jdk
+        try (NbtTagInputStream nis = new NbtTagInputStream(new GZIPInputStream(
+                new ByteArrayInputStream(compress(Compression.gzip(), compoundTag))))) {
+            assertEquals(compoundTag, nis.read());
+        }
+        try (NbtTagInputStream nis = new NbtTagInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(compress(Compression.zlib(), compoundTag))))) {
+            assertEquals(compoundTag, nis.read());
+        }
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int i = 0; i < 2; i++) {
+            // Concatenated gzip members
+            try (NbtTagOutputStream nos = new NbtTagOutputStream(new GZIPOutputStream(baos) {
+                @Override
+                public void close() throws IOException {
+                    finish();
+                }
+            })) {
+                nos.write(compoundTag);
+            }
+        }
+        try (NbtTagInputStream nis = new NbtTagInputStream(
+                Compression.gzip().decompress(new ByteArrayInputStream(baos.toByteArray())))) {
+            assertEquals(compoundTag, nis.read());
+            assertEquals(compoundTag, nis.read());
+        }
+
+        // Detect the compression
+        final byte[] raw = toBytes(compoundTag);
+        assertTrue(Compression.gzip().test(new ByteArrayInputStream(compress(Compression.gzip(), compoundTag))));
+        assertFalse(Compression.gzip().test(new ByteArrayInputStream(raw)));
+        assertTrue(Compression.zlib().test(new ByteArrayInputStream(compress(Compression.zlib(), compoundTag))));
+        assertFalse(Compression.zlib().test(new ByteArrayInputStream(raw)));
+        assertTrue(Compression.none().test(new ByteArrayInputStream(raw)));
+
+        // The names don't depend on the default locale
+        final Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals("gzip", Compression.gzip().getName());
+        } finally {
+            Locale.setDefault(locale);
+        }
+
+        // Closed streams can't be used anymore
+        final OutputStream os = Compression.gzip().compress(new ByteArrayOutputStream());
+        os.close();
+        os.close();
+        try {
+            os.write(1);
+            throw new AssertionError();
+        } catch (IOException ignored) {
+        }
+        final InputStream is = Compression.zlib().decompress(new ByteArrayInputStream(compress(Compression.zlib(), compoundTag)));
+        is.close();
+        try {
+            is.read();
+            throw new AssertionError();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testParallelGzip() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final ListTag<CompoundTag> listTag = new ListTag<>();
+        for (int i = 0; i < 200; i++) {
+            listTag.add(CompoundTag.of(compoundTag));
+        }
+        compoundTag.put("Y", listTag);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int blockSize : new int[] { 100, 1000, 40000, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE }) {
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                try (NbtTagOutputStream nos = new NbtTagOutputStream(new ParallelGzipOutputStream(
+                        baos, executor, Deflater.DEFAULT_COMPRESSION, blockSize))) {
+                    nos.write(compoundTag);
+                }
+                try (NbtTagInputStream nis = new NbtTagInputStream(new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray())))) {
+                    assertEquals(compoundTag, nis.read());
+                }
+                assertEquals(compoundTag, decompress(Compression.gzip(), baos.toByteArray()));
+            }
+            // Empty data
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            new ParallelGzipOutputStream(baos, executor).close();
+            try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+                assertEquals(-1, is.read());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static CompoundTag createChunk(int x, int z, int size) {
+        final CompoundTag compoundTag = new CompoundTag();
+        compoundTag.putInt("xPos", x);
+        compoundTag.putInt("zPos", z);
+        final byte[] bytes = new byte[size];
+        new Random(x * 31 + z).nextBytes(bytes);
+        compoundTag.put("Data", new ByteArrayTag(bytes));
+        return compoundTag;
+    }
+
+    @Test
+    public void testRegionFile() throws IOException {
+        final Path path = Files.createTempFile("region", ".mca");
+        try {
+            final Map<Integer, CompoundTag> chunks = new HashMap<>();
+            try (RegionFile regionFile = new RegionFile(path)) {
+                assertFalse(regionFile.hasChunk(0, 0));
+                assertNull(regionFile.readChunk(0, 0));
+                final Compression[] compressions = { Compression.zlib(), Compression.gzip(), Compression.none() };
+                for (int i = 0; i < 64; i++) {
+                    final int x = i % 32;
+                    final int z = i / 32;
+                    // Random data doesn't compress, sizes from a part of a sector up to multiple sectors
+                    final CompoundTag chunk = createChunk(x, z, (i * 997) % 20000);
+                    regionFile.writeChunk(x, z, chunk, compressions[i % compressions.length]);
+                    chunks.put(i, chunk);
+                }
+                // Rewrite chunks with different sizes, and delete some
+                for (int i = 0; i < 64; i += 3) {
+                    final CompoundTag chunk = createChunk(i, i, (i * 7919) % 30000);
+                    regionFile.writeChunk(i % 32, i / 32, chunk);
+                    chunks.put(i, chunk);
+                }
+                for (int i = 1; i < 64; i += 5) {
+                    regionFile.deleteChunk(i % 32, i / 32);
+                    chunks.remove(i);
+                }
+                for (int i = 0; i < 64; i++) {
+                    // The coordinates are relative to the region
+                    assertEquals(chunks.get(i), regionFile.readChunk(i % 32 + 64, i / 32 - 32));
+                }
+                assertTrue(regionFile.getTimestamp(0, 0) > 0);
+            }
+            assertEquals(0, Files.size(path) % RegionFile.SECTOR_SIZE);
+            try (RegionFile regionFile = new RegionFile(path)) {
+                for (int i = 0; i < 64; i++) {
+                    assertEquals(chunks.containsKey(i), regionFile.hasChunk(i % 32, i / 32));
+                    assertEquals(chunks.get(i), regionFile.readChunk(i % 32, i / 32));
+                }
+                // Freed sectors are reused
+                final long size = Files.size(path);
+                regionFile.writeChunk(1, 0, createChunk(1, 0, 100));
+                assertEquals(size, Files.size(path));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testRegionFileConcurrency() throws Exception {
+        final Path path = Files.createTempFile("region", ".mca");
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            try (RegionFile regionFile = new RegionFile(path)) {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(() -> {
+                        final Random random = new Random(thread);
+                        for (int i = 0; i < 300; i++) {
+                            // Every thread writes its own chunks, but reads all of them
+                            final int x = thread * 4 + random.nextInt(4);
+                            final int z = random.nextInt(4);
+                            if (random.nextInt(3) == 0) {
+                                regionFile.writeChunk(x, z, createChunk(x, z, random.nextInt(3) * 5000 + random.nextInt(100)));
+                            } else {
+                                final int x1 = random.nextInt(threads * 4);
+                                final CompoundTag chunk = regionFile.readChunk(x1, z);
+                                if (chunk != null) {
+                                    final int size = ((ByteArrayTag) chunk.get("Data")).get().length;
+                                    assertEquals(createChunk(x1, z, size), chunk);
+                                }
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            // No sectors may be used by multiple chunks
+            final ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(path), 0, RegionFile.SECTOR_SIZE);
+            final Set<Integer> usedSectors = new HashSet<>();
+            for (int i = 0; i < 1024; i++) {
+                final int location = header.getInt(i * 4);
+                for (int j = 0; j < (location & 0xff); j++) {
+                    assertTrue(usedSectors.add((location >>> 8) + j));
+                }
+            }
+        } finally {
+            executor.shutdown();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testChunkLoader() throws Exception {
+        final Path path = Files.createTempFile("region", ".mca");
+        final ExecutorService readExecutor = Executors.newSingleThreadExecutor();
+        final ExecutorService inflateExecutor = Executors.newFixedThreadPool(2);
+        final ExecutorService decodeExecutor = Executors.newFixedThreadPool(2);
+        try (RegionFile regionFile = new RegionFile(path)) {
+            final Compression[] compressions = { Compression.zlib(), Compression.gzip(), Compression.none() };
+            final Map<Integer, CompoundTag> expected = new HashMap<>();
+            final List<ChunkLoader.Request> requests = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                final CompoundTag chunk = createChunk(i, 0, i * 500);
+                regionFile.writeChunk(i, 0, chunk, compressions[i % compressions.length]);
+                expected.put(i, chunk);
+                requests.add(new ChunkLoader.Request(regionFile, i, 0));
+            }
+            // A missing chunk
+            requests.add(new ChunkLoader.Request(regionFile, 0, 1));
+            final ChunkLoader chunkLoader = new ChunkLoader(readExecutor, inflateExecutor, decodeExecutor);
+            final List<CompletableFuture<ChunkLoader.Result>> futures = chunkLoader.loadAll(requests);
+            assertEquals(requests.size(), futures.size());
+            final Map<Integer, CompoundTag> loaded = new HashMap<>();
+            final Set<ChunkLoader.Request> completed = new HashSet<>();
+            for (CompletableFuture<ChunkLoader.Result> future : futures) {
+                final ChunkLoader.Result result = future.get();
+                assertTrue(completed.add(result.getRequest()));
+                final CompoundTag chunk = result.getChunk();
+                if (result.getRequest().getZ() == 1) {
+                    assertNull(chunk);
+                } else {
+                    loaded.put(result.getRequest().getX(), chunk);
+                }
+            }
+            assertEquals(expected, loaded);
+            assertEquals(createChunk(5, 0, 2500), chunkLoader.load(regionFile, 5, 0).get());
+            assertNull(chunkLoader.load(regionFile, 5, 5).get());
+        } finally {
+            readExecutor.shutdown();
+            inflateExecutor.shutdown();
+            decodeExecutor.shutdown();
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testPrimitiveListTags() throws IOException {
+        final ListTag<IntTag> intListTag = ListTag.ofInts(3, 1, 2);
+        assertTrue(intListTag instanceof IntListTag);
+        final ListTag<IntTag> boxedListTag = new ListTag<>();
+        for (int value : new int[] { 3, 1, 2 }) {
+            boxedListTag.add(new IntTag(value));
+        }
+        assertEquals(boxedListTag, intListTag);
+        assertEquals(intListTag, boxedListTag);
+        assertEquals(boxedListTag.hashCode(), intListTag.hashCode());
+
+        intListTag.add(new IntTag(4));
+        intListTag.add(0, new IntTag(5));
+        intListTag.set(1, new IntTag(6));
+        assertEquals(new IntTag(6), intListTag.get(1));
+        assertEquals(2, intListTag.indexOf(new IntTag(1)));
+        assertTrue(intListTag.remove(new IntTag(1)));
+        assertEquals(new IntTag(5), intListTag.remove(0));
+        intListTag.subList(0, 1).clear();
+        assertEquals(ListTag.ofInts(2, 4), intListTag);
+        intListTag.addAll(Arrays.asList(new IntTag(8), new IntTag(7)));
+        intListTag.removeIf(tag -> tag.intValue() == 4);
+        intListTag.sort((o1, o2) -> Integer.compare(o1.intValue(), o2.intValue()));
+        assertArrayEquals(new int[] { 2, 7, 8 }, ((IntListTag) intListTag).toIntArray());
+        final ListTag<IntTag> copy = (ListTag<IntTag>) intListTag.clone();
+        ((IntListTag) intListTag).setInt(0, 9);
+        assertEquals(new IntTag(2), copy.get(0));
+        try {
+            ((ListTag) intListTag).add(new LongTag(1L));
+            throw new AssertionError("Expected a IllegalArgumentException");
+        } catch (IllegalArgumentException ignored) {
+        }
+        // The boxed elements can't be modified, they aren't backed by the list
+        assertRejected(() -> intListTag.get(0).set(5));
+        // Iterators fail fast when the list is modified
+        try {
+            for (IntTag ignored : intListTag) {
+                intListTag.add(new IntTag(1));
+            }
+            throw new AssertionError("Expected a ConcurrentModificationException");
+        } catch (ConcurrentModificationException ignored) {
+        }
+        assertTrue(ListTag.ofInts(Arrays.asList(1, null, 2), 0) instanceof IntListTag);
+        assertEquals(ListTag.ofInts(1, 2), ListTag.ofInts(new Integer[] { 1, null, 2 }));
+
+        final CompoundTag compoundTag = new CompoundTag();
+        compoundTag.put("Pos", ListTag.ofDoubles(1.5, 64.0, -3.25));
+        compoundTag.put("Rotation", ListTag.ofFloats(90f, 0f));
+        compoundTag.put("Bytes", ListTag.ofBytes((byte) 1, (byte) -1));
+        compoundTag.put("Shorts", ListTag.ofShorts((short) 1, (short) 2));
+        compoundTag.put("Longs", ListTag.ofLongs(1L, Long.MIN_VALUE));
+        compoundTag.put("Booleans", ListTag.ofBooleans(true, false));
+        final ListTag<ListTag<IntTag>> nested = new ListTag<>();
+        nested.add(ListTag.ofInts(1, 2));
+        nested.add(new IntListTag());
+        compoundTag.put("Nested", nested);
+        final byte[] bytes = toBytes(compoundTag);
+        assertEquals(bytes.length, NbtSize.sizeOf(compoundTag));
+
+        // The boxed lists are encoded in the same way
+        final CompoundTag boxedCompoundTag = new CompoundTag();
+        for (Map.Entry<String, Tag<?>> entry : compoundTag.entrySet()) {
+            boxedCompoundTag.put(entry.getKey(), ListTag.of(new ArrayList<>((ListTag<?>) entry.getValue())));
+        }
+        assertArrayEquals(bytes, toBytes(boxedCompoundTag));
+
+        final CompoundTag read = (CompoundTag) new NbtTagInputStream(new ByteArrayInputStream(bytes)).read();
+        assertEquals(compoundTag, read);
+        assertTrue(read.get("Pos") instanceof DoubleListTag);
+        assertTrue(read.get("Rotation") instanceof FloatListTag);
+        assertTrue(read.get("Bytes") instanceof ByteListTag);
+        assertTrue(read.get("Shorts") instanceof ShortListTag);
+        assertTrue(read.get("Longs") instanceof LongListTag);
+        assertFalse(read.get("Booleans") instanceof PrimitiveListTag);
+        assertTrue(((ListTag<?>) read.get("Nested")).get(0) instanceof IntListTag);
+        assertEquals(-3.25, ((DoubleListTag) read.get("Pos")).getDouble(2), 0.0);
+
+        assertTrue(read.get("Pos").toString().startsWith("ListTag["));
+
+        // A corrupt list size doesn't allocate the whole list up front
+        final byte[] corrupt = { 9, 0, 0, 6, 0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0, 0 };
+        try {
+            new NbtTagInputStream(new ByteArrayInputStream(corrupt)).read();
+            throw new AssertionError("Expected a IOException");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testCompactCompound() throws IOException {
+        final CompoundTag compoundTag = new CompoundTag();
+        for (int i = 0; i < 8; i++) {
+            compoundTag.putInt("key" + i, i);
+        }
+        final Set<String> keySet = compoundTag.keySet();
+        assertEquals(Arrays.asList("key0", "key1", "key2", "key3", "key4", "key5", "key6", "key7"),
+                new ArrayList<>(keySet));
+        final Iterator<Map.Entry<String, Tag<?>>> it = compoundTag.entrySet().iterator();
+        it.next().setValue(new IntTag(10));
+        it.next();
+        it.remove();
+        assertEquals(new IntTag(10), compoundTag.get("key0"));
+        assertFalse(compoundTag.containsKey("key1"));
+        final CompoundTag clone = (CompoundTag) compoundTag.clone();
+        // Grow beyond the compact size, the views remain valid
+        for (int i = 8; i < 40; i++) {
+            compoundTag.putInt("key" + i, i);
+        }
+        assertEquals(39, keySet.size());
+        assertTrue(keySet.contains("key39"));
+        assertEquals(7, clone.size());
+        assertEquals(new HashMap<>(clone), clone);
+
+        // Compare all the operations with a HashMap
+        final Random random = new Random(1);
+        final Map<String, Tag<?>> expected = new HashMap<>();
+        CompoundTag actual = new CompoundTag();
+        for (int i = 0; i < 40000; i++) {
+            if (i % 1000 == 0) {
+                expected.clear();
+                actual = i % 2000 == 0 ? new CompoundTag() : actual;
+                actual.clear();
+            }
+            // Up to 40 keys, to move beyond the compact size
+            final String key = "k" + random.nextInt(i < 20000 ? 12 : 40);
+            final Tag<?> value = new IntTag(random.nextInt(3));
+            switch (random.nextInt(9)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, value), actual.put(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), actual.remove(key));
+                    break;
+                case 3:
+                    assertEquals(expected.putIfAbsent(key, value), actual.putIfAbsent(key, value));
+                    break;
+                case 4:
+                    assertEquals(expected.remove(key, value), actual.remove(key, value));
+                    break;
+                case 5:
+                    assertEquals(expected.replace(key, value), actual.replace(key, value));
+                    break;
+                case 6:
+                    assertEquals(expected.merge(key, value, (o, n) -> o.equals(n) ? null : n),
+                            actual.merge(key, value, (o, n) -> o.equals(n) ? null : n));
+                    break;
+                case 7:
+                    assertEquals(expected.computeIfAbsent(key, k -> value), actual.computeIfAbsent(key, k -> value));
+                    break;
+                default:
+                    assertEquals(expected.values().removeIf(value::equals), actual.values().removeIf(value::equals));
+                    assertEquals(expected.keySet().remove(key), actual.keySet().remove(key));
+                    break;
+            }
+            assertEquals(expected, actual);
+            assertEquals(expected.hashCode(), actual.hashCode());
+            assertEquals(expected.get(key), actual.get(key));
+        }
+
+        // Decoded siblings share their shape, modifying one doesn't affect the others
+        final ListTag<CompoundTag> siblings = new ListTag<>();
+        for (int i = 0; i < 10; i++) {
+            final CompoundTag sibling = new CompoundTag();
+            for (int j = 0; j < 20; j++) {
+                sibling.putInt("key" + j, (i + 1) * j);
+            }
+            siblings.add(sibling);
+        }
+        final ListTag<CompoundTag> read = (ListTag<CompoundTag>) new NbtTagBufferInputStream(toBytes(siblings)).read();
+        assertEquals(siblings, read);
+        read.get(0).remove("key5");
+        read.get(1).putInt("extra", 1);
+        read.get(2).clear();
+        assertEquals(19, read.get(0).size());
+        assertFalse(read.get(0).containsKey("key5"));
+        assertEquals(0, read.get(0).getInt("key0"));
+        assertEquals(19, read.get(0).getInt("key19"));
+        assertEquals(21, read.get(1).size());
+        assertTrue(read.get(2).isEmpty());
+        assertEquals(siblings.subList(3, 10), read.subList(3, 10));
+        final List<String> keys = new ArrayList<>(read.get(0).keySet());
+        assertEquals("key4", keys.get(4));
+        assertEquals("key6", keys.get(5));
+    }
+
+    @Test
+    public void testVisitorReader() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final Set<String> rootKeys = new HashSet<>();
+        final long[] longSum = new long[1];
+        final TagVisitor visitor = new TagVisitor() {
+            private int depth;
+
+            @Override
+            public void visitEntry(String name, NbtType type) {
+                if (this.depth == 1) {
+                    rootKeys.add(name);
+                }
+            }
+
+            @Override
+            public void visitCompoundStart() {
+                this.depth++;
+            }
+
+            @Override
+            public void visitCompoundEnd() {
+                this.depth--;
+            }
+
+            @Override
+            public void visitLongArray(long[] value) {
+                for (long v : value) {
+                    longSum[0] += v;
+                }
+            }
+        };
+        try (NbtVisitorReader reader = new NbtVisitorReader(ByteBuffer.wrap(toBytes(compoundTag)))) {
+            reader.accept(visitor);
+        }
+        assertEquals(compoundTag.keySet(), rootKeys);
+        assertEquals(90L, longSum[0]);
+    }
+
+    @Test
+    public void testReader() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final ByteBuffer buffer = ByteBuffer.wrap(toBytes(compoundTag));
+        final Set<String> rootKeys = new HashSet<>();
+        int intSum = 0;
+        try (NbtReader reader = new NbtReader(buffer)) {
+            assertEquals(NbtReader.Token.ENTRY, reader.next());
+            assertEquals(NbtType.COMPOUND, reader.getType());
+            assertEquals(NbtReader.Token.COMPOUND_START, reader.next());
+            NbtReader.Token token;
+            while ((token = reader.next()) != NbtReader.Token.COMPOUND_END) {
+                assertEquals(NbtReader.Token.ENTRY, token);
+                final String name = reader.getName();
+                rootKeys.add(name);
+                if (name.equals("K")) {
+                    assertEquals(NbtReader.Token.VALUE, reader.next());
+                    assertEquals(3, reader.getInt());
+                } else if (name.equals("Q")) {
+                    assertEquals(NbtReader.Token.VALUE, reader.next());
+                    assertEquals("Test", reader.getString());
+                } else if (name.equals("T")) {
+                    assertEquals(NbtReader.Token.LIST_START, reader.next());
+                    assertEquals(NbtType.INT, reader.getType());
+                    assertEquals(2, reader.getSize());
+                    while (reader.next() == NbtReader.Token.VALUE) {
+                        intSum += reader.getInt();
+                    }
+                } else if (name.equals("U")) {
+                    assertEquals(NbtReader.Token.LIST_START, reader.next());
+                    reader.skipValue();
+                } else if (name.equals("V") || name.equals("B")) {
+                    assertEquals(compoundTag.get(name), reader.readTag());
+                } else if (name.equals("C")) {
+                    // Unread values are skipped by the reader
+                    assertEquals(NbtReader.Token.VALUE, reader.next());
+                } else {
+                    reader.skipValue();
+                }
+            }
+            assertEquals(NbtReader.Token.END_DOCUMENT, reader.next());
+        }
+        assertEquals(compoundTag.keySet(), rootKeys);
+        assertEquals(50, intSum);
+        assertEquals(buffer.limit(), buffer.position());
+    }
+
+    @Test
+    public void testWriter() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (NbtWriter writer = new NbtWriter(baos)) {
+            writer.beginCompound("");
+            // Follow the iteration order of the compound to get the same bytes
+            for (Map.Entry<String, Tag<?>> entry : compoundTag.entrySet()) {
+                final String name = entry.getKey();
+                final Tag<?> tag = entry.getValue();
+                if (tag instanceof IntTag) {
+                    writer.writeInt(name, ((IntTag) tag).intValue());
+                } else if (tag instanceof BooleanArrayTag) {
+                    writer.writeBooleanArray(name, ((BooleanArrayTag) tag).get());
+                } else if (tag instanceof LongArrayTag) {
+                    writer.writeLongArray(name, ((LongArrayTag) tag).get());
+                } else if (tag instanceof StringTag) {
+                    writer.writeString(name, ((StringTag) tag).get());
+                } else if (tag instanceof CharTag) {
+                    writer.writeChar(name, ((CharTag) tag).charValue());
+                } else if (name.equals("S")) {
+                    writer.beginCompound(name);
+                    writer.writeIntArray("A", new int[] { 1000 });
+                    writer.endCompound();
+                } else if (name.equals("T")) {
+                    writer.beginList(name, NbtType.INT, 2);
+                    writer.writeInt(20);
+                    writer.writeInt(30);
+                    writer.endList();
+                } else if (name.equals("U")) {
+                    writer.beginList(name, NbtType.DOUBLE_ARRAY, 2);
+                    writer.writeDoubleArray(new double[] { 7.3, 7.4 });
+                    writer.writeTag(new DoubleArrayTag(5.3, 1.2));
+                    writer.endList();
+                } else {
+                    writer.writeTag(name, tag);
+                }
+            }
+            writer.endCompound();
+            assertEquals(0, writer.getDepth());
+        }
+        assertArrayEquals(toBytes(compoundTag), baos.toByteArray());
+    }
+
+    @Test
+    public void testSkip() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        compoundTag.put("Y", new CompoundArrayTag(CompoundTag.of(compoundTag), new CompoundTag()));
+        compoundTag.put("Z", new MapArrayTag((MapTag<?, ?>) compoundTag.get("X"), new MapTag<>()));
+        for (Map.Entry<String, Tag<?>> entry : compoundTag.entrySet()) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (NbtWriter writer = new NbtWriter(baos)) {
+                writer.beginCompound("");
+                writer.writeTag(entry.getKey(), entry.getValue());
+                writer.writeInt("End", 7);
+                writer.endCompound();
+            }
+            try (NbtReader reader = new NbtReader(new ByteArrayInputStream(baos.toByteArray()), Integer.MAX_VALUE, 16)) {
+                assertEquals(NbtReader.Token.ENTRY, reader.next());
+                assertEquals(NbtReader.Token.COMPOUND_START, reader.next());
+                assertEquals(NbtReader.Token.ENTRY, reader.next());
+                assertEquals(entry.getKey(), reader.getName());
+                reader.skipValue();
+                assertEquals(NbtReader.Token.ENTRY, reader.next());
+                assertEquals("End", reader.getName());
+                assertEquals(NbtReader.Token.VALUE, reader.next());
+                assertEquals(7, reader.getInt());
+                assertEquals(NbtReader.Token.COMPOUND_END, reader.next());
+                assertEquals(NbtReader.Token.END_DOCUMENT, reader.next());
+            }
+        }
+    }
+
+    @Test
+    public void testProjection() throws IOException {
+        final CompoundTag level = new CompoundTag();
+        level.putInt("xPos", 3);
+        level.putInt("zPos", -7);
+        final ListTag<CompoundTag> sections = new ListTag<>();
+        final ListTag<CompoundTag> expectedSections = new ListTag<>();
+        for (int y = 0; y < 2; y++) {
+            final CompoundTag section = new CompoundTag();
+            section.putByte("Y", (byte) y);
+            section.put("BlockStates", new LongArrayTag(y, y + 1, y + 2));
+            section.put("BlockLight", new ByteArrayTag(new byte[16]));
+            sections.add(section);
+            final CompoundTag expectedSection = new CompoundTag();
+            expectedSection.put("BlockStates", new LongArrayTag(y, y + 1, y + 2));
+            expectedSections.add(expectedSection);
+        }
+        level.put("Sections", sections);
+        level.put("Test", createTestCompound());
+        final CompoundTag compoundTag = new CompoundTag();
+        compoundTag.put("Level", level);
+        compoundTag.putInt("DataVersion", 1631);
+
+        final CompoundTag expectedLevel = new CompoundTag();
+        expectedLevel.putInt("xPos", 3);
+        expectedLevel.put("Sections", expectedSections);
+        final CompoundTag expected = new CompoundTag();
+        expected.put("Level", expectedLevel);
+
+        final NbtProjection projection = NbtProjection.of(
+                "Level.Sections[*].BlockStates", "Level.xPos", "Level.Missing.Path", "DataVersion[*]");
+        final byte[] bytes = toBytes(compoundTag);
+        assertEquals(expected, new NbtTagInputStream(new ByteArrayInputStream(bytes)).read(projection));
+        assertEquals(expected, new NbtTagBufferInputStream(bytes).read(projection));
+        final CompoundTag projected = new NbtTagBufferInputStream(bytes).read(NbtProjection.of("Level.Test"));
+        assertEquals(level.get("Test"), ((CompoundTag) projected.get("Level")).get("Test"));
+    }
+
+    @Test
+    public void testKeyInterner() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final byte[] bytes = toBytes(compoundTag);
+        final KeyInterner keyInterner = KeyInterner.create(64);
+        final CompoundTag first = (CompoundTag) new NbtTagBufferInputStream(
+                ByteBuffer.wrap(bytes), Integer.MAX_VALUE, keyInterner).read();
+        final CompoundTag second = (CompoundTag) new NbtTagInputStream(
+                new ByteArrayInputStream(bytes), Integer.MAX_VALUE, 16, keyInterner).read();
+        assertEquals(compoundTag, first);
+        assertEquals(compoundTag, second);
+        final Map<String, String> keys = new HashMap<>();
+        for (String key : first.keySet()) {
+            keys.put(key, key);
+        }
+        for (String key : second.keySet()) {
+            assertSame(keys.get(key), key);
+        }
+
+        final int[] count = new int[1];
+        final CompoundTag third = (CompoundTag) new NbtTagBufferInputStream(ByteBuffer.wrap(bytes), Integer.MAX_VALUE,
+                (keyBytes, offset, length) -> {
+                    count[0]++;
+                    return KeyInterner.none().intern(keyBytes, offset, length);
+                }).read();
+        assertEquals(compoundTag, third);
+        assertTrue(count[0] > compoundTag.size());
+    }
+
+    @Test
+    public void testLazyRead() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final ByteBuffer buffer = ByteBuffer.wrap(toBytes(compoundTag));
+        final CompoundTag lazyTag = new NbtTagBufferInputStream(buffer).readLazy();
+        assertEquals(buffer.limit(), buffer.position());
+        assertEquals(compoundTag.size(), lazyTag.size());
+        assertTrue(lazyTag.containsKey("X"));
+        assertEquals(3, lazyTag.getInt("K"));
+        assertEquals(compoundTag.get("S"), lazyTag.get("S"));
+        assertEquals(compoundTag.get("U"), lazyTag.remove("U"));
+        assertFalse(lazyTag.containsKey("U"));
+        lazyTag.put("U", compoundTag.get("U"));
+        assertEquals(compoundTag, lazyTag);
+        assertEquals(compoundTag, new NbtTagBufferInputStream(toBytes(lazyTag)).read());
+
+        // The entries keep the order in which they were read
+        final CompoundTag ordered = new CompoundTag();
+        ordered.putInt("Z", 1);
+        ordered.putInt("A", 2);
+        ordered.putInt("M", 3);
+        final CompoundTag lazyOrdered = new NbtTagBufferInputStream(ByteBuffer.wrap(toBytes(ordered))).readLazy();
+        assertEquals(new ArrayList<>(ordered.keySet()), new ArrayList<>(lazyOrdered.keySet()));
+        // Also if some of the entries were decoded on their own
+        final CompoundTag partlyDecoded = new NbtTagBufferInputStream(ByteBuffer.wrap(toBytes(ordered))).readLazy();
+        partlyDecoded.get("M");
+        partlyDecoded.remove("Z");
+        partlyDecoded.putInt("Z", 4);
+        partlyDecoded.putInt("B", 5);
+        assertEquals(Arrays.asList("A", "M", "Z", "B"), new ArrayList<>(partlyDecoded.keySet()));
+    }
+
+    private static void assertRejected(Runnable modification) {
+        try {
+            modification.run();
+            fail("The modification of a frozen tag wasn't rejected");
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testFreeze() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final ListTag<CompoundTag> entities = new ListTag<>();
+        for (int i = 0; i < 3; i++) {
+            final CompoundTag entity = new CompoundTag();
+            entity.putInt("Id", i);
+            entities.add(entity);
+        }
+        compoundTag.put("Y", entities);
+        compoundTag.put("Z", ListTag.ofInts(1, 2, 3));
+        final CompoundTag large = new CompoundTag();
+        for (int i = 0; i < 40; i++) {
+            large.putInt("Key" + i, i);
+        }
+        compoundTag.put("Large", large);
+        assertEquals(new IntArrayTag(1, 2, 3).hashCode(), new IntArrayTag(1, 2, 3).hashCode());
+        final int hashCode = compoundTag.hashCode();
+
+        final CompoundTag frozen = compoundTag.freeze();
+        assertNotSame(compoundTag, frozen);
+        assertSame(frozen, frozen.freeze());
+        assertFalse(compoundTag.isFrozen());
+        assertFalse(entities.get(1).isFrozen());
+        assertTrue(frozen.isFrozen());
+        assertTrue(frozen.get("K").isFrozen());
+        assertTrue(frozen.get("Large").isFrozen());
+        assertEquals(compoundTag, frozen);
+        assertEquals(frozen, compoundTag);
+        assertEquals(hashCode, frozen.hashCode());
+        assertEquals(hashCode, frozen.hashCode());
+        assertEquals(compoundTag.toString(), frozen.toString());
+        final CompoundTag decoded = (CompoundTag) new NbtTagBufferInputStream(toBytes(frozen)).read();
+        assertFalse(decoded.isFrozen());
+        assertEquals(frozen, decoded);
+        assertEquals(hashCode, decoded.hashCode());
+
+        // The original tags can still be modified, without affecting the snapshot
+        large.putInt("Key0", 5);
+        entities.get(0).putInt("Id", 5);
+        assertEquals(0, ((CompoundTag) frozen.get("Large")).getInt("Key0"));
+        assertEquals(decoded, frozen);
+
+        final ListTag<CompoundTag> frozenEntities = (ListTag<CompoundTag>) frozen.get("Y");
+        final CompoundTag frozenLarge = (CompoundTag) frozen.get("Large");
+        assertRejected(() -> frozen.putInt("K", 4));
+        assertRejected(() -> frozen.remove("A"));
+        assertRejected(() -> frozen.keySet().remove("A"));
+        assertRejected(() -> frozen.entrySet().iterator().next().setValue(new IntTag(1)));
+        assertRejected(() -> frozenLarge.entrySet().iterator().next().setValue(new IntTag(1)));
+        assertRejected(() -> frozenLarge.values().clear());
+        assertRejected(() -> ((IntTag) frozen.get("K")).set(4));
+        assertRejected(() -> ((StringTag) frozen.get("Q")).set("Test2"));
+        assertRejected(() -> ((IntArrayTag) frozen.get("L")).setAt(0, 1));
+        assertRejected(() -> frozenEntities.add(new CompoundTag()));
+        assertRejected(() -> {
+            final Iterator<CompoundTag> it = frozenEntities.iterator();
+            it.next();
+            it.remove();
+        });
+        assertRejected(() -> frozenEntities.subList(0, 1).set(0, new CompoundTag()));
+        assertRejected(() -> frozenEntities.get(0).putInt("Id", 5));
+        assertRejected(() -> ((IntListTag) frozen.get("Z")).addInt(4));
+        assertRejected(() -> ((MapTag<IntTag, DoubleTag>) frozen.get("V")).clear());
+        // The arrays of frozen array tags are copies
+        ((IntArrayTag) frozen.get("L")).get()[0] = 0;
+        assertEquals(30, (int) ((IntArrayTag) frozen.get("L")).getAt(0));
+        // but they can be read without copying them
+        final IntArrayTag frozenArray = (IntArrayTag) frozen.get("L");
+        assertSame(frozenArray.readOnlyArray(), frozenArray.readOnlyArray());
+        assertEquals(decoded, frozen);
+
+        // Frozen tags can be mixed with other tags
+        final ListTag<IntTag> ints = new ListTag<>();
+        ints.add(new IntTag(1).freeze());
+        ints.add(new IntTag(2));
+        assertEquals(ListTag.ofInts(1, 2), ints);
+
+        // Clones can be modified again
+        final CompoundTag clone = (CompoundTag) frozenLarge.clone();
+        assertFalse(clone.isFrozen());
+        clone.putInt("Key0", 6);
+        assertEquals(0, frozenLarge.getInt("Key0"));
+
+        // Lazy compounds are decoded before they are frozen
+        final CompoundTag lazyTag = new NbtTagBufferInputStream(ByteBuffer.wrap(toBytes(decoded))).readLazy().freeze();
+        assertTrue(lazyTag.isFrozen());
+        assertEquals(hashCode, lazyTag.hashCode());
+        assertEquals(decoded, lazyTag);
+        assertRejected(() -> lazyTag.remove("S"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCopy() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final CompoundTag entity = new CompoundTag();
+        entity.putInt("Id", 1);
+        final ListTag<CompoundTag> entities = new ListTag<>();
+        entities.add(entity);
+        compoundTag.put("Y", entities);
+        compoundTag.put("Z", ListTag.ofInts(1, 2, 3));
+
+        final CompoundTag copy = compoundTag.copy();
+        assertNotSame(compoundTag, copy);
+        assertEquals(compoundTag, copy);
+        assertEquals(compoundTag.hashCode(), copy.hashCode());
+        assertNotSame(entity, ((ListTag<CompoundTag>) copy.get("Y")).get(0));
+
+        // Modifying the original doesn't affect the copy
+        final CompoundTag expected = (CompoundTag) new NbtTagBufferInputStream(toBytes(copy)).read();
+        entity.putInt("Id", 2);
+        ((IntTag) compoundTag.get("K")).set(4);
+        ((IntArrayTag) compoundTag.get("L")).setAt(0, 1);
+        ((LongArrayTag) compoundTag.get("N")).get()[0] = 1;
+        ((IntListTag) compoundTag.get("Z")).setInt(0, 5);
+        assertEquals(expected, copy);
+
+        // Writing the copy doesn't copy the shared arrays
+        final IntArrayTag sharedArray = (IntArrayTag) compoundTag.get("L");
+        final CompoundTag written = compoundTag.copy();
+        toBytes(written);
+        assertSame(sharedArray.readOnlyArray(), ((IntArrayTag) written.get("L")).readOnlyArray());
+
+        // Modifying the copy doesn't affect the original
+        final CompoundTag original = compoundTag.copy();
+        ((ByteArrayTag) copy.get("D")).get()[0] = 5;
+        ((IntListTag) copy.get("Z")).addInt(4);
+        ((ListTag<CompoundTag>) copy.get("Y")).get(0).putInt("Id", 3);
+        assertEquals(original, compoundTag);
+
+        // Only the first tag that is modified copies the shared array
+        final IntArrayTag first = new IntArrayTag(1, 2, 3);
+        final IntArrayTag second = first.copy();
+        final int[] array = first.readOnlyArray();
+        second.setAt(0, 4);
+        first.setAt(0, 5);
+        assertNotSame(array, second.readOnlyArray());
+        assertSame(array, first.readOnlyArray());
+        final IntListTag firstList = (IntListTag) ListTag.ofInts(1, 2, 3);
+        final IntListTag secondList = firstList.copy();
+        secondList.setInt(0, 4);
+        firstList.setInt(0, 5);
+        assertEquals(ListTag.ofInts(5, 2, 3), firstList);
+        assertEquals(ListTag.ofInts(4, 2, 3), secondList);
+
+        // Copies of frozen tags can be modified again
+        final CompoundTag frozen = compoundTag.freeze();
+        final CompoundTag thawed = frozen.copy();
+        assertFalse(thawed.isFrozen());
+        assertFalse(thawed.get("K").isFrozen());
+        assertEquals(frozen, thawed);
+        ((IntArrayTag) thawed.get("L")).setAt(0, 2);
+        ((IntListTag) thawed.get("Z")).setInt(0, 6);
+        assertEquals(1, (int) ((IntArrayTag) frozen.get("L")).getAt(0));
+        assertEquals(5, ((IntListTag) frozen.get("Z")).getInt(0));
+
+        // Lazy compounds are decoded while they are copied
+        final CompoundTag lazyTag = new NbtTagBufferInputStream(ByteBuffer.wrap(toBytes(compoundTag))).readLazy();
+        assertEquals(compoundTag, lazyTag.copy());
+    }
+
+    @Test
+    public void test() throws IOException {
+        final CompoundTag compoundTag = createTestCompound();
+        final BooleanTag booleanTag = (BooleanTag) compoundTag.get("A");
+        final BooleanArrayTag booleanArrayTag = (BooleanArrayTag) compoundTag.get("B");
+        final ByteTag byteTag = (ByteTag) compoundTag.get("C");
+        final ByteArrayTag byteArrayTag = (ByteArrayTag) compoundTag.get("D");
+        final CharTag charTag = (CharTag) compoundTag.get("E");
+        final CharArrayTag charArrayTag = (CharArrayTag) compoundTag.get("F");
+        final DoubleTag doubleTag = (DoubleTag) compoundTag.get("G");
+        final DoubleArrayTag doubleArrayTag = (DoubleArrayTag) compoundTag.get("H");
 
         final NbtTagOutputStream nos = new NbtTagOutputStream(
                 new GZIPOutputStream(Files.newOutputStream(Paths.get("test.nbt"))));